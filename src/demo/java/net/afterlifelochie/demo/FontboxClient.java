@@ -4,11 +4,16 @@ import net.afterlifelochie.fontbox.api.FontboxManager;
 import net.afterlifelochie.fontbox.api.exception.FontException;
 import net.afterlifelochie.fontbox.api.font.GLFontBuilder;
 import net.afterlifelochie.fontbox.api.font.IGLFontBuilder;
+import net.afterlifelochie.fontbox.api.font.IPreparedFont;
 import net.afterlifelochie.fontbox.api.tracer.PrintOutputTracer;
 import net.minecraft.util.ResourceLocation;
 import net.minecraftforge.fml.common.event.FMLInitializationEvent;
 import net.minecraftforge.fml.common.event.FMLPreInitializationEvent;
 
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+
 public class FontboxClient extends FontboxServer {
     @GLFontBuilder
     public static IGLFontBuilder fontBuilder;
@@ -26,9 +31,10 @@ public class FontboxClient extends FontboxServer {
         try {
             manager = new FontboxManager();
             manager.setTracer(new PrintOutputTracer());
-            fontBuilder.fromSpriteFont(manager, "Daniel", new ResourceLocation("fontbox", "fonts/daniel.png"), new ResourceLocation("fontbox", "fonts/daniel.metrics.xml"));
-            fontBuilder.fromTTF(manager, 22.0f, new ResourceLocation("fontbox", "fonts/notethis.ttf"));
-            fontBuilder.fromTTF(manager, 22.0f, new ResourceLocation("fontbox", "fonts/ampersand.ttf"));
+            manager.loadFonts(ForkJoinPool.commonPool(), Arrays.<Callable<IPreparedFont>>asList(
+                () -> fontBuilder.prepareSpriteFont(manager, "Daniel", new ResourceLocation("fontbox", "fonts/daniel.png"), new ResourceLocation("fontbox", "fonts/daniel.metrics.xml")),
+                () -> fontBuilder.prepareTTF(manager, 22.0f, new ResourceLocation("fontbox", "fonts/notethis.ttf")),
+                () -> fontBuilder.prepareTTF(manager, 22.0f, new ResourceLocation("fontbox", "fonts/ampersand.ttf"))));
         } catch (FontException f0) {
             f0.printStackTrace();
         }
@@ -0,0 +1,113 @@
+package net.afterlifelochie.fontbox.api.tracer;
+
+import net.afterlifelochie.fontbox.api.FontboxManager;
+import net.afterlifelochie.fontbox.api.data.FormattedString;
+import net.afterlifelochie.fontbox.api.exception.FontException;
+import net.afterlifelochie.fontbox.api.exception.LayoutException;
+import net.afterlifelochie.fontbox.api.font.IGLFont;
+import net.afterlifelochie.fontbox.api.font.IGLFontMetrics;
+import net.afterlifelochie.fontbox.api.formatting.PageProperties;
+import net.afterlifelochie.fontbox.api.formatting.style.TextFormat;
+import net.afterlifelochie.fontbox.document.Paragraph;
+import net.afterlifelochie.fontbox.font.GLFontMetrics;
+import net.afterlifelochie.fontbox.layout.PageWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.*;
+import java.awt.font.FontRenderContext;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lays out a paragraph through a real {@link PageWriter}, tracing through
+ * {@link VoidTracer} and through a tracer which only implements
+ * {@link ITracer#trace(Object...)}. Run with -PjmhProf=gc; the difference in
+ * gc.alloc.rate.norm between the two is what the trace calls of layout would
+ * cost, and the void tracer pays none of it.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TracerBenchmark {
+    private ITracer voidTracer = new VoidTracer();
+    private ITracer varargsTracer = new ITracer() {
+        @Override
+        public void trace(Object... params) {
+            /* Do nothing */
+        }
+
+        @Override
+        public void warn(Object... params) {
+            /* Do nothing */
+        }
+
+        @Override
+        public boolean enableAssertion() {
+            return false;
+        }
+
+        @Override
+        public boolean ignoreInvalidSymbols() {
+            return true;
+        }
+    };
+
+    private FontboxManager manager;
+    private PageProperties properties;
+    private Paragraph paragraph;
+
+    @Setup
+    public void setup() throws FontException {
+        Font awt = new Font(Font.SERIF, Font.PLAIN, 22);
+        FontRenderContext ctx = new FontRenderContext(null, true, true);
+        final GLFontMetrics metric = GLFontMetrics.fromFontMetrics(new VoidTracer(), awt, ctx, 512, 512, 12,
+            IGLFont.MIN_CH, IGLFont.MAX_CH);
+        IGLFont font = new IGLFont() {
+            public String getName() {
+                return "serif";
+            }
+
+            public int getTextureId() {
+                return 1;
+            }
+
+            public float getScale() {
+                return 1.0f;
+            }
+
+            public IGLFontMetrics getMetric() {
+                return metric;
+            }
+
+            public void delete(FontboxManager manager) {
+            }
+        };
+
+        manager = new FontboxManager();
+        properties = new PageProperties(400, 600, new TextFormat(font));
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 20; i++)
+            text.append("Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do ");
+        paragraph = new Paragraph(new FormattedString(text.toString()));
+    }
+
+    @Benchmark
+    public int voidTracer() throws IOException, LayoutException {
+        return layout(voidTracer);
+    }
+
+    @Benchmark
+    public int varargsTracer() throws IOException, LayoutException {
+        return layout(varargsTracer);
+    }
+
+    private int layout(ITracer trace) throws IOException, LayoutException {
+        PageWriter writer = new PageWriter(properties, manager);
+        paragraph.layout(trace, writer);
+        writer.close();
+        return writer.pages().size();
+    }
+}
@@ -0,0 +1,58 @@
+package net.afterlifelochie.fontbox.font;
+
+import net.afterlifelochie.fontbox.api.exception.FontException;
+import net.afterlifelochie.fontbox.api.font.IGLFont;
+import net.afterlifelochie.fontbox.api.font.IGLGlyphMetric;
+import net.afterlifelochie.fontbox.api.tracer.VoidTracer;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.*;
+import java.awt.font.FontRenderContext;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares glyph lookups through the dense {@link GLFontMetrics#glyph(int)}
+ * table with lookups through the boxed {@link GLFontMetrics#getGlyphs()} map.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class GlyphLookupBenchmark {
+    private GLFontMetrics metric;
+    private char[] text;
+
+    @Setup
+    public void setup() throws FontException {
+        Font font = new Font(Font.SERIF, Font.PLAIN, 22);
+        FontRenderContext ctx = new FontRenderContext(null, true, true);
+        metric = GLFontMetrics.fromFontMetrics(new VoidTracer(), font, ctx, 512, 512, 12, IGLFont.MIN_CH, IGLFont.MAX_CH);
+        text = ("Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do eiusmod tempor incididunt ut labore "
+            + "et dolore magna aliqua. Ut enim ad minim veniam, quis nostrud exercitation ullamco laboris nisi ut "
+            + "aliquip ex ea commodo consequat. Duis aute irure dolor in reprehenderit in voluptate velit esse.").toCharArray();
+    }
+
+    @Benchmark
+    public int denseTable() {
+        int width = 0;
+        for (char c : text) {
+            IGLGlyphMetric glyph = metric.glyph(c);
+            if (glyph != null)
+                width += glyph.getWidth();
+        }
+        return width;
+    }
+
+    @Benchmark
+    public int hashMap() {
+        int width = 0;
+        for (char c : text) {
+            IGLGlyphMetric glyph = metric.getGlyphs().get((int) c);
+            if (glyph != null)
+                width += glyph.getWidth();
+        }
+        return width;
+    }
+}
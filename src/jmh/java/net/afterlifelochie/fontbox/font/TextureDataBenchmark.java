@@ -0,0 +1,65 @@
+package net.afterlifelochie.fontbox.font;
+
+import net.afterlifelochie.fontbox.api.exception.FontException;
+import net.afterlifelochie.fontbox.api.font.IGLFont;
+import net.afterlifelochie.fontbox.api.tracer.VoidTracer;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.*;
+import java.awt.color.ColorSpace;
+import java.awt.image.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Hashtable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares converting a glyph atlas into texture data by drawing it onto an
+ * RGBA raster and copying the bytes out with the direct
+ * {@link TextureData} conversions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TextureDataBenchmark {
+    private BufferedImage image;
+    private ByteBuffer reuse;
+
+    @Setup
+    public void setup() throws FontException {
+        image = GlyphAtlas.fromFont(new VoidTracer(), new Font(Font.SERIF, Font.PLAIN, 22), IGLFont.MIN_CH,
+            IGLFont.MAX_CH).getImage();
+    }
+
+    @Benchmark
+    public ByteBuffer drawAndCopy() {
+        int width = image.getWidth(), height = image.getHeight();
+        ColorModel glAlphaColorModel = new ComponentColorModel(ColorSpace.getInstance(ColorSpace.CS_sRGB), new int[]{
+            8, 8, 8, 8}, true, false, Transparency.TRANSLUCENT, DataBuffer.TYPE_BYTE);
+        WritableRaster raster = Raster.createInterleavedRaster(DataBuffer.TYPE_BYTE, width, height, 4, null);
+        BufferedImage texImage = new BufferedImage(glAlphaColorModel, raster, true, new Hashtable<>());
+        Graphics g = texImage.getGraphics();
+        g.setColor(new Color(0f, 0f, 0f, 0f));
+        g.fillRect(0, 0, width, height);
+        g.drawImage(image, 0, 0, null);
+        byte[] data = ((DataBufferByte) texImage.getRaster().getDataBuffer()).getData();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(data.length);
+        buffer.order(ByteOrder.nativeOrder());
+        buffer.put(data, 0, data.length);
+        buffer.flip();
+        return buffer;
+    }
+
+    @Benchmark
+    public ByteBuffer rgba() {
+        return reuse = TextureData.rgba(image, reuse);
+    }
+
+    @Benchmark
+    public ByteBuffer alpha() {
+        return reuse = TextureData.alpha(image, reuse);
+    }
+}
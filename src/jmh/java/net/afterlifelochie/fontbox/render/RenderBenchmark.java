@@ -0,0 +1,91 @@
+package net.afterlifelochie.fontbox.render;
+
+import net.afterlifelochie.fontbox.api.FontboxManager;
+import net.afterlifelochie.fontbox.api.exception.FontException;
+import net.afterlifelochie.fontbox.api.font.IGLFont;
+import net.afterlifelochie.fontbox.api.font.IGLFontMetrics;
+import net.afterlifelochie.fontbox.api.formatting.PageProperties;
+import net.afterlifelochie.fontbox.api.formatting.layout.FloatMode;
+import net.afterlifelochie.fontbox.api.formatting.style.TextFormat;
+import net.afterlifelochie.fontbox.api.formatting.style.TextFormatter;
+import net.afterlifelochie.fontbox.api.layout.IElement;
+import net.afterlifelochie.fontbox.api.layout.ObjectBounds;
+import net.afterlifelochie.fontbox.api.tracer.VoidTracer;
+import net.afterlifelochie.fontbox.font.GLFontMetrics;
+import net.afterlifelochie.fontbox.layout.components.Line;
+import net.afterlifelochie.fontbox.layout.components.Page;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.*;
+import java.awt.font.FontRenderContext;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares drawing a page of text line by line, as each {@link Line} renders
+ * itself, with drawing the page from a {@link PageBuffer}, through the
+ * {@link RecordingRenderBackend} so that only the renderer is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RenderBenchmark {
+    private RecordingRenderBackend backend;
+    private Page page;
+    private PageBuffer buffer;
+
+    @Setup
+    public void setup() throws FontException, RenderException {
+        Font awt = new Font(Font.SERIF, Font.PLAIN, 22);
+        FontRenderContext ctx = new FontRenderContext(null, true, true);
+        final GLFontMetrics metric = GLFontMetrics.fromFontMetrics(new VoidTracer(), awt, ctx, 512, 512, 12,
+            IGLFont.MIN_CH, IGLFont.MAX_CH);
+        IGLFont font = new IGLFont() {
+            public String getName() {
+                return "serif";
+            }
+
+            public int getTextureId() {
+                return 1;
+            }
+
+            public float getScale() {
+                return 1.0f;
+            }
+
+            public IGLFontMetrics getMetric() {
+                return metric;
+            }
+
+            public void delete(FontboxManager manager) {
+            }
+        };
+
+        TextFormatter formatter = new TextFormatter(new TextFormat(font));
+        char[] text = "Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do".toCharArray();
+        page = new Page(new PageProperties(400, 600, null));
+        for (int i = 0; i < 40; i++)
+            page.push(new Line(text, formatter, new ObjectBounds(0, i * 14, 400, 14, FloatMode.NONE), 5));
+
+        backend = new RecordingRenderBackend();
+        buffer = new PageBuffer(backend);
+        buffer.upload(PageGeometry.bake(page));
+    }
+
+    @Benchmark
+    public int immediate() throws RenderException {
+        backend.clear();
+        for (IElement element : page.staticElements())
+            element.render(backend, null, 0, 0, 0.0f);
+        return backend.size();
+    }
+
+    @Benchmark
+    public int buffered() {
+        backend.clear();
+        buffer.draw();
+        return backend.size();
+    }
+}
@@ -0,0 +1,63 @@
+package net.afterlifelochie.io;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads a 1 MB book through {@link StackedPushBackStringReader} and
+ * {@link StackedPushBackCharReader} the way Element.boxText does: one pushback
+ * mark per word. Run with -PjmhProf=gc to see the allocation of each reader.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ReaderBenchmark {
+    private String book;
+
+    @Setup
+    public void setup() throws IOException {
+        StringBuilder source = new StringBuilder();
+        try (InputStream stream = ReaderBenchmark.class.getResourceAsStream("/assets/fontbox/books/lipsum.book")) {
+            InputStreamReader reader = new InputStreamReader(stream, StandardCharsets.UTF_8);
+            char[] buf = new char[1024];
+            int len;
+            while ((len = reader.read(buf)) != -1)
+                source.append(buf, 0, len);
+        }
+        StringBuilder result = new StringBuilder(1 << 20);
+        while (result.length() < (1 << 20))
+            result.append(source);
+        book = result.substring(0, 1 << 20);
+    }
+
+    @Benchmark
+    public int stringReader() throws IOException {
+        return words(new StackedPushBackStringReader(book));
+    }
+
+    @Benchmark
+    public int charReader() throws IOException {
+        return words(new StackedPushBackCharReader(book));
+    }
+
+    private static int words(StackedPushBackCharReader reader) throws IOException {
+        int words = 0;
+        while (reader.available() > 0) {
+            reader.pushPosition();
+            char cz;
+            while ((cz = reader.next()) != 0 && cz != ' ' && cz != '\t')
+                ;
+            reader.commitPosition();
+            words++;
+        }
+        return words;
+    }
+}
@@ -1,11 +1,24 @@
 package net.afterlifelochie.fontbox.api;
 
+import net.afterlifelochie.fontbox.api.exception.FontException;
 import net.afterlifelochie.fontbox.api.font.IGLFont;
+import net.afterlifelochie.fontbox.api.font.IPreparedFont;
 import net.afterlifelochie.fontbox.api.tracer.ITracer;
 import net.afterlifelochie.fontbox.api.tracer.VoidTracer;
+import net.afterlifelochie.fontbox.font.FontCache;
 import net.afterlifelochie.fontbox.font.GLFont;
+import net.afterlifelochie.fontbox.layout.LayoutCache;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
 
 /**
  * Manger used for passing around commonly used objects
@@ -47,9 +60,109 @@ public class FontboxManager {
     }
 
     /**
-     * The map of all font names to fonts
+     * The layout cache, or null
      */
-    private HashMap<String, IGLFont> fonts = new HashMap<>();
+    private LayoutCache layoutCache;
+
+    /**
+     * Get the layout cache books are paginated through.
+     *
+     * @return The layout cache, or null if layouts are not cached
+     */
+    public LayoutCache layoutCache() {
+        return layoutCache;
+    }
+
+    /**
+     * Set the layout cache books are paginated through.
+     *
+     * @param layoutCache The new layout cache, or null to stop caching
+     */
+    public void setLayoutCache(LayoutCache layoutCache) {
+        this.layoutCache = layoutCache;
+    }
+
+    /**
+     * The font cache, or null
+     */
+    private FontCache fontCache;
+
+    /**
+     * Get the cache TTF fonts are rasterized through.
+     *
+     * @return The font cache, or null if fonts are not cached
+     */
+    public FontCache fontCache() {
+        return fontCache;
+    }
+
+    /**
+     * Set the cache TTF fonts are rasterized through.
+     *
+     * @param fontCache The new font cache, or null to stop caching
+     */
+    public void setFontCache(FontCache fontCache) {
+        this.fontCache = fontCache;
+    }
+
+    /**
+     * Load a batch of fonts. Every font is prepared on the executor, so
+     * rasterization and texture conversion run in parallel; each texture is
+     * uploaded on the calling thread as soon as its font is ready. Must be
+     * called on the render thread.
+     *
+     * @param executor The executor to prepare fonts on
+     * @param jobs     The fonts to prepare, usually calls to the prepare
+     *                 methods of {@link net.afterlifelochie.fontbox.api.font.IGLFontBuilder}
+     * @return The fonts, in the order of the jobs
+     * @throws FontException Any exception which occurs when preparing or
+     *                       uploading a font. Fonts uploaded before the
+     *                       failure stay allocated.
+     */
+    public List<IGLFont> loadFonts(Executor executor, List<? extends Callable<? extends IPreparedFont>> jobs) throws FontException {
+        List<CompletableFuture<IPreparedFont>> prepared = new ArrayList<>(jobs.size());
+        BlockingQueue<Integer> ready = new LinkedBlockingQueue<>();
+        for (int i = 0; i < jobs.size(); i++) {
+            Callable<? extends IPreparedFont> job = jobs.get(i);
+            CompletableFuture<IPreparedFont> future = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return job.call();
+                } catch (Exception e) {
+                    throw new CompletionException(e);
+                }
+            }, executor);
+            int index = i;
+            future.whenComplete((font, error) -> ready.add(index));
+            prepared.add(future);
+        }
+
+        IGLFont[] fonts = new IGLFont[jobs.size()];
+        try {
+            for (int n = 0; n < fonts.length; n++) {
+                int index = ready.take();
+                IPreparedFont font;
+                try {
+                    font = prepared.get(index).join();
+                } catch (CompletionException e) {
+                    if (e.getCause() instanceof FontException)
+                        throw (FontException) e.getCause();
+                    throw new FontException("Cannot prepare font!", e.getCause());
+                }
+                tracer.trace("FontboxManager.loadFonts", "upload", font);
+                fonts[index] = font.upload(this);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FontException("Interrupted while loading fonts!", e);
+        }
+        return Arrays.asList(fonts);
+    }
+
+    /**
+     * The map of all font names to fonts. Fonts are registered on the render
+     * thread but looked up during layout, which may run on any thread.
+     */
+    private final ConcurrentHashMap<String, IGLFont> fonts = new ConcurrentHashMap<>();
 
     /**
      * Allocate a font on the font record heap. The font can later be referenced
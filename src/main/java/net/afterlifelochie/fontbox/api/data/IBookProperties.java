@@ -51,6 +51,16 @@ public interface IBookProperties {
      */
     void drawForeground(int width, int height, int mx, int my, float frame, float zLevel);
 
+    /**
+     * Get how many times a second animated elements, such as items with a
+     * glint, are drawn again. Between steps they are replayed as they were.
+     *
+     * @return The animation rate, or 0 to animate every frame
+     */
+    default float getAnimationRate() {
+        return 20.0f;
+    }
+
     int getBookWidth();
 
     int getBookHeight();
@@ -6,12 +6,17 @@ import net.afterlifelochie.fontbox.api.formatting.layout.AlignmentMode;
 import net.afterlifelochie.fontbox.api.formatting.layout.CompilerHint;
 import net.afterlifelochie.fontbox.api.formatting.layout.FloatMode;
 import net.afterlifelochie.fontbox.api.layout.IElement;
+import net.afterlifelochie.fontbox.api.layout.IPage;
 import net.minecraft.client.gui.GuiScreen;
 import net.minecraft.item.ItemStack;
 import net.minecraft.util.ResourceLocation;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 
 public interface IDocument {
     void addElement(IElement element);
@@ -69,4 +74,79 @@ public interface IDocument {
     GuiScreen createBookGui(FontboxManager manager, IBookProperties bookProperties) throws IOException, LayoutException;
 
     IBook createBook(FontboxManager manager, IBookProperties bookProperties) throws IOException, LayoutException;
+
+    /**
+     * Lay out the document into a book, laying out the parts between page
+     * breaks in parallel on a pool. The book is the same as the one from
+     * {@link #createBook(FontboxManager, IBookProperties)}.
+     *
+     * @param manager        The font manager
+     * @param bookProperties The book properties
+     * @param pool           The pool to lay out on
+     * @return The book
+     * @throws IOException     Any I/O exception which occurs during layout
+     * @throws LayoutException Any layout exception which occurs during layout
+     */
+    IBook createBook(FontboxManager manager, IBookProperties bookProperties, ForkJoinPool pool) throws IOException, LayoutException;
+
+    /**
+     * Lay out the document into a book which holds only a few pages in
+     * memory. Each page is encoded into a compact page file as soon as it is
+     * finished and dropped; pages are decoded again when they are asked for,
+     * keeping the most recently used ones. Only decoding is lazy: the whole
+     * document is still laid out before this returns, and the page file is
+     * kept on the heap, so this saves the memory of the laid out pages but
+     * not the time to the first page.
+     *
+     * @param manager        The font manager
+     * @param bookProperties The book properties
+     * @param maxPages       The most pages to keep decoded at once
+     * @return The book
+     * @throws IOException     Any I/O exception which occurs during layout
+     * @throws LayoutException Any layout exception which occurs during layout
+     */
+    IBook createLazyBook(FontboxManager manager, IBookProperties bookProperties, int maxPages) throws IOException, LayoutException;
+
+    /**
+     * Lay out the document into a book on an executor. Layout does not use
+     * OpenGL, but every font the document uses must already be loaded. The
+     * document must not be changed or laid out again until the future is
+     * complete.
+     *
+     * @param manager        The font manager
+     * @param bookProperties The book properties
+     * @param executor       The executor to lay out on
+     * @return A future which completes with the book, or with the
+     * {@link IOException} or {@link LayoutException} raised during layout
+     */
+    default CompletableFuture<IBook> createBookAsync(FontboxManager manager, IBookProperties bookProperties, Executor executor) {
+        return createBookAsync(manager, bookProperties, executor, null);
+    }
+
+    /**
+     * Lay out the document into a book on an executor, publishing each page
+     * as soon as it is finished. Pages are given to the listener in order, on
+     * the layout thread, before the future completes.
+     *
+     * @param manager        The font manager
+     * @param bookProperties The book properties
+     * @param executor       The executor to lay out on
+     * @param pageListener   The listener for finished pages, or null
+     * @return A future which completes with the book
+     * @see #createBookAsync(FontboxManager, IBookProperties, Executor)
+     */
+    CompletableFuture<IBook> createBookAsync(FontboxManager manager, IBookProperties bookProperties, Executor executor, Consumer<IPage> pageListener);
+
+    /**
+     * Create a book GUI straight away and lay out the document into it on an
+     * executor. Finished pages are handed to the GUI on the client thread, so
+     * the first spread can be read before the whole book is done. This must
+     * be called on the client thread.
+     *
+     * @param manager        The font manager
+     * @param bookProperties The book properties
+     * @param executor       The executor to lay out on
+     * @return The book GUI
+     */
+    GuiScreen createBookGuiAsync(FontboxManager manager, IBookProperties bookProperties, Executor executor);
 }
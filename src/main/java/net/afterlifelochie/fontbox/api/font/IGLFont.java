@@ -3,6 +3,10 @@ package net.afterlifelochie.fontbox.api.font;
 import net.afterlifelochie.fontbox.api.FontboxManager;
 
 public interface IGLFont {
+    /**
+     * The range of characters every font is built with. Fonts may load more
+     * characters as they are used; see {@link IGLGlyphMetric#getPage()}.
+     */
     char MIN_CH = '\u0000';
     char MAX_CH = '\u00ff';
 
@@ -20,6 +24,27 @@ public interface IGLFont {
      */
     int getTextureId();
 
+    /**
+     * Get the OpenGL texture ID for an atlas page of this font. Must be
+     * called on the render thread, as pages may be uploaded on first use.
+     *
+     * @param page The page
+     * @return The 2D texture ID for the page
+     */
+    default int getTextureId(int page) {
+        return getTextureId();
+    }
+
+    /**
+     * Whether the font's textures hold signed distance fields rather than
+     * coverage, and must be drawn with an alpha test at one half.
+     *
+     * @return If the font is a distance field font
+     */
+    default boolean isDistanceField() {
+        return false;
+    }
+
     /**
      * Get the OpenGL font scale for this font.
      *
@@ -46,4 +46,86 @@ public interface IGLFontBuilder {
      *                       creating the final result.
      */
     IGLFont fromFont(FontboxManager manager, Font font) throws FontException;
+
+    /**
+     * Create a signed distance field GLFont from a TTF file. The glyphs are
+     * generated once, at {@link net.afterlifelochie.fontbox.font.DistanceFieldAtlas#BASE_SIZE},
+     * in parallel; use {@link #deriveSize} to draw the font at other sizes
+     * from the same texture.
+     *
+     * @param manager The manger used
+     * @param ttf     The TTF file
+     * @return The GLFont result
+     * @throws FontException Any exception which occurs when reading the TTF file, brewing
+     *                       the distance field or creating the final font.
+     */
+    IGLFont fromDistanceField(FontboxManager manager, ResourceLocation ttf) throws FontException;
+
+    /**
+     * Create a GLFont which draws a distance field font at another size,
+     * sharing its texture
+     *
+     * @param manager The manger used
+     * @param font    The distance field font
+     * @param px      The font pixel size
+     * @return The GLFont result
+     * @throws FontException If the font is not a distance field font
+     */
+    IGLFont deriveSize(FontboxManager manager, IGLFont font, float px) throws FontException;
+
+    /**
+     * Prepare a GLFont from a TTF file, without uploading it. May be called
+     * on any thread, but not while resources are being reloaded.
+     *
+     * @param manager The manger used
+     * @param px      The font pixel size
+     * @param ttf     The TTF file
+     * @return The prepared font
+     * @throws FontException Any exception which occurs when reading the TTF file or
+     *                       brewing the buffer.
+     * @see FontboxManager#loadFonts
+     */
+    IPreparedFont prepareTTF(FontboxManager manager, float px, ResourceLocation ttf) throws FontException;
+
+    /**
+     * Prepare a GLFont from a sprite font and XML descriptor, without
+     * uploading it. May be called on any thread, but not while resources are
+     * being reloaded.
+     *
+     * @param manager The manger used
+     * @param name    The name of the font, case sensitive
+     * @param image   The image file
+     * @param xml     The XML descriptor file
+     * @return The prepared font
+     * @throws FontException Any exception which occurs when reading the image file, when
+     *                       reading the XML descriptor or when brewing the buffer.
+     * @see FontboxManager#loadFonts
+     */
+    IPreparedFont prepareSpriteFont(FontboxManager manager, String name, ResourceLocation image, ResourceLocation xml) throws FontException;
+
+    /**
+     * Prepare a GLFont from a Java Font object, without uploading it. May be
+     * called on any thread.
+     *
+     * @param manager The manger used
+     * @param font    The font object
+     * @return The prepared font
+     * @throws FontException Any exception which occurs when brewing the buffer.
+     * @see FontboxManager#loadFonts
+     */
+    IPreparedFont prepareFont(FontboxManager manager, Font font) throws FontException;
+
+    /**
+     * Prepare a signed distance field GLFont from a TTF file, without
+     * uploading it. May be called on any thread, but not while resources are
+     * being reloaded.
+     *
+     * @param manager The manger used
+     * @param ttf     The TTF file
+     * @return The prepared font
+     * @throws FontException Any exception which occurs when reading the TTF file or
+     *                       brewing the distance field.
+     * @see FontboxManager#loadFonts
+     */
+    IPreparedFont prepareDistanceField(FontboxManager manager, ResourceLocation ttf) throws FontException;
 }
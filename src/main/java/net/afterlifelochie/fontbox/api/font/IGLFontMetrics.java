@@ -8,6 +8,16 @@ public interface IGLFontMetrics {
      */
     Map<Integer, IGLGlyphMetric> getGlyphs();
 
+    /**
+     * The dimensions and u-v location of a single character, or null if the
+     * character is not in the set
+     *
+     * @param codepoint The character
+     */
+    default IGLGlyphMetric glyph(int codepoint) {
+        return getGlyphs().get(codepoint);
+    }
+
     /**
      * The universal width of the font image.
      */
@@ -17,4 +27,22 @@ public interface IGLFontMetrics {
      * The universal height of the font image.
      */
     float getFontImageHeight();
+
+    /**
+     * The width of an atlas page of the font. Page 0 is the font image.
+     *
+     * @param page The page
+     */
+    default float getPageWidth(int page) {
+        return getFontImageWidth();
+    }
+
+    /**
+     * The height of an atlas page of the font. Page 0 is the font image.
+     *
+     * @param page The page
+     */
+    default float getPageHeight(int page) {
+        return getFontImageHeight();
+    }
 }
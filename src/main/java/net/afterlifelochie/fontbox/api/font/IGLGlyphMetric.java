@@ -25,4 +25,33 @@ public interface IGLGlyphMetric {
      * The character's width
      */
     int getVy();
+
+    /**
+     * The atlas page the character is drawn on
+     */
+    default int getPage() {
+        return 0;
+    }
+
+    /**
+     * The width of the character's texture region, when it is drawn at a
+     * different size than it is stored
+     */
+    default int getTextureWidth() {
+        return getWidth();
+    }
+
+    /**
+     * The height of the character's texture region
+     */
+    default int getTextureHeight() {
+        return getHeight();
+    }
+
+    /**
+     * The character's ascent on the texture
+     */
+    default int getTextureAscent() {
+        return getAscent();
+    }
 }
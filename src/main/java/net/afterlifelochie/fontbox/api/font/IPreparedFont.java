@@ -0,0 +1,29 @@
+package net.afterlifelochie.fontbox.api.font;
+
+import net.afterlifelochie.fontbox.api.FontboxManager;
+import net.afterlifelochie.fontbox.api.exception.FontException;
+
+/**
+ * A font which has been rasterized and converted into texture data, but not
+ * yet uploaded. Fonts can be prepared on any thread; only
+ * {@link #upload(FontboxManager)} needs the OpenGL context.
+ */
+public interface IPreparedFont {
+    /**
+     * Get the name of the font.
+     *
+     * @return The name of the font
+     */
+    String getName();
+
+    /**
+     * Upload the font texture and allocate the font on the manager. Must be
+     * called on the render thread, and only once.
+     *
+     * @param manager The manager used
+     * @return The GLFont result
+     * @throws FontException Any exception which occurs when creating the
+     *                       final font.
+     */
+    IGLFont upload(FontboxManager manager) throws FontException;
+}
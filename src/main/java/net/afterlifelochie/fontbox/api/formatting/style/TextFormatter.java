@@ -1,13 +1,30 @@
 package net.afterlifelochie.fontbox.api.formatting.style;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
 
+/**
+ * Run-length map of {@link TextFormat}s over a string. Each run starts at a
+ * character index and applies until the start of the next run. Runs are kept
+ * sorted by start index so format lookups are a binary search and sequential
+ * walks can step from run to run.
+ */
 public class TextFormatter {
-    private Map<Integer, TextFormat> formatting;
+    /**
+     * The start index of each run, sorted ascending
+     */
+    private int[] starts;
+    /**
+     * The format of each run
+     */
+    private TextFormat[] formats;
+    /**
+     * The number of runs in use
+     */
+    private int runs;
 
     public TextFormatter() {
-        formatting = new HashMap<>();
+        starts = new int[4];
+        formats = new TextFormat[4];
     }
 
     public TextFormatter(TextFormat defaultFormat) {
@@ -15,32 +32,126 @@ public class TextFormatter {
         addDefaultFormat(defaultFormat);
     }
 
+    /**
+     * Copy a formatter
+     *
+     * @param other The formatter to copy
+     */
+    public TextFormatter(TextFormatter other) {
+        starts = Arrays.copyOf(other.starts, Math.max(other.runs, 4));
+        formats = Arrays.copyOf(other.formats, Math.max(other.runs, 4));
+        runs = other.runs;
+    }
+
     public void addDefaultFormat(TextFormat defaultFormat) {
-        if (!formatting.containsKey(0))
-            formatting.put(0, defaultFormat);
+        if (runs == 0 || starts[0] != 0)
+            insert(0, 0, defaultFormat);
     }
 
     public void addFormatting(int index, TextFormat format) {
-        formatting.put(index, format);
+        int run = search(index);
+        if (run >= 0)
+            formats[run] = format;
+        else
+            insert(-(run + 1), index, format);
     }
 
+    /**
+     * Get the format which applies to the character at an index
+     *
+     * @param index The character index
+     * @return The format, or null if no run starts at or before the index
+     */
     public TextFormat getFormat(int index) {
-        while (!formatting.containsKey(index))
-            index--;
-        return formatting.get(index);
+        int run = runAt(index);
+        return (run == -1) ? null : formats[run];
     }
 
+    /**
+     * Remove all runs starting at or after an index. The run at index zero is
+     * always kept.
+     *
+     * @param index The first index to remove
+     */
     public void cleanAfter(int index) {
-        formatting.entrySet().removeIf(entry -> entry.getKey() >= index && entry.getKey() != 0);
+        int from = ceiling(Math.max(index, 1));
+        Arrays.fill(formats, from, runs, null);
+        runs = from;
     }
 
+    /**
+     * Get a formatter for a sub-range of the text, rebased to start at zero
+     *
+     * @param start  The start index of the range
+     * @param length The length of the range
+     * @return The formatter for the range
+     */
     public TextFormatter getFormatter(int start, int length) {
         TextFormatter formatter = new TextFormatter(getFormat(start));
+        for (int run = ceiling(start); run < runs && starts[run] <= start + length; run++)
+            formatter.addFormatting(starts[run] - start, formats[run]);
+        return formatter;
+    }
 
-        for (Map.Entry<Integer, TextFormat> entry : formatting.entrySet())
-            if (entry.getKey() >= start && entry.getKey() <= start + length)
-                formatter.addFormatting(entry.getKey() - start, entry.getValue());
+    /**
+     * Get the number of runs in the formatter
+     *
+     * @return The number of runs
+     */
+    public int runCount() {
+        return runs;
+    }
 
-        return formatter;
+    /**
+     * Get the run which applies to the character at an index
+     *
+     * @param index The character index
+     * @return The run number, or -1 if no run starts at or before the index
+     */
+    public int runAt(int index) {
+        int run = search(index);
+        return (run >= 0) ? run : -(run + 1) - 1;
+    }
+
+    /**
+     * Get the start index of a run
+     *
+     * @param run The run number
+     * @return The start index of the run, or {@link Integer#MAX_VALUE} if the
+     * run is past the last run
+     */
+    public int runStart(int run) {
+        return (run < runs) ? starts[run] : Integer.MAX_VALUE;
+    }
+
+    /**
+     * Get the format of a run
+     *
+     * @param run The run number
+     * @return The format of the run
+     */
+    public TextFormat runFormat(int run) {
+        return formats[run];
+    }
+
+    private int search(int index) {
+        return Arrays.binarySearch(starts, 0, runs, index);
+    }
+
+    private int ceiling(int index) {
+        int run = search(index);
+        return (run >= 0) ? run : -(run + 1);
+    }
+
+    private void insert(int run, int index, TextFormat format) {
+        if (runs == starts.length) {
+            starts = Arrays.copyOf(starts, runs * 2);
+            formats = Arrays.copyOf(formats, runs * 2);
+        }
+        System.arraycopy(starts, run, starts, run + 1, runs - run);
+        System.arraycopy(formats, run, formats, run + 1, runs - run);
+        starts[run] = index;
+        formats[run] = format;
+        runs++;
     }
 }
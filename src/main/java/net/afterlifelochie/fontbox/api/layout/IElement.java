@@ -1,7 +1,9 @@
 package net.afterlifelochie.fontbox.api.layout;
 
 import net.afterlifelochie.fontbox.api.exception.LayoutException;
+import net.afterlifelochie.fontbox.api.render.IRenderBackend;
 import net.afterlifelochie.fontbox.api.tracer.ITracer;
+import net.afterlifelochie.fontbox.render.GlyphBatch;
 import net.afterlifelochie.fontbox.render.RenderException;
 import net.minecraft.client.gui.GuiScreen;
 
@@ -26,14 +28,15 @@ public interface IElement {
      * Called to render the element on the page.
      * </p>
      *
-     * @param gui   The GUI rendering on
-     * @param mx    The mouse x-coordinate
-     * @param my    The mouse y-coordinate
-     * @param frame The current partial frame
+     * @param backend The backend to draw with
+     * @param gui     The GUI rendering on
+     * @param mx      The mouse x-coordinate
+     * @param my      The mouse y-coordinate
+     * @param frame   The current partial frame
      * @throws RenderException Any rendering exception which prevents the element from being
      *                         rendered on the page
      */
-    void render(GuiScreen gui, int mx, int my, float frame) throws RenderException;
+    void render(IRenderBackend backend, GuiScreen gui, int mx, int my, float frame) throws RenderException;
 
     /**
      * <p>
@@ -78,6 +81,69 @@ public interface IElement {
      */
      boolean canCompileRender();
 
+    /**
+     * Called to determine if this element requires explicit update ticks.
+     * Elements which update are stepped at the animation rate of the book.
+     *
+     * @return If the element requires update ticks
+     */
+    default boolean canUpdate() {
+        return false;
+    }
+
+    /**
+     * Called to update the element; elements which change should mark
+     * themselves dirty
+     */
+    default void update() {
+    }
+
+    /**
+     * <p>
+     * Called to determine if this element has changed since it was last
+     * drawn. Dynamic elements which are not dirty are replayed as they were
+     * last drawn, rather than drawn again. Elements which do not keep track
+     * of their changes are always dirty, and are simply drawn every frame.
+     * </p>
+     *
+     * @return If the element must be drawn again
+     */
+    default boolean isDirty() {
+        return true;
+    }
+
+    /**
+     * Mark the element as changed, so that it is drawn again in the next
+     * frame
+     */
+    default void markDirty() {
+    }
+
+    /**
+     * Called once the element has been drawn
+     */
+    default void markClean() {
+    }
+
+    /**
+     * <p>
+     * Called to write the geometry of a compile-rendered element into the
+     * batch of its page, which is drawn from a vertex buffer until the page
+     * changes. Positions are relative to the page and scaled, exactly where
+     * {@link #render(IRenderBackend, GuiScreen, int, int, float)} would draw
+     * them.
+     * </p>
+     *
+     * @param batch The batch of the page
+     * @return If the element wrote its geometry; elements which did not are
+     * rendered every frame instead
+     * @throws RenderException Any rendering exception which prevents the element from being
+     *                         written to the batch
+     */
+    default boolean bake(GlyphBatch batch) throws RenderException {
+        return false;
+    }
+
     /**
      * <p>
      * Called by the document generator to request this element fill in it's
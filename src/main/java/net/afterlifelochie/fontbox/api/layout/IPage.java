@@ -1,7 +1,8 @@
 package net.afterlifelochie.fontbox.api.layout;
 
 import net.afterlifelochie.fontbox.api.formatting.PageProperties;
-import net.minecraft.client.renderer.GlStateManager;
+import net.afterlifelochie.fontbox.api.render.IRenderBackend;
+import net.afterlifelochie.fontbox.render.GlyphBatch;
 
 import java.util.Iterator;
 import java.util.LinkedList;
@@ -17,20 +18,23 @@ public interface IPage extends IContainer, Iterable<IElement> {
     Iterable<IElement> allElements();
 
     /**
-     * Dynamic rendering means that the results should be saved to a display list
+     * Dynamic elements are drawn each frame, into a display list of their own
+     * which is replayed while they are not dirty; see
+     * {@link IRenderBackend#beginList(int)} and {@link IRenderBackend#endList()}
      *
-     * @return all elements that require dynamic rendering
+     * @return all elements that require dynamic rendering, in page order; the
+     * list may not be changed
      */
-    Iterable<IElement> dynamicElements();
+    List<IElement> dynamicElements();
 
     /**
-     * Static elements can/should be save to a display list for performance reasons
-     * See {@link net.minecraft.client.renderer.GlStateManager#glNewList(int, int)}
-     * and {@link GlStateManager#glEndList()} for more info
+     * Static elements are compiled once into the vertex data of the page; see
+     * {@link IElement#bake(GlyphBatch)}
      *
-     * @return all elements that can be statically rendered
+     * @return all elements that can be statically rendered, in page order;
+     * the list may not be changed
      */
-    Iterable<IElement> staticElements();
+    List<IElement> staticElements();
 
     PageProperties getProperties();
 
@@ -44,6 +48,21 @@ public interface IPage extends IContainer, Iterable<IElement> {
      */
      IElement intersectsElement(ObjectBounds bounds);
 
+    /**
+     * Find the element on the page which encloses a point. Static elements
+     * are checked before dynamic elements.
+     *
+     * @param x The x-coordinate
+     * @param y The y-coordinate
+     * @return The element at the point, or null if there is none
+     */
+    default IElement elementAt(int x, int y) {
+        for (IElement element : allElements())
+            if (element.bounds().encloses(x, y))
+                return element;
+        return null;
+    }
+
     /**
      * Determine if the provided bounding box fits entirely on the page. Returns
      * true if the bounding box fits inside the page, false if not.
@@ -53,6 +72,27 @@ public interface IPage extends IContainer, Iterable<IElement> {
      */
      boolean insidePage(ObjectBounds bounds);
 
+    /**
+     * Find the element on the page with the lowest bottom edge. Static
+     * elements win ties with dynamic elements, and earlier elements win ties
+     * with later ones. Elements with a bottom edge at or above the top of the
+     * page are ignored.
+     *
+     * @return The lowest element, or null if there is none
+     */
+    default IElement lowestElement() {
+        IElement lowest = null;
+        int bottom = 0;
+        for (IElement element : allElements()) {
+            int edge = element.bounds().y + element.bounds().height;
+            if (edge > bottom) {
+                bottom = edge;
+                lowest = element;
+            }
+        }
+        return lowest;
+    }
+
     @Override
     default Iterator<IElement> iterator(){
         List<IElement> list = new LinkedList<>();
@@ -0,0 +1,275 @@
+package net.afterlifelochie.fontbox.api.render;
+
+import net.afterlifelochie.fontbox.render.GlyphBatch;
+import net.afterlifelochie.fontbox.render.RenderException;
+import net.minecraft.item.ItemStack;
+import net.minecraft.util.ResourceLocation;
+
+import java.nio.ByteBuffer;
+
+/**
+ * <p>
+ * The drawing operations the book renderer is built on. The renderer draws
+ * through a backend rather than calling OpenGL itself, so that it can be
+ * driven without a display, such as in tests and benchmarks.
+ * </p>
+ * <p>
+ * Vertex data is interleaved: quads as in {@link GlyphBatch#QUAD_VERTEX_SIZE}
+ * and lines as in {@link GlyphBatch#LINE_VERTEX_SIZE}. Buffer objects and
+ * display lists are named by the numbers the backend hands out. A backend is
+ * only used on the render thread.
+ * </p>
+ */
+public interface IRenderBackend {
+
+    /**
+     * Check that no earlier operation has failed
+     *
+     * @throws RenderException If an earlier operation has failed
+     */
+    void checkError() throws RenderException;
+
+    /**
+     * Save the current transform
+     */
+    void pushMatrix();
+
+    /**
+     * Restore the transform saved last
+     */
+    void popMatrix();
+
+    /**
+     * Move the origin of the current transform
+     *
+     * @param x The x-offset
+     * @param y The y-offset
+     * @param z The z-offset
+     */
+    void translate(float x, float y, float z);
+
+    /**
+     * Scale the current transform
+     *
+     * @param x The x-factor
+     * @param y The y-factor
+     * @param z The z-factor
+     */
+    void scale(float x, float y, float z);
+
+    /**
+     * Set the color drawing is tinted with
+     *
+     * @param r The red component
+     * @param g The green component
+     * @param b The blue component
+     * @param a The alpha component
+     */
+    void color(float r, float g, float b, float a);
+
+    /**
+     * Blend what is drawn next by its alpha
+     */
+    void enableBlend();
+
+    /**
+     * Stop blending
+     */
+    void disableBlend();
+
+    /**
+     * Draw with a texture by its name
+     *
+     * @param texture The texture name
+     */
+    void bindTexture(int texture);
+
+    /**
+     * Draw with a texture by its resource location
+     *
+     * @param texture The texture
+     */
+    void bindTexture(ResourceLocation texture);
+
+    /**
+     * Start drawing glyphs of a distance field font; see
+     * {@link #endDistanceField()}
+     */
+    void beginDistanceField();
+
+    /**
+     * Stop drawing glyphs of a distance field font, putting back the state
+     * other glyphs are drawn with: blending and the GUI alpha test
+     */
+    void endDistanceField();
+
+    /**
+     * Draw an untextured rectangle
+     *
+     * @param x The x-coordinate
+     * @param y The y-coordinate
+     * @param w The width
+     * @param h The height
+     * @param z The z-level
+     */
+    void drawRect(float x, float y, float w, float h, float z);
+
+    /**
+     * Draw a rectangle of the bound texture
+     *
+     * @param x  The x-coordinate
+     * @param y  The y-coordinate
+     * @param w  The width
+     * @param h  The height
+     * @param u  The left texture coordinate
+     * @param v  The top texture coordinate
+     * @param us The width in texture coordinates
+     * @param vs The height in texture coordinates
+     * @param z  The z-level
+     */
+    void drawTexturedRect(float x, float y, float w, float h, float u, float v, float us, float vs, float z);
+
+    /**
+     * Draw an untextured line half a GUI pixel wide
+     *
+     * @param xBegin The x-coordinate of the start
+     * @param yBegin The y-coordinate of the start
+     * @param xEnd   The x-coordinate of the end
+     * @param yEnd   The y-coordinate of the end
+     * @param z      The z-level
+     */
+    void drawLine(float xBegin, float yBegin, float xEnd, float yEnd, float z);
+
+    /**
+     * Draw interleaved quads from an array with the bound texture
+     *
+     * @param quads The quad vertex data
+     * @param first The first vertex to draw
+     * @param count The number of vertices to draw
+     */
+    void drawQuads(float[] quads, int first, int count);
+
+    /**
+     * Draw interleaved untextured underlines from an array
+     *
+     * @param lines The line vertex data
+     * @param first The first vertex to draw
+     * @param count The number of vertices to draw
+     */
+    void drawLines(float[] lines, int first, int count);
+
+    /**
+     * Draw an item stack, with its glint and overlays
+     *
+     * @param stack The item stack
+     * @param x     The x-coordinate
+     * @param y     The y-coordinate
+     * @param w     The width
+     * @param h     The height
+     */
+    void drawItem(ItemStack stack, float x, float y, float w, float h);
+
+    /**
+     * @return if vertex data can be kept in buffer objects
+     */
+    boolean useBuffers();
+
+    /**
+     * Create a buffer object
+     *
+     * @return The name of the buffer
+     */
+    int createBuffer();
+
+    /**
+     * Replace the contents of a buffer object
+     *
+     * @param buffer The name of the buffer
+     * @param data   The vertex data, from its position to its limit
+     */
+    void uploadBuffer(int buffer, ByteBuffer data);
+
+    /**
+     * Delete a buffer object
+     *
+     * @param buffer The name of the buffer
+     */
+    void deleteBuffer(int buffer);
+
+    /**
+     * Start drawing vertex data, blended, from a buffer object or from memory
+     *
+     * @param buffer The name of the buffer, or -1 to draw from memory
+     * @param data   The vertex data in memory, when there is no buffer
+     */
+    void beginVertices(int buffer, ByteBuffer data);
+
+    /**
+     * Draw quads with the bound texture from the vertex data begun
+     *
+     * @param offset The byte offset of the first quad vertex in the data
+     * @param first  The first vertex to draw
+     * @param count  The number of vertices to draw
+     */
+    void drawQuads(int offset, int first, int count);
+
+    /**
+     * Draw untextured underlines from the vertex data begun
+     *
+     * @param offset The byte offset of the first line vertex in the data
+     * @param count  The number of vertices to draw
+     */
+    void drawLines(int offset, int count);
+
+    /**
+     * Stop drawing vertex data; the color is reset and blending is disabled
+     */
+    void endVertices();
+
+    /**
+     * Create a run of display lists
+     *
+     * @param count The number of lists
+     * @return The name of the first list, or 0 if none could be created
+     */
+    int createLists(int count);
+
+    /**
+     * Start recording a display list; what is drawn until
+     * {@link #endList()} is also drawn now. The state is reset first, and
+     * the list records what is changed from there.
+     *
+     * @param list The name of the list
+     */
+    void beginList(int list);
+
+    /**
+     * Stop recording a display list
+     */
+    void endList();
+
+    /**
+     * Reset the state and replay a display list
+     *
+     * @param list The name of the list
+     */
+    void callList(int list);
+
+    /**
+     * Put the state drawing changes back as it was set up for the GUI: no
+     * texture, a white color, no blending, the GUI alpha test and no
+     * lighting. Any state the backend remembers to save on redundant changes
+     * is set to match, as lists which have been replayed may have changed it.
+     * Elements drawn into lists may change other state only if they put it
+     * back themselves.
+     */
+    void resetState();
+
+    /**
+     * Delete a run of display lists
+     *
+     * @param list  The name of the first list
+     * @param count The number of lists
+     */
+    void deleteLists(int list, int count);
+}
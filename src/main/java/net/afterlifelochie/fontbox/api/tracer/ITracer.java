@@ -27,6 +27,66 @@ public interface ITracer {
      */
     void trace(Object... params);
 
+    /**
+     * <p>
+     * Called by the layout and font code before building expensive trace
+     * parameters.
+     * The phase overloads below take their parameters as they are, but a call
+     * through {@link #trace(Object...)} builds its array and boxes its
+     * parameters whether or not the tracer records them; calls on hot paths
+     * which need it are skipped when this returns false.
+     * </p>
+     *
+     * @return If trace events are being recorded
+     */
+    default boolean isTraceEnabled() {
+        return true;
+    }
+
+    /**
+     * Trace a phase with no parameters. See {@link #trace(Object...)}.
+     *
+     * @param source The method name being invoked
+     * @param phase  The name of the phase being recorded
+     */
+    default void trace(String source, String phase) {
+        trace(new Object[] { source, phase });
+    }
+
+    /**
+     * Trace a phase with one integer parameter. See {@link #trace(Object...)}.
+     *
+     * @param source The method name being invoked
+     * @param phase  The name of the phase being recorded
+     * @param a      The parameter
+     */
+    default void trace(String source, String phase, int a) {
+        trace(new Object[] { source, phase, a });
+    }
+
+    /**
+     * Trace a phase with one parameter. See {@link #trace(Object...)}.
+     *
+     * @param source The method name being invoked
+     * @param phase  The name of the phase being recorded
+     * @param a      The parameter
+     */
+    default void trace(String source, String phase, Object a) {
+        trace(new Object[] { source, phase, a });
+    }
+
+    /**
+     * Trace a phase with two parameters. See {@link #trace(Object...)}.
+     *
+     * @param source The method name being invoked
+     * @param phase  The name of the phase being recorded
+     * @param a      The first parameter
+     * @param b      The second parameter
+     */
+    default void trace(String source, String phase, Object a, Object b) {
+        trace(new Object[] { source, phase, a, b });
+    }
+
     /**
      * <p>
      * Called by FontboxManager to trace a particular warning notification to the
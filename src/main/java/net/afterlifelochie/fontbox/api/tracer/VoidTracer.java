@@ -14,6 +14,31 @@ public class VoidTracer implements ITracer {
         /* Do nothing */
     }
 
+    @Override
+    public boolean isTraceEnabled() {
+        return false;
+    }
+
+    @Override
+    public void trace(String source, String phase) {
+        /* Do nothing */
+    }
+
+    @Override
+    public void trace(String source, String phase, int a) {
+        /* Do nothing */
+    }
+
+    @Override
+    public void trace(String source, String phase, Object a) {
+        /* Do nothing */
+    }
+
+    @Override
+    public void trace(String source, String phase, Object a, Object b) {
+        /* Do nothing */
+    }
+
     @Override
     public void warn(Object... params) {
         StringBuilder result = new StringBuilder();
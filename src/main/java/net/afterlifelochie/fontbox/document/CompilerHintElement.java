@@ -3,7 +3,9 @@ package net.afterlifelochie.fontbox.document;
 import net.afterlifelochie.fontbox.api.exception.LayoutException;
 import net.afterlifelochie.fontbox.api.formatting.layout.CompilerHint;
 import net.afterlifelochie.fontbox.api.layout.*;
+import net.afterlifelochie.fontbox.api.render.IRenderBackend;
 import net.afterlifelochie.fontbox.api.tracer.ITracer;
+import net.afterlifelochie.fontbox.layout.LayoutKey;
 import net.minecraft.client.gui.GuiScreen;
 
 import java.io.IOException;
@@ -43,17 +45,10 @@ public class CompilerHintElement extends Element {
                 case FLOAT_BREAK:
                     PageCursor cursor = writer.cursor();
                     IPage current = writer.current();
-                    IElement lowest = null;
-                    int dfx = 0;
-                    for (IElement elem : current.allElements()) {
-                        int dux = elem.bounds().y + elem.bounds().height;
-                        if (dux > dfx) {
-                            dfx = dux;
-                            lowest = elem;
-                        }
-                    }
+                    IElement lowest = current.lowestElement();
                     if (lowest == null || !lowest.bounds().floating())
                         return;
+                    int dfx = lowest.bounds().y + lowest.bounds().height;
                     if (lowest.bounds().x == 0) {
                         cursor.top(lowest.bounds().y + lowest.bounds().height);
                         cursor.left(0);
@@ -75,6 +70,14 @@ public class CompilerHintElement extends Element {
         throw new RuntimeException("Undefined behaviour: CompilerHintElement in doctree!");
     }
 
+    @Override
+    public boolean describe(LayoutKey key) {
+        key.put(types.size());
+        for (CompilerHint type : types)
+            key.put(type);
+        return true;
+    }
+
     @Override
     public boolean canUpdate() {
         throw new RuntimeException("Undefined behaviour: CompilerHintElement in doctree!");
@@ -86,7 +89,7 @@ public class CompilerHintElement extends Element {
     }
 
     @Override
-    public void render(GuiScreen gui, int mx, int my, float frame) {
+    public void render(IRenderBackend backend, GuiScreen gui, int mx, int my, float frame) {
         throw new RuntimeException("Undefined behaviour: CompilerHintElement in doctree!");
     }
 
@@ -7,19 +7,37 @@ import net.afterlifelochie.fontbox.api.data.IBook;
 import net.afterlifelochie.fontbox.api.data.IBookProperties;
 import net.afterlifelochie.fontbox.api.data.IDocument;
 import net.afterlifelochie.fontbox.api.exception.LayoutException;
+import net.afterlifelochie.fontbox.api.formatting.PageProperties;
 import net.afterlifelochie.fontbox.api.formatting.layout.AlignmentMode;
 import net.afterlifelochie.fontbox.api.formatting.layout.CompilerHint;
 import net.afterlifelochie.fontbox.api.formatting.layout.FloatMode;
 import net.afterlifelochie.fontbox.api.layout.IElement;
+import net.afterlifelochie.fontbox.api.layout.IPage;
 import net.afterlifelochie.fontbox.layout.DocumentProcessor;
+import net.afterlifelochie.fontbox.layout.LayoutCache;
+import net.afterlifelochie.fontbox.layout.LayoutKey;
+import net.afterlifelochie.fontbox.layout.LazyPageList;
+import net.afterlifelochie.fontbox.layout.PageCodec;
+import net.afterlifelochie.fontbox.layout.PageIndex;
 import net.afterlifelochie.fontbox.layout.PageWriter;
 import net.afterlifelochie.fontbox.layout.components.Line;
 import net.afterlifelochie.fontbox.render.BookGUI;
+import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.GuiScreen;
 import net.minecraft.item.ItemStack;
 import net.minecraft.util.ResourceLocation;
 
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
 
 public class DocumentWrapper implements IDocument {
     private Document document;
@@ -100,19 +118,112 @@ public class DocumentWrapper implements IDocument {
 
     @Override
     public GuiScreen createBookGui(FontboxManager manager, IBookProperties bookProperties) throws IOException, LayoutException {
-        PageWriter writer = new PageWriter(bookProperties.getPageProperties(), manager);
-        DocumentProcessor.generatePages(manager.tracer(), document, writer);
-        writer.close();
+        Book book = paginate(manager, bookProperties, null, null);
         BookGUI gui = new BookGUI(bookProperties, manager.tracer());
-        gui.changePages(writer.pages(), writer.index());
+        gui.changePages(book.pages(), book.index());
         return gui;
     }
 
     @Override
     public IBook createBook(FontboxManager manager, IBookProperties bookProperties) throws IOException, LayoutException {
+        return paginate(manager, bookProperties, null, null);
+    }
+
+    @Override
+    public IBook createBook(FontboxManager manager, IBookProperties bookProperties, ForkJoinPool pool) throws IOException, LayoutException {
+        return paginate(manager, bookProperties, pool, null);
+    }
+
+    @Override
+    public IBook createLazyBook(FontboxManager manager, IBookProperties bookProperties, int maxPages) throws IOException, LayoutException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        PageCodec.Writer encoder = new PageCodec.Writer(bytes, document);
         PageWriter writer = new PageWriter(bookProperties.getPageProperties(), manager);
-        DocumentProcessor.generatePages(manager.tracer(), document, writer);
+        writer.setRetainPages(false);
+        writer.setPageListener(page -> {
+            try {
+                encoder.page(page);
+            } catch (IOException ioex) {
+                throw new UncheckedIOException(ioex);
+            }
+        });
+        try {
+            DocumentProcessor.generatePages(manager.tracer(), document, writer);
+            writer.close();
+        } catch (UncheckedIOException ioex) {
+            throw ioex.getCause();
+        }
+        encoder.finish(writer.index());
+
+        PageCodec.Reader reader = new PageCodec.Reader(ByteBuffer.wrap(bytes.toByteArray()), manager);
+        List<IPage> pages = new LazyPageList(reader, document, bookProperties.getPageProperties(), maxPages);
+        return new Book(pages, reader.index(), bookProperties);
+    }
+
+    @Override
+    public CompletableFuture<IBook> createBookAsync(FontboxManager manager, IBookProperties bookProperties, Executor executor, Consumer<IPage> pageListener) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return paginate(manager, bookProperties, null, pageListener);
+            } catch (IOException | LayoutException e) {
+                throw new CompletionException(e);
+            }
+        }, executor);
+    }
+
+    @Override
+    public GuiScreen createBookGuiAsync(FontboxManager manager, IBookProperties bookProperties, Executor executor) {
+        Minecraft mc = Minecraft.getMinecraft();
+        BookGUI gui = new BookGUI(bookProperties, manager.tracer());
+        List<IPage> finished = new ArrayList<>();
+        PageIndex pending = new PageIndex();
+        gui.changePages(finished, pending);
+        createBookAsync(manager, bookProperties, executor, page -> mc.addScheduledTask(() -> {
+            finished.add(page);
+            gui.changePages(finished, pending);
+        })).whenComplete((book, err) -> mc.addScheduledTask(() -> {
+            if (err != null) {
+                manager.tracer().warn("DocumentWrapper.createBookGuiAsync", "Layout failed!", err);
+            } else {
+                // The same pages as were published, so nothing is baked again
+                gui.changePages(finished, book.index());
+            }
+        }));
+        return gui;
+    }
+
+    /**
+     * Lay out the document, or find its layout in the manager's layout cache.
+     *
+     * @param manager        The font manager
+     * @param bookProperties The book properties
+     * @param pool           The pool to lay out on in parallel, or null
+     * @param pageListener   The listener for finished pages, or null
+     * @return The book
+     */
+    private Book paginate(FontboxManager manager, IBookProperties bookProperties, ForkJoinPool pool, Consumer<IPage> pageListener) throws IOException, LayoutException {
+        PageProperties properties = bookProperties.getPageProperties();
+        LayoutCache cache = manager.layoutCache();
+        String key = (cache != null) ? LayoutKey.of(document, properties) : null;
+        if (key != null) {
+            LayoutCache.Entry hit = cache.get(key, document, properties, manager);
+            if (hit != null) {
+                manager.tracer().trace("DocumentWrapper.paginate", "cacheHit", key);
+                if (pageListener != null)
+                    hit.pages.forEach(pageListener);
+                return new Book(hit.pages, hit.index, bookProperties);
+            }
+        }
+
+        PageWriter writer = new PageWriter(properties, manager);
+        writer.setPageListener(pageListener);
+        if (pool != null)
+            DocumentProcessor.generatePages(manager.tracer(), document, writer, pool);
+        else
+            DocumentProcessor.generatePages(manager.tracer(), document, writer);
         writer.close();
+        if (key != null)
+            cache.put(key, document, writer.pages(), writer.index(), manager);
         return new Book(writer.pages(), writer.index(), bookProperties);
     }
 }
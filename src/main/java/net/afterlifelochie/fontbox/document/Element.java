@@ -4,16 +4,18 @@ import net.afterlifelochie.fontbox.api.data.FormattedString;
 import net.afterlifelochie.fontbox.api.exception.LayoutException;
 import net.afterlifelochie.fontbox.api.formatting.layout.AlignmentMode;
 import net.afterlifelochie.fontbox.api.formatting.style.TextFormat;
+import net.afterlifelochie.fontbox.api.formatting.style.TextFormatter;
 import net.afterlifelochie.fontbox.api.layout.IElement;
 import net.afterlifelochie.fontbox.api.layout.IPage;
 import net.afterlifelochie.fontbox.api.layout.IPageWriter;
 import net.afterlifelochie.fontbox.api.layout.ObjectBounds;
 import net.afterlifelochie.fontbox.api.tracer.ITracer;
+import net.afterlifelochie.fontbox.layout.LayoutKey;
 import net.afterlifelochie.fontbox.layout.PageWriter;
 import net.afterlifelochie.fontbox.layout.components.Line;
 import net.afterlifelochie.fontbox.layout.components.LineWriter;
 import net.afterlifelochie.fontbox.layout.components.Page;
-import net.afterlifelochie.io.StackedPushBackStringReader;
+import net.afterlifelochie.io.StackedPushBackCharReader;
 
 import java.io.IOException;
 
@@ -46,6 +48,18 @@ public abstract class Element implements IElement {
         bounds = bb;
     }
 
+    /**
+     * Add everything which changes how this element is laid out or drawn to a
+     * layout cache key. Elements which cannot be described return false, and
+     * documents which contain them are never cached.
+     *
+     * @param key The key to add to
+     * @return If the element could be described
+     */
+    public boolean describe(LayoutKey key) {
+        return false;
+    }
+
      /**
      * Called to determine if this element requires explicit update ticks. This
      * value is cached; that is, if this method returns <code>false</code>, this
@@ -78,12 +92,14 @@ public abstract class Element implements IElement {
      *                         out correctly
      */
     protected void boxText(ITracer trace, IPageWriter writer, TextFormat format, FormattedString what, AlignmentMode alignment, IElement realElement) throws IOException, LayoutException {
-        StackedPushBackStringReader reader = new StackedPushBackStringReader(what.string);
+        StackedPushBackCharReader reader = new StackedPushBackCharReader(what.string);
+        // Line writers edit the runs as they go; leave the document's own alone
+        TextFormatter formatter = new TextFormatter(what.formatter);
         trace.trace("Element.boxText", "startBox");
         while (reader.available() > 0) {
-            what.formatter.addDefaultFormat(format);
+            formatter.addDefaultFormat(format);
 
-            LineWriter stream = new LineWriter(writer, what.formatter, alignment, realElement);
+            LineWriter stream = new LineWriter(writer, formatter, alignment, realElement);
             boxText(trace, writer, stream, reader);
             trace.trace("Element.boxText", "streamRemain", reader.available());
             if (reader.available() > 0)
@@ -115,7 +131,7 @@ public abstract class Element implements IElement {
      * @throws LayoutException Any layout problem which prevents the text from being laid
      *                         out correctly
      */
-    protected void boxText(ITracer trace, IPageWriter pageWriter, LineWriter lineWriter, StackedPushBackStringReader text) throws IOException, LayoutException {
+    protected void boxText(ITracer trace, IPageWriter pageWriter, LineWriter lineWriter, StackedPushBackCharReader text) throws IOException, LayoutException {
         main:
         while (text.available() > 0) {
             // Put some words on the writer:
@@ -137,19 +153,22 @@ public abstract class Element implements IElement {
                         break; // okay, consider now
                 }
 
-                if (inWord.toString().trim().length() == 0)
+                String word = inWord.toString();
+                if (word.trim().length() == 0)
                     break;
 
                 // Consider the word:
-                trace.trace("Element.boxText", "considerWord", inWord.toString());
-                lineWriter.push(inWord.toString(), trace.ignoreInvalidSymbols());
+                trace.trace("Element.boxText", "considerWord", word);
+                lineWriter.push(word, trace.ignoreInvalidSymbols());
                 ObjectBounds future = lineWriter.pendingBounds();
                 IPage current = pageWriter.current();
+                IElement collision;
                 trace.trace("Element.boxText", "considerCursor", pageWriter.cursor());
 
                 // If we overflow the page, back out last change to fit:
                 if (!current.insidePage(future)) {
-                    trace.trace("Element.boxText", "overflowPage", current.getWidth(), current.getHeight(), future, lineWriter.size());
+                    if (trace.isTraceEnabled())
+                        trace.trace("Element.boxText", "overflowPage", current.getWidth(), current.getHeight(), future, lineWriter.size());
                     lineWriter.pop(trace.ignoreInvalidSymbols());
                     text.popPosition();
                     // If there are now no words on the writer, then
@@ -157,11 +176,11 @@ public abstract class Element implements IElement {
                         break main; // nothing fits; break the loop
                     else
                         break; // break the local loop
-                } else if (current.intersectsElement(future) != null) {
+                } else if ((collision = current.intersectsElement(future)) != null) {
                     // We hit another object, so let's undo
                     trace.trace("Element.boxText", "collideElement", lineWriter.size());
-                    IElement e0 = current.intersectsElement(future);
-                    trace.trace("Element.boxText", "collideHit", e0.bounds().toString(), future.toString());
+                    if (trace.isTraceEnabled())
+                        trace.trace("Element.boxText", "collideHit", collision.bounds().toString(), future.toString());
                     lineWriter.pop(trace.ignoreInvalidSymbols());
                     text.popPosition();
                     if (lineWriter.size() == 0)
@@ -6,7 +6,9 @@ import net.afterlifelochie.fontbox.api.formatting.layout.AlignmentMode;
 import net.afterlifelochie.fontbox.api.layout.IIndexed;
 import net.afterlifelochie.fontbox.api.layout.IPage;
 import net.afterlifelochie.fontbox.api.layout.IPageWriter;
+import net.afterlifelochie.fontbox.api.render.IRenderBackend;
 import net.afterlifelochie.fontbox.api.tracer.ITracer;
+import net.afterlifelochie.fontbox.layout.LayoutKey;
 import net.minecraft.client.gui.GuiScreen;
 
 import java.io.IOException;
@@ -39,6 +41,12 @@ public class Heading extends Element {
         writer.cursor().pushDown(10);
     }
 
+    @Override
+    public boolean describe(LayoutKey key) {
+        key.put(id).put(text);
+        return true;
+    }
+
     @Override
     public boolean canUpdate() {
         return false;
@@ -55,7 +63,7 @@ public class Heading extends Element {
     }
 
     @Override
-    public void render(GuiScreen gui, int mx, int my, float frame) {
+    public void render(IRenderBackend backend, GuiScreen gui, int mx, int my, float frame) {
         /* No action required */
     }
 
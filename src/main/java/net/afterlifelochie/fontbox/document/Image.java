@@ -5,10 +5,11 @@ import net.afterlifelochie.fontbox.api.exception.LayoutException;
 import net.afterlifelochie.fontbox.api.formatting.layout.AlignmentMode;
 import net.afterlifelochie.fontbox.api.formatting.layout.FloatMode;
 import net.afterlifelochie.fontbox.api.layout.*;
+import net.afterlifelochie.fontbox.api.render.IRenderBackend;
 import net.afterlifelochie.fontbox.api.tracer.ITracer;
-import net.afterlifelochie.fontbox.render.GLUtils;
+import net.afterlifelochie.fontbox.layout.LayoutKey;
+import net.afterlifelochie.fontbox.render.GlyphBatch;
 import net.minecraft.client.gui.GuiScreen;
-import net.minecraft.client.renderer.GlStateManager;
 import net.minecraft.util.ResourceLocation;
 
 import java.io.IOException;
@@ -118,11 +119,18 @@ public class Image extends Element {
         if (floating == FloatMode.RIGHT)
             x = current.getProperties().width - width;
 
-        trace.trace("Image.layout", "finalize", x, cursor.y(), width, height, floating != FloatMode.NONE);
+        if (trace.isTraceEnabled())
+            trace.trace("Image.layout", "finalize", x, cursor.y(), width, height, floating != FloatMode.NONE);
         setBounds(new ObjectBounds(x, cursor.y(), width, height, floating));
         writer.write(this);
     }
 
+    @Override
+    public boolean describe(LayoutKey key) {
+        key.put(String.valueOf(source)).put(width).put(height).put(align).put(floating);
+        return true;
+    }
+
     @Override
     public boolean canUpdate() {
         return false;
@@ -139,17 +147,29 @@ public class Image extends Element {
     }
 
     @Override
-    public void render(GuiScreen gui, int mx, int my, float frame) {
-        GlStateManager.pushMatrix();
-        GLUtils.useSystemTexture(source);
-        GlStateManager.enableBlend();
-        GlStateManager.color(1.0f, 1.0f, 1.0f, 1.0f);
-        GLUtils.drawTexturedRectUV(
+    public void render(IRenderBackend backend, GuiScreen gui, int mx, int my, float frame) {
+        backend.pushMatrix();
+        backend.bindTexture(source);
+        backend.enableBlend();
+        backend.color(1.0f, 1.0f, 1.0f, 1.0f);
+        backend.drawTexturedRect(
             bounds().x * IBookProperties.SCALE, bounds().y * IBookProperties.SCALE,
             bounds().width * IBookProperties.SCALE, bounds().height * IBookProperties.SCALE,
             0, 0, 1, 1, 1);
-        GlStateManager.disableBlend();
-        GlStateManager.popMatrix();
+        backend.disableBlend();
+        backend.popMatrix();
+    }
+
+    @Override
+    public boolean bake(GlyphBatch batch) {
+        float x = bounds().x * IBookProperties.SCALE, y = bounds().y * IBookProperties.SCALE;
+        float w = bounds().width * IBookProperties.SCALE, h = bounds().height * IBookProperties.SCALE;
+        batch.texture(source);
+        batch.vertex(x, y + h, 1, 0, 1, 1, 1, 1, 1);
+        batch.vertex(x + w, y + h, 1, 1, 1, 1, 1, 1, 1);
+        batch.vertex(x + w, y, 1, 1, 0, 1, 1, 1, 1);
+        batch.vertex(x, y, 1, 0, 0, 1, 1, 1, 1);
+        return true;
     }
 
     @Override
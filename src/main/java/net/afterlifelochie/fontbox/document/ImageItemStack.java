@@ -4,10 +4,9 @@ import net.afterlifelochie.fontbox.api.data.IBookProperties;
 import net.afterlifelochie.fontbox.api.formatting.layout.AlignmentMode;
 import net.afterlifelochie.fontbox.api.formatting.layout.FloatMode;
 import net.afterlifelochie.fontbox.api.layout.IIndexed;
-import net.minecraft.client.Minecraft;
+import net.afterlifelochie.fontbox.api.render.IRenderBackend;
+import net.afterlifelochie.fontbox.layout.LayoutKey;
 import net.minecraft.client.gui.GuiScreen;
-import net.minecraft.client.renderer.GlStateManager;
-import net.minecraft.client.renderer.RenderHelper;
 import net.minecraft.item.ItemStack;
 
 /**
@@ -17,9 +16,10 @@ import net.minecraft.item.ItemStack;
  */
 public class ImageItemStack extends Image {
     /**
-     * The item stack
+     * The item stack; mark the element dirty after changing it
      */
     public ItemStack stack;
+    private boolean dirty = true;
 
     /**
      * Creates a new inline item-stack image with the properties specified.
@@ -70,6 +70,13 @@ public class ImageItemStack extends Image {
         stack = source;
     }
 
+    @Override
+    public boolean describe(LayoutKey key) {
+        super.describe(key);
+        key.put(String.valueOf(stack));
+        return true;
+    }
+
     @Override
     public boolean canUpdate() {
         return true;
@@ -77,7 +84,23 @@ public class ImageItemStack extends Image {
 
     @Override
     public void update() {
-        /* No action required */
+        /* The glint moves on every step */
+        markDirty();
+    }
+
+    @Override
+    public boolean isDirty() {
+        return dirty;
+    }
+
+    @Override
+    public void markDirty() {
+        dirty = true;
+    }
+
+    @Override
+    public void markClean() {
+        dirty = false;
     }
 
     @Override
@@ -87,14 +110,9 @@ public class ImageItemStack extends Image {
     }
 
     @Override
-    public void render(GuiScreen gui, int mx, int my, float frame) {
-        GlStateManager.pushMatrix();
-        RenderHelper.enableGUIStandardItemLighting();
-        GlStateManager.translate(bounds().x * IBookProperties.SCALE, bounds().y * IBookProperties.SCALE, 0);
-        GlStateManager.scale(bounds().width * IBookProperties.SCALE / 16.0f, bounds().height * IBookProperties.SCALE / 16.0f, 1.0f);
-        Minecraft.getMinecraft().getRenderItem().renderItemAndEffectIntoGUI(stack, 0, 0);
-        GlStateManager.disableBlend();
-        GlStateManager.popMatrix();
+    public void render(IRenderBackend backend, GuiScreen gui, int mx, int my, float frame) {
+        backend.drawItem(stack, bounds().x * IBookProperties.SCALE, bounds().y * IBookProperties.SCALE,
+            bounds().width * IBookProperties.SCALE, bounds().height * IBookProperties.SCALE);
     }
 
     @Override
@@ -6,7 +6,9 @@ import net.afterlifelochie.fontbox.api.formatting.layout.AlignmentMode;
 import net.afterlifelochie.fontbox.api.layout.IIndexed;
 import net.afterlifelochie.fontbox.api.layout.IPage;
 import net.afterlifelochie.fontbox.api.layout.IPageWriter;
+import net.afterlifelochie.fontbox.api.render.IRenderBackend;
 import net.afterlifelochie.fontbox.api.tracer.ITracer;
+import net.afterlifelochie.fontbox.layout.LayoutKey;
 import net.minecraft.client.gui.GuiScreen;
 
 import java.io.IOException;
@@ -43,6 +45,12 @@ public class Paragraph extends Element {
         writer.cursor().pushDown(page.getProperties().line_height_size);
     }
 
+    @Override
+    public boolean describe(LayoutKey key) {
+        key.put(text).put(align);
+        return true;
+    }
+
     @Override
     public boolean canUpdate() {
         return false;
@@ -59,7 +67,7 @@ public class Paragraph extends Element {
     }
 
     @Override
-    public void render(GuiScreen gui, int mx, int my, float frame) {
+    public void render(IRenderBackend backend, GuiScreen gui, int mx, int my, float frame) {
         /* No action required */
     }
 
@@ -0,0 +1,273 @@
+package net.afterlifelochie.fontbox.font;
+
+import net.afterlifelochie.fontbox.api.exception.FontException;
+import net.afterlifelochie.fontbox.api.tracer.ITracer;
+
+import java.awt.*;
+import java.awt.font.FontRenderContext;
+import java.awt.font.TextLayout;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * <p>
+ * A font rasterized as a signed distance field. Every pixel of the atlas
+ * holds the distance from its centre to the nearest edge of the glyph,
+ * encoded in the alpha channel: 0.5 is on the edge, higher values are inside
+ * the glyph and lower values are outside it, up to {@link #SPREAD} pixels
+ * away. Drawn with an alpha test at 0.5 and linear filtering, the edges stay
+ * sharp at any size, so one atlas serves every size of the typeface.
+ * </p>
+ * <p>
+ * The glyphs are laid out at {@link #BASE_SIZE}, their outlines filled at
+ * {@link #OVERSAMPLE} times that size and measured down to the atlas
+ * resolution. Each glyph is generated independently, on a fork-join pool.
+ * </p>
+ *
+ * @author AfterLifeLochie
+ */
+public class DistanceFieldAtlas {
+    /**
+     * The pixel size glyphs are laid out at on the atlas
+     */
+    public static final float BASE_SIZE = 32.0f;
+    /**
+     * The distance, in atlas pixels, at which the field reaches 0 or 1
+     */
+    static final int SPREAD = 4;
+    /**
+     * How many times larger than the atlas glyphs are drawn before measuring
+     */
+    static final int OVERSAMPLE = 4;
+
+    /**
+     * Generate the distance field atlas of a range of characters of a font
+     *
+     * @param trace   The debugging tracer object
+     * @param font    The font; its size is ignored
+     * @param minChar The first character
+     * @param maxChar The last character
+     * @param pool    The pool to generate glyphs on
+     * @return The atlas
+     * @throws FontException If the glyphs do not fit on the largest image
+     *                       allowed
+     */
+    public static DistanceFieldAtlas fromFont(ITracer trace, Font font, char minChar, char maxChar, ForkJoinPool pool)
+        throws FontException {
+        if (trace == null)
+            throw new IllegalArgumentException("trace may not be null");
+        if (font == null)
+            throw new IllegalArgumentException("font may not be null");
+        if (pool == null)
+            throw new IllegalArgumentException("pool may not be null");
+        Font base = font.deriveFont(BASE_SIZE);
+        FontRenderContext ctx = new FontRenderContext(null, true, false);
+        int count = maxChar - minChar + 1;
+        List<ForkJoinTask<Cell>> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            char k = (char) (minChar + i);
+            tasks.add(pool.submit(() -> new Cell(new GlyphAtlas.Glyph(new TextLayout(String.valueOf(k), base, ctx)))));
+        }
+        Cell[] cells = new Cell[count];
+        try {
+            for (int i = 0; i < count; i++)
+                cells[i] = tasks.get(i).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FontException("Interrupted while generating distance field!", e);
+        } catch (ExecutionException e) {
+            throw new FontException("Cannot generate distance field!", e.getCause());
+        }
+
+        Integer[] order = new Integer[count];
+        long area = 0;
+        int widest = 0;
+        for (int i = 0; i < count; i++) {
+            area += (long) (cells[i].width + GlyphAtlas.PADDING) * (cells[i].height + GlyphAtlas.PADDING);
+            widest = Math.max(widest, cells[i].width + GlyphAtlas.PADDING);
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(cells[b].height, cells[a].height));
+        int width = Math.max(ceilPow2(widest), ceilPow2((int) Math.ceil(Math.sqrt(area))));
+        if (width > GlyphAtlas.MAX_DIM)
+            throw new FontException(String.format("Glyphs of %s do not fit on a %s texture", font.getName(), GlyphAtlas.MAX_DIM));
+        SkylinePacker packer = new SkylinePacker(width, GlyphAtlas.MAX_DIM);
+        Point[] at = new Point[count];
+        for (int i : order) {
+            at[i] = packer.pack(cells[i].width + GlyphAtlas.PADDING, cells[i].height + GlyphAtlas.PADDING);
+            if (at[i] == null)
+                throw new FontException(String.format("Glyphs of %s do not fit on a %s texture", font.getName(), GlyphAtlas.MAX_DIM));
+        }
+
+        int height = ceilPow2(packer.getUsedHeight());
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        GLFontMetrics metric = new GLFontMetrics(width, height);
+        for (int i = 0; i < count; i++) {
+            Cell cell = cells[i];
+            for (int y = 0; y < cell.height; y++)
+                for (int x = 0; x < cell.width; x++)
+                    pixels[(at[i].y + y) * width + at[i].x + x] = ((cell.field[y * cell.width + x] & 0xFF) << 24) | 0xFFFFFF;
+            Rectangle region = cell.glyph.region, box = cell.glyph.box;
+            // The baseline origin of the glyph in the atlas
+            int x = at[i].x + SPREAD - box.x, y = at[i].y + SPREAD - box.y;
+            if (trace.isTraceEnabled())
+                trace.trace("DistanceFieldAtlas.fromFont", "placeGlyph", (char) (minChar + i), x, y);
+            metric.put(minChar + i, new GLGlyphMetric(region.width, region.height, -region.y, x + region.x, y));
+        }
+        trace.trace("DistanceFieldAtlas.fromFont", metric);
+        return new DistanceFieldAtlas(image, metric);
+    }
+
+    /**
+     * Compute the signed distance from every pixel of a mask to the nearest
+     * pixel on the other side of the edge. Distances are positive inside and
+     * negative outside, and are measured between pixel centres less half a
+     * pixel, so pixels either side of an edge are half a pixel from it.
+     *
+     * @param inside The mask, row by row
+     * @param width  The width of the mask
+     * @param height The height of the mask
+     * @return The signed distances, row by row
+     */
+    public static float[] signedDistance(boolean[] inside, int width, int height) {
+        float[] toInside = squaredDistance(inside, true, width, height);
+        float[] toOutside = squaredDistance(inside, false, width, height);
+        float[] result = new float[width * height];
+        for (int i = 0; i < result.length; i++)
+            result[i] = inside[i] ? (float) Math.sqrt(toOutside[i]) - 0.5f : 0.5f - (float) Math.sqrt(toInside[i]);
+        return result;
+    }
+
+    /**
+     * Squared Euclidean distance transform, after Felzenszwalb and
+     * Huttenlocher: one pass down every column, then one along every row
+     */
+    private static float[] squaredDistance(boolean[] mask, boolean feature, int width, int height) {
+        float inf = (float) (width * width + height * height);
+        float[] grid = new float[width * height];
+        for (int i = 0; i < grid.length; i++)
+            grid[i] = (mask[i] == feature) ? 0 : inf;
+        int n = Math.max(width, height);
+        float[] f = new float[n], d = new float[n], z = new float[n + 1];
+        int[] v = new int[n];
+        for (int x = 0; x < width; x++) {
+            for (int y = 0; y < height; y++)
+                f[y] = grid[y * width + x];
+            transform(f, height, d, v, z);
+            for (int y = 0; y < height; y++)
+                grid[y * width + x] = d[y];
+        }
+        for (int y = 0; y < height; y++) {
+            System.arraycopy(grid, y * width, f, 0, width);
+            transform(f, width, d, v, z);
+            System.arraycopy(d, 0, grid, y * width, width);
+        }
+        return grid;
+    }
+
+    private static void transform(float[] f, int n, float[] d, int[] v, float[] z) {
+        int k = 0;
+        v[0] = 0;
+        z[0] = Float.NEGATIVE_INFINITY;
+        z[1] = Float.POSITIVE_INFINITY;
+        for (int q = 1; q < n; q++) {
+            float s = ((f[q] + q * q) - (f[v[k]] + v[k] * v[k])) / (2 * q - 2 * v[k]);
+            while (s <= z[k]) {
+                k--;
+                s = ((f[q] + q * q) - (f[v[k]] + v[k] * v[k])) / (2 * q - 2 * v[k]);
+            }
+            k++;
+            v[k] = q;
+            z[k] = s;
+            z[k + 1] = Float.POSITIVE_INFINITY;
+        }
+        k = 0;
+        for (int q = 0; q < n; q++) {
+            while (z[k + 1] < q)
+                k++;
+            d[q] = (q - v[k]) * (q - v[k]) + f[v[k]];
+        }
+    }
+
+    private static int ceilPow2(int value) {
+        return (1 >= value) ? 1 : Integer.highestOneBit(value - 1) << 1;
+    }
+
+    /**
+     * The distance field of one glyph, with {@link #SPREAD} pixels of margin
+     * around the room the glyph needs
+     */
+    private static class Cell {
+        final GlyphAtlas.Glyph glyph;
+        final int width, height;
+        final byte[] field;
+
+        Cell(GlyphAtlas.Glyph glyph) {
+            this.glyph = glyph;
+            Rectangle box = glyph.box;
+            width = box.width + 2 * SPREAD;
+            height = box.height + 2 * SPREAD;
+
+            int hw = width * OVERSAMPLE, hh = height * OVERSAMPLE;
+            BufferedImage mask = new BufferedImage(hw, hh, BufferedImage.TYPE_INT_ARGB);
+            // The outline itself, not hinted text; hinting is for one size only
+            Graphics2D g = mask.createGraphics();
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setRenderingHint(RenderingHints.KEY_STROKE_CONTROL, RenderingHints.VALUE_STROKE_PURE);
+            g.setColor(Color.WHITE);
+            g.scale(OVERSAMPLE, OVERSAMPLE);
+            g.fill(glyph.layout.getOutline(AffineTransform.getTranslateInstance(SPREAD - box.x, SPREAD - box.y)));
+            g.dispose();
+
+            int[] argb = ((DataBufferInt) mask.getRaster().getDataBuffer()).getData();
+            boolean[] inside = new boolean[argb.length];
+            for (int i = 0; i < argb.length; i++)
+                inside[i] = (argb[i] >>> 24) >= 0x80;
+            float[] distance = signedDistance(inside, hw, hh);
+
+            // The centre of each pixel falls between four samples; average them
+            field = new byte[width * height];
+            float scale = 127.0f / (SPREAD * OVERSAMPLE) / 4;
+            for (int y = 0; y < height; y++)
+                for (int x = 0; x < width; x++) {
+                    int i = (y * OVERSAMPLE + OVERSAMPLE / 2 - 1) * hw + x * OVERSAMPLE + OVERSAMPLE / 2 - 1;
+                    float value = distance[i] + distance[i + 1] + distance[i + hw] + distance[i + hw + 1];
+                    field[y * width + x] = (byte) Math.max(0, Math.min(255, Math.round(128 + value * scale)));
+                }
+        }
+    }
+
+    private final BufferedImage image;
+    private final GLFontMetrics metric;
+
+    private DistanceFieldAtlas(BufferedImage image, GLFontMetrics metric) {
+        this.image = image;
+        this.metric = metric;
+    }
+
+    /**
+     * Get the image of the distance field
+     *
+     * @return The image
+     */
+    public BufferedImage getImage() {
+        return image;
+    }
+
+    /**
+     * Get the metrics of the glyphs at {@link #BASE_SIZE}
+     *
+     * @return The metrics
+     */
+    public GLFontMetrics getMetric() {
+        return metric;
+    }
+}
@@ -0,0 +1,176 @@
+package net.afterlifelochie.fontbox.font;
+
+import net.afterlifelochie.fontbox.api.font.IGLGlyphMetric;
+import net.afterlifelochie.fontbox.api.tracer.ITracer;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+
+/**
+ * <p>
+ * Cache of rasterized TTF fonts on disk, so fonts do not have to be
+ * rasterized again every time the game starts. Each file holds the first
+ * page of a {@link GlyphAtlas} and the metrics of the glyphs on it, keyed by
+ * the content of the TTF file, the point size and the character range.
+ * </p>
+ * <p>
+ * Glyphs are drawn white on a transparent background, so only the alpha of
+ * each pixel is stored. Characters outside the first page are not cached and
+ * are rasterized on first use, as they would be otherwise.
+ * </p>
+ *
+ * @author AfterLifeLochie
+ */
+public class FontCache {
+    private static final int MAGIC = 0x46424643; // "FBFC"
+    /**
+     * Changed whenever the file format or the rasterization changes, so old
+     * files stop matching
+     */
+    private static final int VERSION = 1;
+
+    /**
+     * Compute the key for a font
+     *
+     * @param ttf     The content of the TTF file
+     * @param px      The font pixel size
+     * @param minChar The first character on the first page
+     * @param maxChar The last character on the first page
+     * @return The key as a hexadecimal string
+     */
+    public static String key(byte[] ttf, float px, char minChar, char maxChar) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        ByteBuffer header = ByteBuffer.allocate(16);
+        header.putInt(VERSION).putFloat(px).putInt(minChar).putInt(maxChar);
+        digest.update(header.array());
+        digest.update(ttf);
+        StringBuilder result = new StringBuilder(64);
+        for (byte b : digest.digest())
+            result.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        return result.toString();
+    }
+
+    private final File directory;
+
+    /**
+     * Create a font cache
+     *
+     * @param directory The directory to store fonts in
+     */
+    public FontCache(File directory) {
+        if (directory == null)
+            throw new IllegalArgumentException("directory may not be null");
+        this.directory = directory;
+    }
+
+    /**
+     * Find a cached font
+     *
+     * @param key   The key of the font, from {@link #key}
+     * @param trace The debugging tracer object
+     * @param font  The font, for rasterizing characters which are not cached
+     * @return The atlas, or null if it is not cached
+     */
+    public GlyphAtlas get(String key, ITracer trace, Font font) {
+        File file = file(key);
+        if (!file.isFile())
+            return null;
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (in.getInt() != MAGIC || in.getInt() != VERSION)
+                throw new IOException("Not a font cache file");
+            int width = in.getInt(), height = in.getInt();
+            GLFontMetrics metric = new GLFontMetrics(width, height);
+            for (int i = 0, count = in.getInt(); i < count; i++) {
+                int codepoint = in.getInt();
+                metric.put(codepoint, new GLGlyphMetric(in.getShort(), in.getShort(), in.getShort(), in.getShort(),
+                    in.getShort()));
+            }
+            BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+            for (int i = 0; i < pixels.length; i++) {
+                int alpha = in.get() & 0xFF;
+                pixels[i] = (alpha == 0) ? 0 : (alpha << 24) | 0xFFFFFF;
+            }
+            trace.trace("FontCache.get", key, metric);
+            return GlyphAtlas.restore(trace, font, image, metric);
+        } catch (IOException | RuntimeException e) {
+            trace.warn("FontCache.get", "Cannot read cached font", file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Store the first page of a font
+     *
+     * @param key   The key of the font, from {@link #key}
+     * @param atlas The atlas of the font
+     * @param trace The debugging tracer object
+     */
+    public void put(String key, GlyphAtlas atlas, ITracer trace) {
+        File file = file(key);
+        try {
+            if (!directory.isDirectory() && !directory.mkdirs())
+                throw new IOException("Cannot create directory " + directory);
+            File temp = File.createTempFile(key, ".tmp", directory);
+            try {
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+                    write(out, atlas);
+                }
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temp.toPath());
+            }
+        } catch (IOException ioex) {
+            trace.warn("FontCache.put", "Cannot write cached font", file, ioex);
+        }
+    }
+
+    private void write(DataOutputStream out, GlyphAtlas atlas) throws IOException {
+        BufferedImage image = atlas.getImage();
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(image.getWidth());
+        out.writeInt(image.getHeight());
+        Map<Integer, IGLGlyphMetric> glyphs = atlas.getMetric().getGlyphs();
+        int count = 0;
+        for (IGLGlyphMetric glyph : glyphs.values())
+            if (glyph.getPage() == 0)
+                count++;
+        out.writeInt(count);
+        for (Map.Entry<Integer, IGLGlyphMetric> entry : glyphs.entrySet()) {
+            IGLGlyphMetric glyph = entry.getValue();
+            if (glyph.getPage() != 0)
+                continue;
+            out.writeInt(entry.getKey());
+            out.writeShort(glyph.getWidth());
+            out.writeShort(glyph.getHeight());
+            out.writeShort(glyph.getAscent());
+            out.writeShort(glyph.getUx());
+            out.writeShort(glyph.getVy());
+        }
+        int[] pixels = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        for (int pixel : pixels)
+            out.write(pixel >>> 24);
+    }
+
+    private File file(String key) {
+        return new File(directory, key + ".fbf");
+    }
+}
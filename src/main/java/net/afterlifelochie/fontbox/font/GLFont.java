@@ -7,12 +7,9 @@ import net.afterlifelochie.fontbox.api.font.IGLFont;
 import net.minecraft.client.renderer.GlStateManager;
 import org.lwjgl.opengl.GL11;
 
-import java.awt.*;
-import java.awt.color.ColorSpace;
-import java.awt.image.*;
+import java.awt.image.BufferedImage;
 import java.nio.ByteBuffer;
-import java.nio.ByteOrder;
-import java.util.Hashtable;
+import java.util.Arrays;
 
 /**
  * Represents a Font object for OpenGL.
@@ -43,40 +40,122 @@ public class GLFont implements IGLFont {
             throw new IllegalArgumentException("image may not be null");
         if (metric == null)
             throw new IllegalArgumentException("metric may not be null");
-        ColorModel glAlphaColorModel = new ComponentColorModel(ColorSpace.getInstance(ColorSpace.CS_sRGB), new int[]{
-            8, 8, 8, 8}, true, false, Transparency.TRANSLUCENT, DataBuffer.TYPE_BYTE);
-        WritableRaster raster = Raster.createInterleavedRaster(DataBuffer.TYPE_BYTE, width, height, 4, null);
-        BufferedImage texImage = new BufferedImage(glAlphaColorModel, raster, true, new Hashtable<>());
-        Graphics g = texImage.getGraphics();
-        g.setColor(new Color(0f, 0f, 0f, 0f));
-        g.fillRect(0, 0, width, height);
-        g.drawImage(image, 0, 0, null);
-
-        byte[] data = ((DataBufferByte) texImage.getRaster().getDataBuffer()).getData();
-
-        ByteBuffer buffer = ByteBuffer.allocateDirect(data.length);
-        buffer.order(ByteOrder.nativeOrder());
-        buffer.put(data, 0, data.length);
-        buffer.flip();
+        return PreparedFont.fromBuffer(name, image, width, height, metric).upload(manager);
+    }
 
+    /**
+     * Create a GLFont from a glyph atlas. The first page is uploaded now; the
+     * other pages are uploaded when they are first drawn, and again whenever
+     * glyphs have been added to them since.
+     *
+     * @param manager The used manager
+     * @param name    The name of the font
+     * @param atlas   The glyph atlas
+     * @return The GLFont result
+     * @throws FontException Any exception which occurs when transforming the buffer into
+     *                       a GLFont container.
+     */
+    public static IGLFont fromAtlas(FontboxManager manager, String name, GlyphAtlas atlas) throws FontException {
+        if (atlas == null)
+            throw new IllegalArgumentException("atlas may not be null");
+        return PreparedFont.fromAtlas(name, atlas).upload(manager);
+    }
 
+    /**
+     * Create a GLFont from texture data. Must be called on the render thread.
+     */
+    static IGLFont fromPixels(FontboxManager manager, String name, ByteBuffer pixels, int width, int height,
+                              boolean alpha, boolean distanceField, GLFontMetrics metric, GlyphAtlas atlas) {
+        if (manager == null || manager.tracer() == null)
+            throw new IllegalArgumentException("trace may not be null");
         int texIdx = GlStateManager.generateTexture();
-        GlStateManager.bindTexture(texIdx);
-        GlStateManager.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_LINEAR);
-        GlStateManager.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_LINEAR);
-        GlStateManager.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_RGBA, width, height, 0, GL11.GL_RGBA,
-            GL11.GL_UNSIGNED_BYTE, buffer.asIntBuffer());
+        upload(texIdx, pixels, width, height, alpha);
         manager.tracer().trace("GLFont.fromBuffer", "texId", texIdx);
         GLFont font = new GLFont(name, texIdx, IBookProperties.SCALE, metric);
+        font.atlas = atlas;
+        font.alpha = alpha;
+        font.distanceField = distanceField;
         manager.tracer().trace("GLFont.fromBuffer", font);
         manager.allocateFont(font);
         return font;
     }
 
+    /**
+     * Create a GLFont which draws a distance field font at another size. The
+     * new font shares the texture of the font it is derived from, and is
+     * named after it and its size, as in <code>Font@12.0</code>. Deleting the
+     * new font does not delete the texture; deleting the original does.
+     *
+     * @param manager The used manager
+     * @param font    The distance field font
+     * @param px      The font pixel size
+     * @return The GLFont result
+     */
+    public static IGLFont derive(FontboxManager manager, GLFont font, float px) {
+        if (manager == null || manager.tracer() == null)
+            throw new IllegalArgumentException("trace may not be null");
+        if (font == null)
+            throw new IllegalArgumentException("font may not be null");
+        if (!font.distanceField)
+            throw new IllegalArgumentException("font is not a distance field font");
+        if (0 >= px)
+            throw new IllegalArgumentException("px must be positive");
+        GLFontMetrics metric = font.metric.scaled(px / DistanceFieldAtlas.BASE_SIZE);
+        GLFont derived = new GLFont(font.name + "@" + px, font.textureId, font.scale, metric);
+        derived.alpha = font.alpha;
+        derived.distanceField = true;
+        derived.shared = true;
+        manager.tracer().trace("GLFont.derive", derived);
+        manager.allocateFont(derived);
+        return derived;
+    }
+
+    private static void upload(int texIdx, ByteBuffer buffer, int width, int height, boolean alpha) {
+        GlStateManager.bindTexture(texIdx);
+        GlStateManager.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_LINEAR);
+        GlStateManager.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_LINEAR);
+        if (alpha) {
+            // Rows of one byte per pixel are not padded to four bytes
+            GlStateManager.glPixelStorei(GL11.GL_UNPACK_ALIGNMENT, 1);
+            GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_ALPHA, width, height, 0, GL11.GL_ALPHA,
+                GL11.GL_UNSIGNED_BYTE, buffer);
+            GlStateManager.glPixelStorei(GL11.GL_UNPACK_ALIGNMENT, 4);
+        } else
+            GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL11.GL_RGBA, width, height, 0, GL11.GL_RGBA,
+                GL11.GL_UNSIGNED_BYTE, buffer);
+    }
+
+    /**
+     * Texture data of the last page uploaded, reused for the next; pages are
+     * only uploaded on the render thread
+     */
+    private static ByteBuffer pageBuffer;
+
     private String name;
     private float scale;
     private int textureId;
     private GLFontMetrics metric;
+    /**
+     * The atlas the font was made from, or null if it has a single page
+     */
+    private GlyphAtlas atlas;
+    /**
+     * Whether the textures only hold alpha
+     */
+    private boolean alpha;
+    /**
+     * Whether the texture holds a distance field
+     */
+    private boolean distanceField;
+    /**
+     * Whether the texture belongs to the font this font was derived from
+     */
+    private boolean shared;
+    /**
+     * The textures of the pages after the first, and the page versions they
+     * were uploaded from; a texture of 0 has not been created yet
+     */
+    private int[] pageTextures = new int[0], pageVersions = new int[0];
 
     private GLFont(String name, int textureId, float scale, GLFontMetrics metric) {
         this.name = name;
@@ -103,6 +182,34 @@ public class GLFont implements IGLFont {
         return textureId;
     }
 
+    @Override
+    public int getTextureId(int page) {
+        if (page == 0 || atlas == null)
+            return textureId;
+        if (page > pageTextures.length) {
+            pageTextures = Arrays.copyOf(pageTextures, page);
+            pageVersions = Arrays.copyOf(pageVersions, page);
+        }
+        int i = page - 1;
+        synchronized (atlas) {
+            int version = atlas.getVersion(page);
+            if (pageTextures[i] == 0 || pageVersions[i] != version) {
+                if (pageTextures[i] == 0)
+                    pageTextures[i] = GlStateManager.generateTexture();
+                BufferedImage image = atlas.getImage(page);
+                pageBuffer = alpha ? TextureData.alpha(image, pageBuffer) : TextureData.rgba(image, pageBuffer);
+                upload(pageTextures[i], pageBuffer, image.getWidth(), image.getHeight(), alpha);
+                pageVersions[i] = version;
+            }
+        }
+        return pageTextures[i];
+    }
+
+    @Override
+    public boolean isDistanceField() {
+        return distanceField;
+    }
+
     /**
      * Get the OpenGL font scale for this font.
      *
@@ -127,8 +234,14 @@ public class GLFont implements IGLFont {
      */
     public void delete(FontboxManager manager) {
         manager.deleteFont(this);
-        GlStateManager.deleteTexture(textureId);
+        if (!shared)
+            GlStateManager.deleteTexture(textureId);
+        for (int texture : pageTextures)
+            if (texture != 0)
+                GlStateManager.deleteTexture(texture);
         textureId = -1;
+        pageTextures = new int[0];
+        atlas = null;
         name = null;
         metric = null;
     }
@@ -4,33 +4,65 @@ import net.afterlifelochie.fontbox.api.FontboxManager;
 import net.afterlifelochie.fontbox.api.exception.FontException;
 import net.afterlifelochie.fontbox.api.font.IGLFont;
 import net.afterlifelochie.fontbox.api.font.IGLFontBuilder;
+import net.afterlifelochie.fontbox.api.font.IPreparedFont;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.resources.IResource;
 import net.minecraft.util.ResourceLocation;
 
 import javax.imageio.ImageIO;
 import java.awt.*;
-import java.awt.font.TextLayout;
-import java.awt.geom.Rectangle2D;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.concurrent.ForkJoinPool;
 
 public class GLFontBuilder implements IGLFontBuilder {
     @Override
     public IGLFont fromTTF(FontboxManager manager, float px, ResourceLocation ttf) throws FontException {
+        IGLFont f0 = prepareTTF(manager, px, ttf).upload(manager);
+        manager.tracer().trace("GLFont.fromTTF", f0);
+        return f0;
+    }
+
+    @Override
+    public IGLFont fromSpriteFont(FontboxManager manager, String name, ResourceLocation image, ResourceLocation xml) throws FontException {
+        IGLFont f0 = prepareSpriteFont(manager, name, image, xml).upload(manager);
+        manager.tracer().trace("GLFont.fromSpriteFont", f0);
+        return f0;
+    }
+
+    @Override
+    public IGLFont fromFont(FontboxManager manager, Font font) throws FontException {
+        IGLFont f0 = prepareFont(manager, font).upload(manager);
+        manager.tracer().trace("GLFont.fromFont", f0);
+        return f0;
+    }
+
+    @Override
+    public IPreparedFont prepareTTF(FontboxManager manager, float px, ResourceLocation ttf) throws FontException {
         if (manager == null || manager.tracer() == null)
             throw new IllegalArgumentException("trace may not be null");
         if (ttf == null)
             throw new IllegalArgumentException("ttf may not be null");
         try {
-            IResource metricResource = Minecraft.getMinecraft().getResourceManager().getResource(ttf);
-            InputStream stream = metricResource.getInputStream();
-            if (stream == null)
-                throw new IOException("Could not open TTF file.");
-            Font sysfont = Font.createFont(Font.TRUETYPE_FONT, stream);
+            byte[] data = readTTF(ttf);
+            Font sysfont = Font.createFont(Font.TRUETYPE_FONT, new ByteArrayInputStream(data));
             manager.tracer().trace("GLFont.fromTTF", sysfont.getName());
-            return fromFont(manager, sysfont.deriveFont(px));
+            Font font = sysfont.deriveFont(px);
+            FontCache cache = manager.fontCache();
+            if (cache == null)
+                return prepareFont(manager, font);
+
+            String key = FontCache.key(data, px, IGLFont.MIN_CH, IGLFont.MAX_CH);
+            GlyphAtlas atlas = cache.get(key, manager.tracer(), font);
+            if (atlas == null) {
+                atlas = GlyphAtlas.fromFont(manager.tracer(), font, IGLFont.MIN_CH, IGLFont.MAX_CH);
+                cache.put(key, atlas, manager.tracer());
+            } else
+                manager.tracer().trace("GLFont.fromTTF", "cacheHit", key);
+            return PreparedFont.fromAtlas(font.getFontName(), atlas);
         } catch (IOException ioex) {
             manager.tracer().trace("GLFont.fromTTF", ioex);
             throw new FontException("Can't perform I/O operation!", ioex);
@@ -41,7 +73,42 @@ public class GLFontBuilder implements IGLFontBuilder {
     }
 
     @Override
-    public IGLFont fromSpriteFont(FontboxManager manager, String name, ResourceLocation image, ResourceLocation xml) throws FontException {
+    public IGLFont fromDistanceField(FontboxManager manager, ResourceLocation ttf) throws FontException {
+        IGLFont f0 = prepareDistanceField(manager, ttf).upload(manager);
+        manager.tracer().trace("GLFont.fromDistanceField", f0);
+        return f0;
+    }
+
+    @Override
+    public IPreparedFont prepareDistanceField(FontboxManager manager, ResourceLocation ttf) throws FontException {
+        if (manager == null || manager.tracer() == null)
+            throw new IllegalArgumentException("trace may not be null");
+        if (ttf == null)
+            throw new IllegalArgumentException("ttf may not be null");
+        try {
+            Font sysfont = Font.createFont(Font.TRUETYPE_FONT, new ByteArrayInputStream(readTTF(ttf)));
+            manager.tracer().trace("GLFont.fromDistanceField", sysfont.getName());
+            DistanceFieldAtlas atlas = DistanceFieldAtlas.fromFont(manager.tracer(), sysfont, IGLFont.MIN_CH,
+                IGLFont.MAX_CH, ForkJoinPool.commonPool());
+            return PreparedFont.fromDistanceField(sysfont.getFontName(), atlas);
+        } catch (IOException ioex) {
+            manager.tracer().trace("GLFont.fromDistanceField", ioex);
+            throw new FontException("Can't perform I/O operation!", ioex);
+        } catch (FontFormatException ffe) {
+            manager.tracer().trace("GLFont.fromDistanceField", ffe);
+            throw new FontException("Invalid TTF file!", ffe);
+        }
+    }
+
+    @Override
+    public IGLFont deriveSize(FontboxManager manager, IGLFont font, float px) throws FontException {
+        if (!(font instanceof GLFont) || !font.isDistanceField())
+            throw new FontException("Only distance field fonts can be drawn at other sizes");
+        return GLFont.derive(manager, (GLFont) font, px);
+    }
+
+    @Override
+    public IPreparedFont prepareSpriteFont(FontboxManager manager, String name, ResourceLocation image, ResourceLocation xml) throws FontException {
         if (manager == null || manager.tracer() == null)
             throw new IllegalArgumentException("trace may not be null");
         if (name == null)
@@ -59,10 +126,7 @@ public class GLFontBuilder implements IGLFontBuilder {
 
             GLFontMetrics metric = GLFontMetrics.fromResource(manager.tracer(), xml, buffer.getWidth(), buffer.getHeight());
             manager.tracer().trace("GLFont.fromSpriteFont", "fromMetric", metric);
-            IGLFont f0 = GLFont.fromBuffer(manager, name, buffer, buffer.getWidth(), buffer.getHeight(), metric);
-            manager.tracer().trace("GLFont.fromSpriteFont", f0);
-            return f0;
-
+            return PreparedFont.fromBuffer(name, buffer, buffer.getWidth(), buffer.getHeight(), metric);
         } catch (IOException ioex) {
             manager.tracer().trace("GLFont.fromSpriteFont", ioex);
             throw new FontException("Can't perform I/O operation!", ioex);
@@ -70,32 +134,25 @@ public class GLFontBuilder implements IGLFontBuilder {
     }
 
     @Override
-    public IGLFont fromFont(FontboxManager manager, Font font) throws FontException {
+    public IPreparedFont prepareFont(FontboxManager manager, Font font) throws FontException {
         if (manager == null || manager.tracer() == null)
             throw new IllegalArgumentException("trace may not be null");
         if (font == null)
             throw new IllegalArgumentException("font may not be null");
-        BufferedImage buffer = new BufferedImage(RASTER_DIM, RASTER_DIM, BufferedImage.TYPE_INT_ARGB);
-        Graphics2D graphics = (Graphics2D) buffer.getGraphics();
-        graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        int off = 0;
-        int charsPerRow = 12;
-        for (char k = IGLFont.MIN_CH; k <= IGLFont.MAX_CH; k++, off++) {
-            TextLayout layout = new TextLayout(String.valueOf(k), font, graphics.getFontRenderContext());
-            Rectangle2D rect = layout.getBounds();
-            int x = (off % charsPerRow) * (RASTER_DIM / charsPerRow);
-            int y = (off / charsPerRow) * (RASTER_DIM / charsPerRow);
-            float cy = (float) rect.getHeight();
-            graphics.setColor(Color.WHITE);
-            manager.tracer().trace("GLFont.fromFont", "placeGlyph", k, x, y - cy);
-            layout.draw(graphics, x, y - cy);
-        }
+        GlyphAtlas atlas = GlyphAtlas.fromFont(manager.tracer(), font, IGLFont.MIN_CH, IGLFont.MAX_CH);
+        manager.tracer().trace("GLFont.fromFont", "fromMetric", atlas.getMetric());
+        return PreparedFont.fromAtlas(font.getFontName(), atlas);
+    }
 
-        GLFontMetrics metric = GLFontMetrics.fromFontMetrics(manager.tracer(), font, graphics.getFontRenderContext(), RASTER_DIM,
-            RASTER_DIM, charsPerRow, IGLFont.MIN_CH, IGLFont.MAX_CH);
-        manager.tracer().trace("GLFont.fromFont", "fromMetric", metric);
-        IGLFont f0 = GLFont.fromBuffer(manager, font.getFontName(), buffer, RASTER_DIM, RASTER_DIM, metric);
-        manager.tracer().trace("GLFont.fromFont", f0);
-        return f0;
+    private static byte[] readTTF(ResourceLocation ttf) throws IOException {
+        IResource metricResource = Minecraft.getMinecraft().getResourceManager().getResource(ttf);
+        InputStream stream = metricResource.getInputStream();
+        if (stream == null)
+            throw new IOException("Could not open TTF file.");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] chunk = new byte[8192];
+        for (int n; (n = stream.read(chunk)) != -1; )
+            bytes.write(chunk, 0, n);
+        return bytes.toByteArray();
     }
 }
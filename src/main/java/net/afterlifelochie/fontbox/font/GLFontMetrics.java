@@ -22,8 +22,10 @@ import java.awt.font.TextLayout;
 import java.awt.geom.Rectangle2D;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.HashMap;
+import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * A font metric digest. Contains information on the font, such as the
@@ -72,9 +74,9 @@ public class GLFontMetrics implements IGLFontMetrics {
 
             int u = (int) Math.ceil(rect.getWidth() + cx);
             int v = (int) Math.ceil(layout.getAscent() + layout.getDescent());
-            trace.trace("GLFontMetrics.fromFontMetrics", "placeGlyph", k, u, v, x - cx, y - cy);
-            metric.glyphs.put((int) k,
-                new GLGlyphMetric(u, v, (int) layout.getAscent(), (int) (x - cx), (int) (y - cy)));
+            if (trace.isTraceEnabled())
+                trace.trace("GLFontMetrics.fromFontMetrics", "placeGlyph", k, u, v, x - cx, y - cy);
+            metric.put(k, new GLGlyphMetric(u, v, (int) layout.getAscent(), (int) (x - cx), (int) (y - cy)));
         }
         trace.trace("GLFontMetrics.fromFontMetrics", metric);
         return metric;
@@ -115,7 +117,7 @@ public class GLFontMetrics implements IGLFontMetrics {
             for (int i = 0; i < list_character.getLength(); i++) {
                 Element character = (Element) list_character.item(i);
                 int c = Integer.parseInt(character.getAttributes().getNamedItem("key").getNodeValue());
-                if (0 > c || c > 255)
+                if (0 > c || c > Character.MAX_CODE_POINT)
                     throw new FontException(String.format("Unsupported character code %s", c));
                 int w = -1, h = -1, u = -1, v = -1;
                 NodeList character_properties = character.getChildNodes();
@@ -145,8 +147,9 @@ public class GLFontMetrics implements IGLFontMetrics {
                 }
                 if (w == -1 || h == -1 || u == -1 || v == -1)
                     throw new FontException(String.format("Invalid metric properties set for key %s", c));
-                trace.trace("GLFontMetrics.fromResource", "placeGlyph", (char) c, w, h, u, v);
-                metric.glyphs.put(c, new GLGlyphMetric(w, h, 0, u, v));
+                if (trace.isTraceEnabled())
+                    trace.trace("GLFontMetrics.fromResource", "placeGlyph", (char) c, w, h, u, v);
+                metric.put(c, new GLGlyphMetric(w, h, 0, u, v));
             }
             trace.trace("GLFontMetrics.fromResource", metric);
             return metric;
@@ -158,17 +161,111 @@ public class GLFontMetrics implements IGLFontMetrics {
     }
 
 
-    private final Map<Integer, IGLGlyphMetric> glyphs = new HashMap<>();
+    /**
+     * The number of characters in a block
+     */
+    static final int BLOCK_SIZE = 256;
+
+    /**
+     * The glyphs of the Basic Multilingual Plane, in blocks of
+     * {@link #BLOCK_SIZE} characters indexed by character; a block is null
+     * until a glyph in it is added
+     */
+    private final AtomicReferenceArray<IGLGlyphMetric[]> blocks = new AtomicReferenceArray<>(
+        (Character.MAX_VALUE + 1) / BLOCK_SIZE);
+    /**
+     * All glyphs, including those outside the Basic Multilingual Plane
+     */
+    private final Map<Integer, IGLGlyphMetric> glyphs = new ConcurrentHashMap<>();
+    private final Map<Integer, IGLGlyphMetric> glyphsView = Collections.unmodifiableMap(glyphs);
     private final float fontImageWidth, fontImageHeight;
+    /**
+     * The atlas which rasterizes missing blocks, or null if the glyphs are fixed
+     */
+    private volatile GlyphAtlas atlas;
 
-    private GLFontMetrics(int fontImageWidth, int fontImageHeight) {
+    GLFontMetrics(int fontImageWidth, int fontImageHeight) {
         this.fontImageWidth = fontImageWidth;
         this.fontImageHeight = fontImageHeight;
     }
 
+    void put(int codepoint, IGLGlyphMetric glyph) {
+        if (codepoint >= 0 && codepoint <= Character.MAX_VALUE) {
+            IGLGlyphMetric[] block = blocks.get(codepoint / BLOCK_SIZE);
+            if (block == null) {
+                block = new IGLGlyphMetric[BLOCK_SIZE];
+                blocks.set(codepoint / BLOCK_SIZE, block);
+            }
+            block[codepoint % BLOCK_SIZE] = glyph;
+        }
+        glyphs.put(codepoint, glyph);
+    }
+
+    /**
+     * Publish a whole block of glyphs at once
+     *
+     * @param block  The block number
+     * @param glyphs The glyphs of the block, null where there is no glyph
+     */
+    void putBlock(int block, IGLGlyphMetric[] glyphs) {
+        for (int i = 0; i < BLOCK_SIZE; i++)
+            if (glyphs[i] != null)
+                this.glyphs.put(block * BLOCK_SIZE + i, glyphs[i]);
+        blocks.set(block, glyphs);
+    }
+
+    IGLGlyphMetric[] getBlock(int block) {
+        return blocks.get(block);
+    }
+
+    /**
+     * Copy the metrics with every glyph scaled for drawing at another size,
+     * on the same texture. Only the glyphs added so far are copied.
+     *
+     * @param factor The ratio of the new size to this size
+     * @return The scaled metrics
+     */
+    GLFontMetrics scaled(float factor) {
+        GLFontMetrics result = new GLFontMetrics((int) fontImageWidth, (int) fontImageHeight);
+        for (Map.Entry<Integer, IGLGlyphMetric> glyph : glyphs.entrySet())
+            result.put(glyph.getKey(), new ScaledGlyphMetric(glyph.getValue(), factor));
+        return result;
+    }
+
+    void setAtlas(GlyphAtlas atlas) {
+        this.atlas = atlas;
+    }
+
+    /**
+     * Get the glyphs added so far. For fonts rasterized from a TTF, blocks
+     * are added as they are first looked up through {@link #glyph(int)}.
+     */
     @Override
     public Map<Integer, IGLGlyphMetric> getGlyphs() {
-        return glyphs;
+        return glyphsView;
+    }
+
+    @Override
+    public IGLGlyphMetric glyph(int codepoint) {
+        if (0 > codepoint || codepoint > Character.MAX_VALUE)
+            return glyphs.get(codepoint);
+        IGLGlyphMetric[] block = blocks.get(codepoint / BLOCK_SIZE);
+        if (block == null) {
+            if (atlas == null)
+                return null;
+            block = atlas.load(this, codepoint / BLOCK_SIZE);
+        }
+        return block[codepoint % BLOCK_SIZE];
+    }
+
+    @Override
+    public float getPageWidth(int page) {
+        return (page == 0 || atlas == null) ? fontImageWidth : atlas.getPageWidth(page);
+    }
+
+    @Override
+    public float getPageHeight(int page) {
+        return (page == 0 || atlas == null) ? fontImageHeight : atlas.getPageHeight(page);
     }
 
     @Override
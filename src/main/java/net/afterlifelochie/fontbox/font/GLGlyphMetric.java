@@ -9,7 +9,7 @@ import net.afterlifelochie.fontbox.api.font.IGLGlyphMetric;
  */
 public class GLGlyphMetric implements IGLGlyphMetric {
 
-    public final int width, height, ascent, ux, vy;
+    public final int width, height, ascent, ux, vy, page;
 
     /**
      * Creates a new GlpyhMetric.
@@ -25,11 +25,26 @@ public class GLGlyphMetric implements IGLGlyphMetric {
      * @param v The v origin-coordinate of the texture
      */
     public GLGlyphMetric(int w, int h, int a, int u, int v) {
+        this(w, h, a, u, v, 0);
+    }
+
+    /**
+     * Creates a new GlpyhMetric on an atlas page.
+     *
+     * @param w The character's glyph width
+     * @param h The character's height
+     * @param a The character's ascent
+     * @param u The u origin-coordinate of the texture
+     * @param v The v origin-coordinate of the texture
+     * @param p The atlas page the glyph is drawn on
+     */
+    public GLGlyphMetric(int w, int h, int a, int u, int v, int p) {
         width = w;
         height = h;
         ascent = a;
         ux = u;
         vy = v;
+        page = p;
     }
 
     @Override
@@ -57,9 +72,14 @@ public class GLGlyphMetric implements IGLGlyphMetric {
         return vy;
     }
 
+    @Override
+    public int getPage() {
+        return page;
+    }
+
     @Override
     public String toString() {
         return "GLGlyphMetric { width: " + width + ", height: " + height + ", ascent: " + ascent + ", ux: " + ux
-            + ", vy: " + vy + " }";
+            + ", vy: " + vy + ", page: " + page + " }";
     }
 }
\ No newline at end of file
@@ -0,0 +1,308 @@
+package net.afterlifelochie.fontbox.font;
+
+import net.afterlifelochie.fontbox.api.exception.FontException;
+import net.afterlifelochie.fontbox.api.font.IGLGlyphMetric;
+import net.afterlifelochie.fontbox.api.tracer.ITracer;
+
+import java.awt.*;
+import java.awt.font.FontRenderContext;
+import java.awt.font.TextLayout;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * <p>
+ * A font rasterized onto one or more images, with the metrics of every glyph.
+ * Glyphs are packed with a {@link SkylinePacker}. The first page holds the
+ * range of characters the font is built with and is only as large as those
+ * glyphs need, rounded up to powers of two.
+ * </p>
+ * <p>
+ * Other characters are rasterized a block of {@link GLFontMetrics#BLOCK_SIZE}
+ * at a time, the first time a character in the block is looked up, onto
+ * further pages of {@link #PAGE_DIM} pixels square. Pages are only added when
+ * the last one is full.
+ * </p>
+ *
+ * @author AfterLifeLochie
+ */
+public class GlyphAtlas {
+    /**
+     * The empty pixels kept around every glyph, so filtering does not bleed
+     * neighbouring glyphs into each other
+     */
+    static final int PADDING = 1;
+    /**
+     * The largest width or height of the first page
+     */
+    static final int MAX_DIM = 4096;
+    /**
+     * The width and height of pages after the first
+     */
+    static final int PAGE_DIM = 512;
+
+    /**
+     * Rasterize a range of characters of a font onto the first page
+     *
+     * @param trace   The debugging tracer object
+     * @param font    The font
+     * @param minChar The first character
+     * @param maxChar The last character
+     * @return The atlas
+     * @throws FontException If the glyphs do not fit on the largest image
+     *                       allowed
+     */
+    public static GlyphAtlas fromFont(ITracer trace, Font font, char minChar, char maxChar) throws FontException {
+        if (trace == null)
+            throw new IllegalArgumentException("trace may not be null");
+        if (font == null)
+            throw new IllegalArgumentException("font may not be null");
+        FontRenderContext ctx = new FontRenderContext(null, true, false);
+        int count = maxChar - minChar + 1;
+        Glyph[] glyphs = new Glyph[count];
+        Integer[] order = new Integer[count];
+        long area = 0;
+        int widest = 0;
+        for (int i = 0; i < count; i++) {
+            glyphs[i] = new Glyph(new TextLayout(String.valueOf((char) (minChar + i)), font, ctx));
+            area += (long) (glyphs[i].box.width + PADDING) * (glyphs[i].box.height + PADDING);
+            widest = Math.max(widest, glyphs[i].box.width + PADDING);
+            order[i] = i;
+        }
+        // Tallest first keeps glyphs of similar height side by side
+        Arrays.sort(order, (a, b) -> Integer.compare(glyphs[b].box.height, glyphs[a].box.height));
+
+        int width = Math.max(ceilPow2(widest), ceilPow2((int) Math.ceil(Math.sqrt(area))));
+        if (width > MAX_DIM)
+            throw new FontException(String.format("Glyphs of %s do not fit on a %s texture", font.getName(), MAX_DIM));
+        SkylinePacker packer = new SkylinePacker(width, MAX_DIM);
+        Point[] at = new Point[count];
+        for (int i : order) {
+            at[i] = packer.pack(glyphs[i].box.width + PADDING, glyphs[i].box.height + PADDING);
+            if (at[i] == null)
+                throw new FontException(String.format("Glyphs of %s do not fit on a %s texture", font.getName(), MAX_DIM));
+        }
+
+        Page first = new Page(width, ceilPow2(packer.getUsedHeight()), packer);
+        GLFontMetrics metric = new GLFontMetrics(first.width, first.height);
+        for (int i = 0; i < count; i++) {
+            char k = (char) (minChar + i);
+            if (trace.isTraceEnabled())
+                trace.trace("GlyphAtlas.fromFont", "placeGlyph", k, at[i].x, at[i].y);
+            metric.put(k, glyphs[i].draw(first, 0, at[i]));
+        }
+        first.close();
+        trace.trace("GlyphAtlas.fromFont", metric);
+        return new GlyphAtlas(trace, font, ctx, first, metric);
+    }
+
+    /**
+     * Rebuild an atlas from a first page made earlier by
+     * {@link #fromFont(ITracer, Font, char, char)}
+     *
+     * @param trace  The debugging tracer object
+     * @param font   The font the page was made from, for rasterizing more
+     *               characters
+     * @param image  The image of the first page
+     * @param metric The metrics of the glyphs on the first page
+     * @return The atlas
+     */
+    static GlyphAtlas restore(ITracer trace, Font font, BufferedImage image, GLFontMetrics metric) {
+        return new GlyphAtlas(trace, font, new FontRenderContext(null, true, false), new Page(image), metric);
+    }
+
+    private static int ceilPow2(int value) {
+        return (1 >= value) ? 1 : Integer.highestOneBit(value - 1) << 1;
+    }
+
+    /**
+     * A glyph measured for placing on a page
+     */
+    static class Glyph {
+        final TextLayout layout;
+        /**
+         * The texture region of the glyph, relative to its drawing origin on
+         * the baseline
+         */
+        final Rectangle region;
+        /**
+         * The room the glyph needs for both its region and everything drawn
+         */
+        final Rectangle box;
+
+        Glyph(TextLayout layout) {
+            this.layout = layout;
+            Rectangle pixels = layout.getPixelBounds(null, 0, 0);
+            Rectangle2D rect = layout.getBounds();
+            region = new Rectangle(pixels.x, -(int) layout.getAscent(), (int) Math.ceil(rect.getWidth() - pixels.x),
+                (int) Math.ceil(layout.getAscent() + layout.getDescent()));
+            box = pixels.isEmpty() ? region : region.union(pixels);
+        }
+
+        GLGlyphMetric draw(Page page, int number, Point at) {
+            // The drawing origin which puts the box at its packed place
+            int x = at.x - box.x, y = at.y - box.y;
+            layout.draw(page.graphics, x, y);
+            return new GLGlyphMetric(region.width, region.height, -region.y, x + region.x, y, number);
+        }
+    }
+
+    /**
+     * One image of the atlas
+     */
+    static class Page {
+        final int width, height;
+        final BufferedImage image;
+        final SkylinePacker packer;
+        Graphics2D graphics;
+        /**
+         * Incremented whenever glyphs are drawn onto the page
+         */
+        int version;
+
+        Page(int width, int height, SkylinePacker packer) {
+            this.width = width;
+            this.height = height;
+            this.packer = packer;
+            image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            graphics = image.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            graphics.setColor(Color.WHITE);
+        }
+
+        Page(BufferedImage image) {
+            this.width = image.getWidth();
+            this.height = image.getHeight();
+            this.image = image;
+            this.packer = null;
+        }
+
+        void close() {
+            if (graphics != null)
+                graphics.dispose();
+            graphics = null;
+        }
+    }
+
+    private static final IGLGlyphMetric[] EMPTY_BLOCK = new IGLGlyphMetric[GLFontMetrics.BLOCK_SIZE];
+
+    private final ITracer trace;
+    private final Font font;
+    private final FontRenderContext ctx;
+    /**
+     * The pages; replaced, never modified, when a page is added
+     */
+    private volatile Page[] pages;
+    private final GLFontMetrics metric;
+
+    private GlyphAtlas(ITracer trace, Font font, FontRenderContext ctx, Page first, GLFontMetrics metric) {
+        this.trace = trace;
+        this.font = font;
+        this.ctx = ctx;
+        this.pages = new Page[]{first};
+        this.metric = metric;
+        metric.setAtlas(this);
+    }
+
+    /**
+     * Rasterize a block of characters which has not been rasterized yet.
+     * Characters the font cannot display are left without a glyph.
+     *
+     * @param metric The metrics to add the glyphs to
+     * @param block  The block number
+     * @return The glyphs of the block
+     */
+    synchronized IGLGlyphMetric[] load(GLFontMetrics metric, int block) {
+        IGLGlyphMetric[] loaded = metric.getBlock(block);
+        if (loaded != null)
+            return loaded; // another thread got here first
+        IGLGlyphMetric[] result = null;
+        for (int i = 0; i < GLFontMetrics.BLOCK_SIZE; i++) {
+            char k = (char) (block * GLFontMetrics.BLOCK_SIZE + i);
+            if (Character.isSurrogate(k) || !font.canDisplay(k))
+                continue;
+            Glyph glyph = new Glyph(new TextLayout(String.valueOf(k), font, ctx));
+            int w = glyph.box.width + PADDING, h = glyph.box.height + PADDING;
+            if (w > PAGE_DIM || h > PAGE_DIM)
+                continue;
+            Page page = pages[pages.length - 1];
+            Point at = (page.graphics == null) ? null : page.packer.pack(w, h);
+            if (at == null) {
+                page.close();
+                page = new Page(PAGE_DIM, PAGE_DIM, new SkylinePacker(PAGE_DIM, PAGE_DIM));
+                Page[] grown = Arrays.copyOf(pages, pages.length + 1);
+                grown[pages.length] = page;
+                pages = grown;
+                at = page.packer.pack(w, h);
+            }
+            if (result == null)
+                result = new IGLGlyphMetric[GLFontMetrics.BLOCK_SIZE];
+            result[i] = glyph.draw(page, pages.length - 1, at);
+            page.version++;
+        }
+        if (trace.isTraceEnabled())
+            trace.trace("GlyphAtlas.load", block, pages.length);
+        if (result == null)
+            result = EMPTY_BLOCK;
+        metric.putBlock(block, result);
+        return result;
+    }
+
+    /**
+     * Get the number of pages
+     *
+     * @return The number of pages
+     */
+    public int getPageCount() {
+        return pages.length;
+    }
+
+    /**
+     * Get the image of the first page
+     *
+     * @return The image
+     */
+    public BufferedImage getImage() {
+        return pages[0].image;
+    }
+
+    /**
+     * Get the image of a page. Glyphs may be drawn onto the last page at any
+     * time; synchronize on the atlas while reading it.
+     *
+     * @param page The page
+     * @return The image
+     */
+    public BufferedImage getImage(int page) {
+        return pages[page].image;
+    }
+
+    /**
+     * Get the number of times glyphs have been drawn onto a page, so copies
+     * of the page can tell when they are out of date
+     *
+     * @param page The page
+     * @return The version of the page
+     */
+    public synchronized int getVersion(int page) {
+        return pages[page].version;
+    }
+
+    int getPageWidth(int page) {
+        return pages[page].width;
+    }
+
+    int getPageHeight(int page) {
+        return pages[page].height;
+    }
+
+    /**
+     * Get the metrics of the glyphs in the atlas
+     *
+     * @return The metrics
+     */
+    public GLFontMetrics getMetric() {
+        return metric;
+    }
+}
@@ -0,0 +1,122 @@
+package net.afterlifelochie.fontbox.font;
+
+import net.afterlifelochie.fontbox.api.FontboxManager;
+import net.afterlifelochie.fontbox.api.exception.FontException;
+import net.afterlifelochie.fontbox.api.font.IGLFont;
+import net.afterlifelochie.fontbox.api.font.IPreparedFont;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.nio.ByteBuffer;
+
+/**
+ * A font whose texture data and metrics are ready, waiting for
+ * {@link #upload(FontboxManager)} on the render thread.
+ *
+ * @author AfterLifeLochie
+ */
+public class PreparedFont implements IPreparedFont {
+    /**
+     * Prepare a font from an image buffer of a specified size with a specified
+     * metric map
+     *
+     * @param name   The name of the font
+     * @param image  The buffered image
+     * @param width  The width of the image, absolute pixels
+     * @param height The height of the image, absolute pixels
+     * @param metric The font metric map
+     * @return The prepared font
+     */
+    public static PreparedFont fromBuffer(String name, BufferedImage image, int width, int height, GLFontMetrics metric) {
+        if (name == null)
+            throw new IllegalArgumentException("name may not be null");
+        if (image == null)
+            throw new IllegalArgumentException("image may not be null");
+        if (metric == null)
+            throw new IllegalArgumentException("metric may not be null");
+        if (image.getWidth() != width || image.getHeight() != height) {
+            // Crop or pad to the size asked for
+            BufferedImage sized = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+            Graphics2D g = sized.createGraphics();
+            g.drawImage(image, 0, 0, null);
+            g.dispose();
+            image = sized;
+        }
+        return new PreparedFont(name, TextureData.rgba(image, null), width, height, false, false, metric, null);
+    }
+
+    /**
+     * Prepare a font from the first page of a glyph atlas. Glyphs on atlases
+     * are white, so only their alpha is uploaded.
+     *
+     * @param name  The name of the font
+     * @param atlas The glyph atlas
+     * @return The prepared font
+     */
+    public static PreparedFont fromAtlas(String name, GlyphAtlas atlas) {
+        if (name == null)
+            throw new IllegalArgumentException("name may not be null");
+        if (atlas == null)
+            throw new IllegalArgumentException("atlas may not be null");
+        BufferedImage image = atlas.getImage();
+        return new PreparedFont(name, TextureData.alpha(image, null), image.getWidth(), image.getHeight(), true,
+            false, atlas.getMetric(), atlas);
+    }
+
+    /**
+     * Prepare a font from a distance field atlas. Only the alpha, which holds
+     * the field, is uploaded.
+     *
+     * @param name  The name of the font
+     * @param atlas The distance field atlas
+     * @return The prepared font
+     */
+    public static PreparedFont fromDistanceField(String name, DistanceFieldAtlas atlas) {
+        if (name == null)
+            throw new IllegalArgumentException("name may not be null");
+        if (atlas == null)
+            throw new IllegalArgumentException("atlas may not be null");
+        BufferedImage image = atlas.getImage();
+        return new PreparedFont(name, TextureData.alpha(image, null), image.getWidth(), image.getHeight(), true,
+            true, atlas.getMetric(), null);
+    }
+
+    private final String name;
+    private final int width, height;
+    private final boolean alpha, distanceField;
+    private final GLFontMetrics metric;
+    private final GlyphAtlas atlas;
+    private ByteBuffer pixels;
+
+    private PreparedFont(String name, ByteBuffer pixels, int width, int height, boolean alpha, boolean distanceField,
+                         GLFontMetrics metric, GlyphAtlas atlas) {
+        this.name = name;
+        this.pixels = pixels;
+        this.width = width;
+        this.height = height;
+        this.alpha = alpha;
+        this.distanceField = distanceField;
+        this.metric = metric;
+        this.atlas = atlas;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public IGLFont upload(FontboxManager manager) throws FontException {
+        if (pixels == null)
+            throw new IllegalStateException("Font " + name + " has already been uploaded");
+        IGLFont font = GLFont.fromPixels(manager, name, pixels, width, height, alpha, distanceField, metric,
+            atlas);
+        pixels = null;
+        return font;
+    }
+
+    @Override
+    public String toString() {
+        return "PreparedFont { name: " + name + ", w: " + width + ", h: " + height + " }";
+    }
+}
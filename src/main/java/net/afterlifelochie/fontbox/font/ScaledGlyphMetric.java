@@ -0,0 +1,79 @@
+package net.afterlifelochie.fontbox.font;
+
+import net.afterlifelochie.fontbox.api.font.IGLGlyphMetric;
+
+/**
+ * Metrics about a character drawn at a different size than it is stored on
+ * the texture. The size on the screen is scaled; the texture region is not.
+ *
+ * @author AfterLifeLochie
+ */
+public class ScaledGlyphMetric implements IGLGlyphMetric {
+
+    private final IGLGlyphMetric glyph;
+    private final int width, height, ascent;
+
+    /**
+     * Creates a new scaled glyph.
+     *
+     * @param glyph  The glyph as stored on the texture
+     * @param factor The ratio of the size on the screen to the size stored
+     */
+    public ScaledGlyphMetric(IGLGlyphMetric glyph, float factor) {
+        this.glyph = glyph;
+        width = Math.round(glyph.getWidth() * factor);
+        height = Math.round(glyph.getHeight() * factor);
+        ascent = Math.round(glyph.getAscent() * factor);
+    }
+
+    @Override
+    public int getWidth() {
+        return width;
+    }
+
+    @Override
+    public int getHeight() {
+        return height;
+    }
+
+    @Override
+    public int getAscent() {
+        return ascent;
+    }
+
+    @Override
+    public int getUx() {
+        return glyph.getUx();
+    }
+
+    @Override
+    public int getVy() {
+        return glyph.getVy();
+    }
+
+    @Override
+    public int getPage() {
+        return glyph.getPage();
+    }
+
+    @Override
+    public int getTextureWidth() {
+        return glyph.getTextureWidth();
+    }
+
+    @Override
+    public int getTextureHeight() {
+        return glyph.getTextureHeight();
+    }
+
+    @Override
+    public int getTextureAscent() {
+        return glyph.getTextureAscent();
+    }
+
+    @Override
+    public String toString() {
+        return "ScaledGlyphMetric { width: " + width + ", height: " + height + ", ascent: " + ascent + ", glyph: "
+            + glyph + " }";
+    }
+}
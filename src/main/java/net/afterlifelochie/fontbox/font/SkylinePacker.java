@@ -0,0 +1,157 @@
+package net.afterlifelochie.fontbox.font;
+
+import java.awt.*;
+import java.util.Arrays;
+
+/**
+ * Rectangle packer for glyph atlases. The packer tracks the skyline of the
+ * rectangles placed so far, as a list of horizontal segments, and puts each
+ * new rectangle at the lowest position where it fits, preferring the leftmost
+ * when there is a tie.
+ *
+ * @author AfterLifeLochie
+ */
+public class SkylinePacker {
+    private final int width, height;
+    /**
+     * The segments of the skyline, as left x-coordinate, width and top
+     * y-coordinate; segments are kept in order from left to right
+     */
+    private int[] segX, segWidth, segY;
+    private int segments;
+    private int usedHeight = 0;
+
+    /**
+     * Create a packer for an empty area
+     *
+     * @param width  The width of the area
+     * @param height The height of the area
+     */
+    public SkylinePacker(int width, int height) {
+        if (0 >= width || 0 >= height)
+            throw new IllegalArgumentException("width and height must be positive");
+        this.width = width;
+        this.height = height;
+        segX = new int[16];
+        segWidth = new int[16];
+        segY = new int[16];
+        segWidth[0] = width;
+        segments = 1;
+    }
+
+    /**
+     * Place a rectangle
+     *
+     * @param w The width of the rectangle
+     * @param h The height of the rectangle
+     * @return The top-left corner of the rectangle, or null if there is no
+     * room left for it
+     */
+    public Point pack(int w, int h) {
+        if (0 > w || 0 > h)
+            throw new IllegalArgumentException("w and h may not be negative");
+        int best = -1, bestY = Integer.MAX_VALUE;
+        for (int i = 0; i < segments; i++) {
+            int y = fit(i, w, h);
+            if (y != -1 && bestY > y) {
+                best = i;
+                bestY = y;
+            }
+        }
+        if (best == -1)
+            return null;
+        Point at = new Point(segX[best], bestY);
+        raise(best, at.x, w, bestY + h);
+        usedHeight = Math.max(usedHeight, bestY + h);
+        return at;
+    }
+
+    /**
+     * Get the height of the area covered by rectangles so far
+     *
+     * @return The lowest edge of any rectangle placed
+     */
+    public int getUsedHeight() {
+        return usedHeight;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Find the y-coordinate a rectangle would sit at if its left edge were on
+     * the left edge of a segment
+     */
+    private int fit(int index, int w, int h) {
+        if (segX[index] + w > width)
+            return -1;
+        int y = 0;
+        for (int i = index, left = w; left > 0 || i == index; i++) {
+            y = Math.max(y, segY[i]);
+            left -= segWidth[i];
+        }
+        return (y + h > height) ? -1 : y;
+    }
+
+    /**
+     * Replace the skyline under a placed rectangle with its top edge
+     */
+    private void raise(int index, int x, int w, int top) {
+        if (w == 0)
+            return;
+        int end = x + w;
+        int last = index;
+        while (last < segments && end >= segX[last] + segWidth[last])
+            last++;
+        // Segments index..last-1 are covered entirely; last is covered in part
+        if (last < segments && end > segX[last]) {
+            segWidth[last] -= end - segX[last];
+            segX[last] = end;
+        }
+        int removed = last - index;
+        if (removed == 0) {
+            grow();
+            System.arraycopy(segX, index, segX, index + 1, segments - index);
+            System.arraycopy(segWidth, index, segWidth, index + 1, segments - index);
+            System.arraycopy(segY, index, segY, index + 1, segments - index);
+            segments++;
+        } else if (removed > 1) {
+            System.arraycopy(segX, last, segX, index + 1, segments - last);
+            System.arraycopy(segWidth, last, segWidth, index + 1, segments - last);
+            System.arraycopy(segY, last, segY, index + 1, segments - last);
+            segments -= removed - 1;
+        }
+        segX[index] = x;
+        segWidth[index] = w;
+        segY[index] = top;
+        merge(index);
+    }
+
+    private void merge(int index) {
+        if (index + 1 < segments && segY[index + 1] == segY[index])
+            remove(index, index + 1);
+        if (index > 0 && segY[index - 1] == segY[index])
+            remove(index - 1, index);
+    }
+
+    private void remove(int into, int from) {
+        segWidth[into] += segWidth[from];
+        System.arraycopy(segX, from + 1, segX, from, segments - from - 1);
+        System.arraycopy(segWidth, from + 1, segWidth, from, segments - from - 1);
+        System.arraycopy(segY, from + 1, segY, from, segments - from - 1);
+        segments--;
+    }
+
+    private void grow() {
+        if (segments < segX.length)
+            return;
+        segX = Arrays.copyOf(segX, segments * 2);
+        segWidth = Arrays.copyOf(segWidth, segments * 2);
+        segY = Arrays.copyOf(segY, segments * 2);
+    }
+}
@@ -0,0 +1,113 @@
+package net.afterlifelochie.fontbox.font;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.WritableRaster;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * <p>
+ * Conversion of images into texture data, copying each pixel once, straight
+ * into a direct buffer. {@link BufferedImage#TYPE_INT_ARGB} and
+ * {@link BufferedImage#TYPE_4BYTE_ABGR} images are read from their backing
+ * arrays; other images are read a row at a time.
+ * </p>
+ * <p>
+ * Fully transparent pixels are written as transparent black, as drawing the
+ * image onto a cleared texture would.
+ * </p>
+ *
+ * @author AfterLifeLochie
+ */
+public class TextureData {
+    /**
+     * Convert an image into RGBA texture data, four bytes per pixel
+     *
+     * @param image The image
+     * @param into  A buffer to reuse if it is large enough, or null
+     * @return The texture data; either the buffer passed in or a new buffer
+     */
+    public static ByteBuffer rgba(BufferedImage image, ByteBuffer into) {
+        int width = image.getWidth(), height = image.getHeight();
+        ByteBuffer out = buffer(into, width * height * 4);
+        WritableRaster raster = image.getRaster();
+        if (image.getType() == BufferedImage.TYPE_INT_ARGB && raster.getParent() == null) {
+            int[] data = ((DataBufferInt) raster.getDataBuffer()).getData();
+            for (int i = 0, n = width * height; i < n; i++)
+                putARGB(out, i << 2, data[i]);
+        } else if (image.getType() == BufferedImage.TYPE_4BYTE_ABGR && raster.getParent() == null) {
+            byte[] data = ((DataBufferByte) raster.getDataBuffer()).getData();
+            for (int i = 0, n = width * height * 4; i < n; i += 4) {
+                if (data[i] == 0) {
+                    out.putInt(i, 0);
+                    continue;
+                }
+                out.put(i, data[i + 3]);
+                out.put(i + 1, data[i + 2]);
+                out.put(i + 2, data[i + 1]);
+                out.put(i + 3, data[i]);
+            }
+        } else {
+            int[] row = new int[width];
+            for (int y = 0; y < height; y++) {
+                image.getRGB(0, y, width, 1, row, 0, width);
+                for (int x = 0; x < width; x++)
+                    putARGB(out, (y * width + x) << 2, row[x]);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Convert an image into single-channel alpha texture data, one byte per
+     * pixel. Only suitable for images whose colour does not matter, such as
+     * glyphs drawn in white.
+     *
+     * @param image The image
+     * @param into  A buffer to reuse if it is large enough, or null
+     * @return The texture data; either the buffer passed in or a new buffer
+     */
+    public static ByteBuffer alpha(BufferedImage image, ByteBuffer into) {
+        int width = image.getWidth(), height = image.getHeight();
+        ByteBuffer out = buffer(into, width * height);
+        WritableRaster raster = image.getRaster();
+        if (image.getType() == BufferedImage.TYPE_INT_ARGB && raster.getParent() == null) {
+            int[] data = ((DataBufferInt) raster.getDataBuffer()).getData();
+            for (int i = 0, n = width * height; i < n; i++)
+                out.put(i, (byte) (data[i] >>> 24));
+        } else if (image.getType() == BufferedImage.TYPE_4BYTE_ABGR && raster.getParent() == null) {
+            byte[] data = ((DataBufferByte) raster.getDataBuffer()).getData();
+            for (int i = 0, n = width * height; i < n; i++)
+                out.put(i, data[i << 2]);
+        } else {
+            int[] row = new int[width];
+            for (int y = 0; y < height; y++) {
+                image.getRGB(0, y, width, 1, row, 0, width);
+                for (int x = 0; x < width; x++)
+                    out.put(y * width + x, (byte) (row[x] >>> 24));
+            }
+        }
+        return out;
+    }
+
+    private static void putARGB(ByteBuffer out, int i, int argb) {
+        if ((argb >>> 24) == 0) {
+            out.putInt(i, 0);
+            return;
+        }
+        out.put(i, (byte) (argb >> 16));
+        out.put(i + 1, (byte) (argb >> 8));
+        out.put(i + 2, (byte) argb);
+        out.put(i + 3, (byte) (argb >>> 24));
+    }
+
+    private static ByteBuffer buffer(ByteBuffer into, int size) {
+        ByteBuffer out = (into != null && into.capacity() >= size) ? into
+            : ByteBuffer.allocateDirect(Math.max(size, 4)).order(ByteOrder.nativeOrder());
+        out.clear();
+        out.limit(size);
+        return out;
+    }
+}
@@ -1,20 +1,25 @@
 package net.afterlifelochie.fontbox.layout;
 
 import net.afterlifelochie.fontbox.api.exception.LayoutException;
+import net.afterlifelochie.fontbox.api.formatting.layout.CompilerHint;
 import net.afterlifelochie.fontbox.api.layout.IElement;
 import net.afterlifelochie.fontbox.api.layout.IPage;
 import net.afterlifelochie.fontbox.api.tracer.ITracer;
+import net.afterlifelochie.fontbox.document.CompilerHintElement;
 import net.afterlifelochie.fontbox.document.Document;
 import net.afterlifelochie.fontbox.document.Element;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 
 public class DocumentProcessor {
     public static IElement getElementAt(IPage page, int x, int y) {
-        for (IElement element : page.allElements())
-            if (element.bounds().encloses(x, y))
-                return element;
-        return null;
+        return page.elementAt(x, y);
     }
 
     /**
@@ -41,4 +46,76 @@ public class DocumentProcessor {
         for (IElement element : doc.elements)
             element.layout(trace, writer);
     }
+
+    /**
+     * <p>
+     * Generate a list of formatted Pages from a Document in parallel. The
+     * Document is split into segments at every {@link CompilerHint#PAGE_BREAK}
+     * hint; each segment after the first is laid out on the pool onto its own
+     * writer, while the first is laid out onto the writer given. The segments
+     * are then appended to the writer in document order, so the pages and the
+     * page index are the same as those from
+     * {@link #generatePages(ITracer, Document, PageWriter)}.
+     * </p>
+     * <p>
+     * The elements of the Document are laid out on several threads at once,
+     * so the tracer must be safe to call from any thread.
+     * </p>
+     *
+     * @param trace  The debugger
+     * @param doc    The Document to transform
+     * @param writer The page writer
+     * @param pool   The pool to lay out segments on
+     * @throws IOException     Any I/O exception which occurs when reading from nested
+     *                         streams or when writing to the Page output stream
+     * @throws LayoutException Any layout exception which occurs when attempting to place an
+     *                         element on a Page
+     */
+    public static void generatePages(ITracer trace, Document doc, PageWriter writer, ForkJoinPool pool) throws IOException, LayoutException {
+        List<List<IElement>> segments = new ArrayList<>();
+        segments.add(new ArrayList<>());
+        for (IElement element : doc.elements)
+            if (isPageBreak(element))
+                segments.add(new ArrayList<>());
+            else
+                segments.get(segments.size() - 1).add(element);
+
+        List<ForkJoinTask<PageWriter>> tasks = new ArrayList<>(segments.size() - 1);
+        for (List<IElement> segment : segments.subList(1, segments.size()))
+            tasks.add(pool.submit(() -> {
+                PageWriter segmentWriter = writer.fork();
+                segmentWriter.current(); // the page the break starts
+                for (IElement element : segment)
+                    element.layout(trace, segmentWriter);
+                return segmentWriter;
+            }));
+
+        try {
+            for (IElement element : segments.get(0))
+                element.layout(trace, writer);
+            for (ForkJoinTask<PageWriter> task : tasks)
+                writer.append(task.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted waiting for layout", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException)
+                throw (IOException) e.getCause();
+            if (e.getCause() instanceof LayoutException)
+                throw (LayoutException) e.getCause();
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            if (e.getCause() instanceof Error)
+                throw (Error) e.getCause();
+            throw new LayoutException("Layout failed", e.getCause());
+        } finally {
+            for (ForkJoinTask<PageWriter> task : tasks)
+                task.cancel(false);
+        }
+    }
+
+    private static boolean isPageBreak(IElement element) {
+        return element instanceof CompilerHintElement
+            && ((CompilerHintElement) element).types.equals(EnumSet.of(CompilerHint.PAGE_BREAK));
+    }
 }
@@ -0,0 +1,226 @@
+package net.afterlifelochie.fontbox.layout;
+
+import net.afterlifelochie.fontbox.api.FontboxManager;
+import net.afterlifelochie.fontbox.api.formatting.PageProperties;
+import net.afterlifelochie.fontbox.api.layout.IElement;
+import net.afterlifelochie.fontbox.api.layout.IPage;
+import net.afterlifelochie.fontbox.document.Document;
+import net.afterlifelochie.fontbox.document.Element;
+import net.afterlifelochie.fontbox.layout.components.Line;
+import net.afterlifelochie.fontbox.layout.components.Page;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>
+ * Cache of laid out documents, keyed by {@link LayoutKey}. Recently used
+ * layouts are kept in memory, up to a total number of pages; optionally,
+ * every layout is also written to a directory so it survives restarts.
+ * </p>
+ * <p>
+ * Pages from either tier are bound to the document being laid out: its
+ * elements are given their bounds and lines refer to them, just as if it had
+ * been laid out. The elements are only changed once the whole layout has been
+ * found; cached files which cannot be read are deleted.
+ * </p>
+ *
+ * @author AfterLifeLochie
+ */
+public class LayoutCache {
+    /**
+     * A cached layout
+     */
+    public static class Entry {
+        public final List<? extends IPage> pages;
+        public final PageIndex index;
+
+        public Entry(List<? extends IPage> pages, PageIndex index) {
+            this.pages = pages;
+            this.index = index;
+        }
+    }
+
+    /**
+     * A layout held in memory, with the elements of the document it is bound
+     * to, so it can be bound to another document
+     */
+    private static class Stored {
+        final Entry entry;
+        final List<IElement> elements;
+
+        Stored(Entry entry, List<IElement> elements) {
+            this.entry = entry;
+            this.elements = elements;
+        }
+    }
+
+    private final int maxPages;
+    private final File directory;
+    private final LinkedHashMap<String, Stored> memory = new LinkedHashMap<>(16, 0.75f, true);
+    private int memoryPages = 0;
+
+    /**
+     * Create a memory-only layout cache
+     *
+     * @param maxPages The most pages to keep in memory
+     */
+    public LayoutCache(int maxPages) {
+        this(maxPages, null);
+    }
+
+    /**
+     * Create a layout cache with a disk tier
+     *
+     * @param maxPages  The most pages to keep in memory
+     * @param directory The directory to store layouts in, or null for none
+     */
+    public LayoutCache(int maxPages, File directory) {
+        if (0 > maxPages)
+            throw new IllegalArgumentException("maxPages may not be negative");
+        this.maxPages = maxPages;
+        this.directory = directory;
+    }
+
+    /**
+     * Find the layout of a document
+     *
+     * @param key        The key of the document, from {@link LayoutKey#of}
+     * @param doc        The document
+     * @param properties The page properties
+     * @param manager    The manager to find fonts on
+     * @return The layout, or null if it is not cached
+     */
+    public Entry get(String key, Document doc, PageProperties properties, FontboxManager manager) {
+        Stored stored;
+        synchronized (memory) {
+            stored = memory.get(key);
+        }
+        if (stored != null)
+            return bind(stored, doc);
+        if (directory == null)
+            return null;
+        File file = file(key);
+        if (!file.isFile())
+            return null;
+        Entry entry;
+        try {
+            // Read into the heap rather than mapping, so the file can be replaced later
+            PageCodec.Reader reader = new PageCodec.Reader(ByteBuffer.wrap(Files.readAllBytes(file.toPath())), manager);
+            entry = new Entry(reader.pages(doc, properties), reader.index());
+        } catch (IOException ioex) {
+            manager.tracer().warn("LayoutCache.get", "Cannot read cached layout", file, ioex);
+            try {
+                Files.deleteIfExists(file.toPath());
+            } catch (IOException delex) {
+                manager.tracer().warn("LayoutCache.get", "Cannot delete cached layout", file, delex);
+            }
+            return null;
+        }
+        remember(key, entry, doc);
+        return entry;
+    }
+
+    /**
+     * Store the layout of a document
+     *
+     * @param key     The key of the document, from {@link LayoutKey#of}
+     * @param doc     The document which was laid out
+     * @param pages   The pages
+     * @param index   The page index
+     * @param manager The manager to trace to
+     */
+    public void put(String key, Document doc, List<? extends IPage> pages, PageIndex index, FontboxManager manager) {
+        remember(key, new Entry(pages, index), doc);
+        if (directory == null)
+            return;
+        File file = file(key);
+        try {
+            if (!directory.isDirectory() && !directory.mkdirs())
+                throw new IOException("Cannot create directory " + directory);
+            File temp = File.createTempFile(key, ".tmp", directory);
+            try {
+                try (OutputStream out = new FileOutputStream(temp)) {
+                    PageCodec.write(out, pages, index, doc);
+                }
+                Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temp.toPath());
+            }
+        } catch (IOException ioex) {
+            manager.tracer().warn("LayoutCache.put", "Cannot write cached layout", file, ioex);
+        }
+    }
+
+    /**
+     * Forget every layout held in memory. Layouts on disk are kept.
+     */
+    public void clear() {
+        synchronized (memory) {
+            memory.clear();
+            memoryPages = 0;
+        }
+    }
+
+    private void remember(String key, Entry entry, Document doc) {
+        if (entry.pages.size() > maxPages)
+            return;
+        Stored stored = new Stored(entry, new ArrayList<>(doc.elements));
+        synchronized (memory) {
+            Stored old = memory.put(key, stored);
+            if (old != null)
+                memoryPages -= old.entry.pages.size();
+            memoryPages += entry.pages.size();
+            Iterator<Map.Entry<String, Stored>> eldest = memory.entrySet().iterator();
+            while (memoryPages > maxPages) {
+                memoryPages -= eldest.next().getValue().entry.pages.size();
+                eldest.remove();
+            }
+        }
+    }
+
+    /**
+     * Copy a layout held in memory onto the elements of a document. The key
+     * holds the class of every element, so the documents match element for
+     * element.
+     */
+    private static Entry bind(Stored stored, Document doc) {
+        Map<IElement, IElement> elements = new IdentityHashMap<>();
+        for (int i = 0; i < stored.elements.size(); i++)
+            elements.put(stored.elements.get(i), doc.elements.get(i));
+        List<Page> pages = new ArrayList<>(stored.entry.pages.size());
+        for (IPage cached : stored.entry.pages) {
+            Page page = new Page(((Page) cached).getProperties().copy());
+            for (IElement element : cached.allElements()) {
+                IElement mine = elements.get(element);
+                if (element instanceof Line) {
+                    Line line = (Line) element;
+                    IElement underlying = elements.get(line.underlyingElement);
+                    page.push(new Line(line.line, line.formatter, line.bounds(), line.space_size,
+                        (underlying != null) ? underlying : line.underlyingElement));
+                } else if (mine instanceof Element) {
+                    ((Element) mine).setBounds(element.bounds());
+                    page.push(mine);
+                } else
+                    page.push(element);
+            }
+            pages.add(page);
+        }
+        return new Entry(pages, stored.entry.index);
+    }
+
+    private File file(String key) {
+        return new File(directory, key + ".fbl");
+    }
+}
@@ -0,0 +1,184 @@
+package net.afterlifelochie.fontbox.layout;
+
+import net.afterlifelochie.fontbox.api.data.FormattedString;
+import net.afterlifelochie.fontbox.api.font.IGLFont;
+import net.afterlifelochie.fontbox.api.font.IGLFontMetrics;
+import net.afterlifelochie.fontbox.api.font.IGLGlyphMetric;
+import net.afterlifelochie.fontbox.api.formatting.PageProperties;
+import net.afterlifelochie.fontbox.api.formatting.style.DecorationStyle;
+import net.afterlifelochie.fontbox.api.formatting.style.TextFormat;
+import net.afterlifelochie.fontbox.api.formatting.style.TextFormatter;
+import net.afterlifelochie.fontbox.api.layout.IElement;
+import net.afterlifelochie.fontbox.document.Document;
+import net.afterlifelochie.fontbox.document.Element;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * <p>
+ * Builder for {@link LayoutCache} keys. Everything which changes the result of
+ * laying out a document is fed into a SHA-256 digest: the page properties,
+ * the class and layout properties of every element, the text and format runs
+ * of formatted strings and the settings and base glyph metrics of every font
+ * used.
+ * </p>
+ * <p>
+ * Elements add themselves through {@link Element#describe(LayoutKey)}.
+ * </p>
+ *
+ * @author AfterLifeLochie
+ */
+public class LayoutKey {
+    /**
+     * Changed whenever the layout engine starts producing different pages
+     * for the same input, so old keys stop matching
+     */
+    private static final int LAYOUT_VERSION = 1;
+
+    private final MessageDigest digest;
+    private final Map<IGLFont, Integer> fonts = new IdentityHashMap<>();
+
+    public LayoutKey() {
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        put(LAYOUT_VERSION);
+    }
+
+    /**
+     * Compute the key for laying out a document onto pages
+     *
+     * @param doc        The document
+     * @param properties The page properties
+     * @return The key, or null if the document contains an element which
+     * cannot be described
+     */
+    public static String of(Document doc, PageProperties properties) {
+        LayoutKey key = new LayoutKey();
+        key.put(properties);
+        key.put(doc.elements.size());
+        for (IElement element : doc.elements) {
+            if (!(element instanceof Element))
+                return null;
+            key.put(element.getClass().getName());
+            if (!((Element) element).describe(key))
+                return null;
+        }
+        return key.finish();
+    }
+
+    public LayoutKey put(int value) {
+        digest.update((byte) (value >>> 24));
+        digest.update((byte) (value >>> 16));
+        digest.update((byte) (value >>> 8));
+        digest.update((byte) value);
+        return this;
+    }
+
+    public LayoutKey put(float value) {
+        return put(Float.floatToIntBits(value));
+    }
+
+    public LayoutKey put(boolean value) {
+        digest.update((byte) (value ? 1 : 0));
+        return this;
+    }
+
+    public LayoutKey put(Enum<?> value) {
+        return put((value == null) ? -1 : value.ordinal());
+    }
+
+    public LayoutKey put(String value) {
+        if (value == null)
+            return put(-1);
+        put(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            digest.update((byte) (c >>> 8));
+            digest.update((byte) c);
+        }
+        return this;
+    }
+
+    public LayoutKey put(FormattedString value) {
+        put(value.string);
+        TextFormatter formatter = value.formatter;
+        put(formatter.runCount());
+        for (int run = 0; run < formatter.runCount(); run++) {
+            put(formatter.runStart(run));
+            put(formatter.runFormat(run));
+        }
+        return this;
+    }
+
+    public LayoutKey put(TextFormat value) {
+        if (value == null)
+            return put(false);
+        put(true);
+        put(value.font);
+        int decorations = 0;
+        for (DecorationStyle style : value.decorations)
+            decorations |= 1 << style.ordinal();
+        put(decorations);
+        put(value.color != null);
+        if (value.color != null)
+            put(value.color.red).put(value.color.green).put(value.color.blue).put(value.color.alpha);
+        return this;
+    }
+
+    /**
+     * Add a font. The first time a font is added its name, scale, image size
+     * and the metrics of its first {@link IGLFont#MIN_CH} to
+     * {@link IGLFont#MAX_CH} glyphs are added; after that, only its position
+     * in the key. Glyphs past those are loaded as books use them, so they are
+     * left out to keep the key the same while they load.
+     *
+     * @param font The font
+     * @return This key
+     */
+    public LayoutKey put(IGLFont font) {
+        if (font == null)
+            return put(-1);
+        Integer seen = fonts.get(font);
+        if (seen != null)
+            return put(seen);
+        fonts.put(font, fonts.size());
+        put(fonts.size() - 1);
+        put(font.getName());
+        put(font.getScale());
+        put(font.isDistanceField());
+        IGLFontMetrics metric = font.getMetric();
+        put(metric.getFontImageWidth()).put(metric.getFontImageHeight());
+        for (int codepoint = IGLFont.MIN_CH; codepoint <= IGLFont.MAX_CH; codepoint++) {
+            IGLGlyphMetric glyph = metric.glyph(codepoint);
+            if (glyph == null)
+                put(false);
+            else
+                put(true).put(glyph.getWidth()).put(glyph.getHeight()).put(glyph.getAscent());
+        }
+        return this;
+    }
+
+    public LayoutKey put(PageProperties value) {
+        put(value.width).put(value.height).put(value.margin_left).put(value.margin_right);
+        put(value.min_space_size).put(value.min_line_density).put(value.line_height_size).put(value.tab_size);
+        return put(value.headingFormat).put(value.bodyFormat).put(value.linkFormat);
+    }
+
+    /**
+     * Finish the key
+     *
+     * @return The key as a hexadecimal string
+     */
+    public String finish() {
+        StringBuilder result = new StringBuilder(64);
+        for (byte b : digest.digest())
+            result.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        return result.toString();
+    }
+}
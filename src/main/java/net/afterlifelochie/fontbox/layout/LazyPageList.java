@@ -0,0 +1,85 @@
+package net.afterlifelochie.fontbox.layout;
+
+import net.afterlifelochie.fontbox.api.formatting.PageProperties;
+import net.afterlifelochie.fontbox.api.layout.IPage;
+import net.afterlifelochie.fontbox.document.Document;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.AbstractList;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <p>
+ * Read-only list of pages which are decoded from a page file only when they
+ * are asked for. The most recently used pages are kept, up to a bound; any
+ * other page is decoded again the next time it is needed. The page file
+ * itself must already hold every page; nothing is laid out here.
+ * </p>
+ *
+ * @author AfterLifeLochie
+ */
+public class LazyPageList extends AbstractList<IPage> {
+    private final PageCodec.Reader reader;
+    private final Document doc;
+    private final PageProperties properties;
+    private final Map<Integer, IPage> materialized;
+
+    /**
+     * Create a lazy page list
+     *
+     * @param reader     The page file
+     * @param doc        The document to bind elements to, or null
+     * @param properties The page properties
+     * @param maxPages   The most pages to keep decoded at once
+     */
+    public LazyPageList(PageCodec.Reader reader, Document doc, PageProperties properties, final int maxPages) {
+        if (1 > maxPages)
+            throw new IllegalArgumentException("maxPages must be at least 1");
+        this.reader = reader;
+        this.doc = doc;
+        this.properties = properties;
+        this.materialized = new LinkedHashMap<Integer, IPage>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, IPage> eldest) {
+                return size() > maxPages;
+            }
+        };
+    }
+
+    /**
+     * Get a page, decoding it if it is not held
+     *
+     * @param index The page number
+     * @return The page
+     * @throws UncheckedIOException If the page cannot be decoded
+     */
+    @Override
+    public synchronized IPage get(int index) {
+        if (0 > index || index >= size())
+            throw new IndexOutOfBoundsException("Page " + index + " of " + size());
+        IPage page = materialized.get(index);
+        if (page == null) {
+            try {
+                page = reader.page(index, doc, properties);
+            } catch (IOException ioex) {
+                throw new UncheckedIOException(ioex);
+            }
+            materialized.put(index, page);
+        }
+        return page;
+    }
+
+    @Override
+    public int size() {
+        return reader.pageCount();
+    }
+
+    /**
+     * @return the number of pages currently decoded
+     */
+    public synchronized int materializedCount() {
+        return materialized.size();
+    }
+}
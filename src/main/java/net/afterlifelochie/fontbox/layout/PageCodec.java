@@ -0,0 +1,544 @@
+package net.afterlifelochie.fontbox.layout;
+
+import net.afterlifelochie.fontbox.Book;
+import net.afterlifelochie.fontbox.api.FontboxManager;
+import net.afterlifelochie.fontbox.api.data.FormattedString;
+import net.afterlifelochie.fontbox.api.data.IBook;
+import net.afterlifelochie.fontbox.api.data.IBookProperties;
+import net.afterlifelochie.fontbox.api.font.IGLFont;
+import net.afterlifelochie.fontbox.api.formatting.PageProperties;
+import net.afterlifelochie.fontbox.api.formatting.layout.AlignmentMode;
+import net.afterlifelochie.fontbox.api.formatting.layout.FloatMode;
+import net.afterlifelochie.fontbox.api.formatting.style.ColorFormat;
+import net.afterlifelochie.fontbox.api.formatting.style.DecorationStyle;
+import net.afterlifelochie.fontbox.api.formatting.style.TextFormat;
+import net.afterlifelochie.fontbox.api.formatting.style.TextFormatter;
+import net.afterlifelochie.fontbox.api.layout.IElement;
+import net.afterlifelochie.fontbox.api.layout.IPage;
+import net.afterlifelochie.fontbox.api.layout.ObjectBounds;
+import net.afterlifelochie.fontbox.document.Document;
+import net.afterlifelochie.fontbox.document.Element;
+import net.afterlifelochie.fontbox.document.Image;
+import net.afterlifelochie.fontbox.document.Link;
+import net.afterlifelochie.fontbox.layout.components.Line;
+import net.afterlifelochie.fontbox.layout.components.Page;
+import net.minecraft.util.ResourceLocation;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * <p>
+ * Versioned binary encoding of laid out pages. A page file holds the text,
+ * format runs, bounds and spacing of every line, the kind and bounds of every
+ * other element and the anchor index, so a book can be shipped already
+ * paginated and loaded without laying it out again.
+ * </p>
+ * <p>
+ * Files are written a page at a time by a {@link Writer} and read through a
+ * {@link Reader}, which can decode any page on its own from a memory-mapped
+ * file. The layout of a file is:
+ * <ol>
+ * <li>The magic number and format version</li>
+ * <li>Each page in turn</li>
+ * <li>The trailer: the offset of each page, the text formats and the
+ * anchors</li>
+ * <li>The offset of the trailer and the magic number</li>
+ * </ol>
+ * Numbers are written as variable-length integers, so most take one byte.
+ * </p>
+ * <p>
+ * Elements are written with their position in the document which was laid
+ * out, when one is given. When a file is read against a document, lines are
+ * bound back to their elements and other elements are the document's own.
+ * Without a document, lines from links get a new link with the same text and
+ * anchor and images are recreated; any other element needs the document to
+ * be read.
+ * </p>
+ *
+ * @author AfterLifeLochie
+ */
+public class PageCodec {
+    /**
+     * The current version of the format
+     */
+    public static final int VERSION = 3;
+
+    private static final int MAGIC = 0x46424c43; // FBLC
+
+    private static final int LINE = 0;
+    private static final int IMAGE = 1;
+    private static final int ELEMENT = 2;
+
+    private static final int NO_TARGET = 0;
+    private static final int LINK_TARGET = 1;
+
+    /**
+     * Write a whole book
+     *
+     * @param out   The output; it is not closed
+     * @param pages The pages
+     * @param index The page index
+     * @param doc   The document which was laid out, or null
+     * @throws IOException If a page holds an element which cannot be written,
+     *                     or if writing fails
+     */
+    public static void write(OutputStream out, List<? extends IPage> pages, PageIndex index, Document doc) throws IOException {
+        Writer writer = new Writer(out, doc);
+        for (IPage page : pages)
+            writer.page(page);
+        writer.finish(index);
+    }
+
+    /**
+     * Streaming page file writer. Pages are written as they are given; the
+     * trailer is written by {@link #finish(PageIndex)}.
+     */
+    public static class Writer {
+        private final OutputStream out;
+        private final Map<IElement, Integer> elements = new IdentityHashMap<>();
+        private final Map<TextFormat, Integer> formatIds = new IdentityHashMap<>();
+        private final List<TextFormat> formats = new ArrayList<>();
+        private int[] offsets = new int[16];
+        private int pages = 0;
+        private int position = 0;
+        private boolean finished = false;
+
+        /**
+         * Start writing a page file
+         *
+         * @param out The output; it is not closed
+         * @param doc The document which was laid out, or null
+         * @throws IOException If writing fails
+         */
+        public Writer(OutputStream out, Document doc) throws IOException {
+            this.out = new BufferedOutputStream(out);
+            if (doc != null)
+                for (int i = 0; i < doc.elements.size(); i++)
+                    elements.put(doc.elements.get(i), i);
+            writeInt(MAGIC);
+            writeVar(VERSION);
+        }
+
+        /**
+         * Write the next page
+         *
+         * @param page The page
+         * @throws IOException If the page holds an element which cannot be
+         *                     written, or if writing fails
+         */
+        public void page(IPage page) throws IOException {
+            if (finished)
+                throw new IOException("Writer finished!");
+            if (pages == offsets.length)
+                offsets = Arrays.copyOf(offsets, pages * 2);
+            offsets[pages++] = position;
+            int count = 0;
+            for (IElement element : page.allElements())
+                count++;
+            writeVar(count);
+            for (IElement element : page.allElements()) {
+                Integer which = elements.get(element);
+                if (element instanceof Line) {
+                    Line line = (Line) element;
+                    Integer underlying = elements.get(line.underlyingElement);
+                    writeVar(LINE);
+                    writeVar((underlying != null) ? underlying + 1 : 0);
+                    if (line.underlyingElement instanceof Link) {
+                        Link link = (Link) line.underlyingElement;
+                        writeVar(LINK_TARGET);
+                        writeString(link.id);
+                        if (link.text == null)
+                            writeVar(0);
+                        else {
+                            writeVar(1);
+                            writeString(link.text.string);
+                            writeFormatter(link.text.formatter);
+                        }
+                    } else
+                        writeVar(NO_TARGET);
+                    writeBounds(line.bounds());
+                    writeVar(line.space_size);
+                    writeVar(line.line.length);
+                    for (char c : line.line)
+                        writeVar(c);
+                    writeFormatter(line.formatter);
+                } else if (element.getClass() == Image.class && ((Image) element).source != null) {
+                    Image image = (Image) element;
+                    writeVar(IMAGE);
+                    writeVar((which != null) ? which + 1 : 0);
+                    writeBounds(image.bounds());
+                    writeString(image.source.getResourceDomain() + ":" + image.source.getResourcePath());
+                    writeVar(image.align.ordinal());
+                    writeVar(image.floating.ordinal());
+                } else {
+                    if (which == null)
+                        throw new IOException("Cannot write element not in document: " + element);
+                    writeVar(ELEMENT);
+                    writeVar(which + 1);
+                    writeBounds(element.bounds());
+                }
+            }
+        }
+
+        /**
+         * Write the trailer and flush the output. No more pages may be
+         * written.
+         *
+         * @param index The page index
+         * @throws IOException If writing fails
+         */
+        public void finish(PageIndex index) throws IOException {
+            if (finished)
+                throw new IOException("Writer finished!");
+            finished = true;
+            int trailer = position;
+            writeVar(pages);
+            for (int i = 0; i < pages; i++)
+                writeInt(offsets[i]);
+            writeVar(formats.size());
+            for (TextFormat format : formats) {
+                writeString(format.font.getName());
+                int decorations = 0;
+                for (DecorationStyle style : format.decorations)
+                    decorations |= 1 << style.ordinal();
+                writeVar(decorations);
+                if (format.color == null)
+                    writeVar(0);
+                else {
+                    writeVar(1);
+                    writeVar(format.color.red);
+                    writeVar(format.color.green);
+                    writeVar(format.color.blue);
+                    writeVar(format.color.alpha);
+                }
+            }
+            writeVar(index.anchors().size());
+            for (Map.Entry<String, Integer> anchor : index.anchors().entrySet()) {
+                writeString(anchor.getKey());
+                writeVar(anchor.getValue());
+            }
+            writeInt(trailer);
+            writeInt(MAGIC);
+            out.flush();
+        }
+
+        private void writeFormatter(TextFormatter formatter) throws IOException {
+            if (formatter == null) {
+                writeVar(0);
+                return;
+            }
+            writeVar(formatter.runCount() + 1);
+            for (int run = 0; run < formatter.runCount(); run++) {
+                TextFormat format = formatter.runFormat(run);
+                Integer id = formatIds.get(format);
+                if (id == null) {
+                    id = formats.size();
+                    formatIds.put(format, id);
+                    formats.add(format);
+                }
+                writeVar(formatter.runStart(run));
+                writeVar(id);
+            }
+        }
+
+        private void writeBounds(ObjectBounds bounds) throws IOException {
+            writeSigned(bounds.x);
+            writeSigned(bounds.y);
+            writeSigned(bounds.width);
+            writeSigned(bounds.height);
+            writeVar(bounds.floating.ordinal());
+        }
+
+        private void writeString(String value) throws IOException {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVar(bytes.length);
+            out.write(bytes);
+            position += bytes.length;
+        }
+
+        private void writeSigned(int value) throws IOException {
+            writeVar((value << 1) ^ (value >> 31));
+        }
+
+        private void writeVar(int value) throws IOException {
+            while ((value & ~0x7F) != 0) {
+                out.write((value & 0x7F) | 0x80);
+                position++;
+                value >>>= 7;
+            }
+            out.write(value);
+            position++;
+        }
+
+        private void writeInt(int value) throws IOException {
+            out.write(value >>> 24);
+            out.write(value >>> 16);
+            out.write(value >>> 8);
+            out.write(value);
+            position += 4;
+        }
+    }
+
+    /**
+     * Page file reader. The trailer is read when the reader is created; each
+     * page is decoded only when it is asked for, and pages may be decoded from
+     * several threads at once.
+     */
+    public static class Reader {
+        private final ByteBuffer buffer;
+        private final int[] offsets;
+        private final TextFormat[] formats;
+        private final PageIndex index = new PageIndex();
+
+        /**
+         * Open a page file by mapping it into memory
+         *
+         * @param file    The file
+         * @param manager The manager to find fonts on
+         * @return The reader
+         * @throws IOException If the file is not a valid page file, a font it
+         *                     uses is not loaded, or if reading fails
+         */
+        public static Reader map(File file, FontboxManager manager) throws IOException {
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+                return new Reader(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), manager);
+            }
+        }
+
+        /**
+         * Open a page file held in a buffer
+         *
+         * @param buffer  The buffer, from its position to its limit
+         * @param manager The manager to find fonts on
+         * @throws IOException If the buffer is not a valid page file, a font
+         *                     it uses is not loaded, or if reading fails
+         */
+        public Reader(ByteBuffer buffer, FontboxManager manager) throws IOException {
+            this.buffer = buffer.slice().order(ByteOrder.BIG_ENDIAN);
+            try {
+                ByteBuffer in = this.buffer.duplicate();
+                if (in.limit() < 12 || in.getInt(0) != MAGIC || in.getInt(in.limit() - 4) != MAGIC)
+                    throw new IOException("Not a page file");
+                in.position(4);
+                int version = readVar(in);
+                if (version != VERSION)
+                    throw new IOException("Unsupported page file version " + version);
+
+                in.position(in.getInt(in.limit() - 8));
+                offsets = new int[readCount(in)];
+                for (int i = 0; i < offsets.length; i++)
+                    offsets[i] = in.getInt();
+                formats = new TextFormat[readCount(in)];
+                for (int i = 0; i < formats.length; i++) {
+                    String name = readString(in);
+                    IGLFont font = manager.fromName(name);
+                    if (font == null)
+                        throw new IOException("Font not loaded: " + name);
+                    int decorations = readVar(in);
+                    EnumSet<DecorationStyle> styles = EnumSet.noneOf(DecorationStyle.class);
+                    for (DecorationStyle style : DecorationStyle.values())
+                        if ((decorations & (1 << style.ordinal())) != 0)
+                            styles.add(style);
+                    ColorFormat color = null;
+                    if (readVar(in) != 0)
+                        color = new ColorFormat(readVar(in), readVar(in), readVar(in), readVar(in));
+                    formats[i] = new TextFormat(font, styles, color);
+                }
+                for (int i = readCount(in); i > 0; i--)
+                    index.push(readString(in), readVar(in));
+            } catch (RuntimeException e) {
+                throw new IOException("Corrupt page file", e);
+            }
+        }
+
+        /**
+         * @return the number of pages in the file
+         */
+        public int pageCount() {
+            return offsets.length;
+        }
+
+        /**
+         * @return the anchor index of the file
+         */
+        public PageIndex index() {
+            return index;
+        }
+
+        /**
+         * Decode a page
+         *
+         * @param which      The page number
+         * @param doc        The document to bind elements to, or null
+         * @param properties The page properties
+         * @return The page
+         * @throws IOException If the page is not valid, or it holds an element
+         *                     which can only be read with its document
+         */
+        public Page page(int which, Document doc, PageProperties properties) throws IOException {
+            List<Runnable> pushes = new ArrayList<>();
+            Page page = decode(which, doc, properties, pushes);
+            pushes.forEach(Runnable::run);
+            return page;
+        }
+
+        /**
+         * Decode every page. The document's elements are only given their
+         * bounds once every page has been read, so a corrupt page leaves the
+         * document as it was.
+         *
+         * @param doc        The document to bind elements to, or null
+         * @param properties The page properties
+         * @return The pages
+         * @throws IOException If a page cannot be read
+         */
+        public List<Page> pages(Document doc, PageProperties properties) throws IOException {
+            List<Runnable> pushes = new ArrayList<>();
+            List<Page> pages = new ArrayList<>(offsets.length);
+            for (int i = 0; i < offsets.length; i++)
+                pages.add(decode(i, doc, properties, pushes));
+            pushes.forEach(Runnable::run);
+            return pages;
+        }
+
+        /**
+         * Decode a page, leaving the page empty; what must be done to fill it,
+         * including giving the document's elements their bounds, is added to
+         * a list
+         */
+        private Page decode(int which, Document doc, PageProperties properties, List<Runnable> pushes) throws IOException {
+            ByteBuffer in = buffer.duplicate();
+            try {
+                in.position(offsets[which]);
+                Page page = new Page(properties.copy());
+                for (int i = readCount(in); i > 0; i--) {
+                    int kind = readVar(in);
+                    IElement bound = element(doc, readVar(in) - 1);
+                    if (kind == LINE) {
+                        IElement underlying = bound;
+                        int target = readVar(in);
+                        if (target == LINK_TARGET) {
+                            Link link = readLink(in);
+                            if (underlying == null)
+                                underlying = link;
+                        } else if (target != NO_TARGET)
+                            throw new IOException("Unknown line target " + target);
+                        ObjectBounds bounds = readBounds(in);
+                        int spaceSize = readVar(in);
+                        char[] text = new char[readCount(in)];
+                        for (int c = 0; c < text.length; c++)
+                            text[c] = (char) readVar(in);
+                        Line line = new Line(text, readFormatter(in), bounds, spaceSize, underlying);
+                        pushes.add(() -> page.push(line));
+                    } else if (kind == IMAGE) {
+                        ObjectBounds bounds = readBounds(in);
+                        String source = readString(in);
+                        AlignmentMode align = AlignmentMode.values()[readVar(in)];
+                        FloatMode floating = FloatMode.values()[readVar(in)];
+                        Image image = (bound instanceof Image) ? (Image) bound
+                            : new Image(new ResourceLocation(source), bounds.width, bounds.height, align, floating);
+                        pushes.add(() -> {
+                            image.setBounds(bounds);
+                            page.push(image);
+                        });
+                    } else if (kind == ELEMENT) {
+                        if (!(bound instanceof Element))
+                            throw new IOException("Page " + which + " needs its document to be read");
+                        ObjectBounds bounds = readBounds(in);
+                        pushes.add(() -> {
+                            ((Element) bound).setBounds(bounds);
+                            page.push(bound);
+                        });
+                    } else
+                        throw new IOException("Unknown element kind " + kind);
+                }
+                return page;
+            } catch (RuntimeException e) {
+                throw new IOException("Corrupt page " + which, e);
+            }
+        }
+
+        /**
+         * Decode a whole book without its document
+         *
+         * @param properties The book properties
+         * @return The book
+         * @throws IOException If a page cannot be read
+         */
+        public IBook book(IBookProperties properties) throws IOException {
+            return new Book(pages(null, properties.getPageProperties()), index, properties);
+        }
+
+        private IElement element(Document doc, int which) throws IOException {
+            if (which == -1 || doc == null)
+                return null;
+            if (0 > which || which >= doc.elements.size())
+                throw new IOException("Element " + which + " is not in the document");
+            return doc.elements.get(which);
+        }
+
+        private Link readLink(ByteBuffer in) throws IOException {
+            String id = readString(in);
+            if (readVar(in) == 0)
+                return new Link(null, id);
+            FormattedString text = new FormattedString(readString(in));
+            TextFormatter formatter = readFormatter(in);
+            if (formatter != null)
+                for (int run = 0; run < formatter.runCount(); run++)
+                    text.applyFormat(formatter.runFormat(run), formatter.runStart(run));
+            return new Link(text, id);
+        }
+
+        private TextFormatter readFormatter(ByteBuffer in) throws IOException {
+            int runs = readVar(in) - 1;
+            if (runs == -1)
+                return null;
+            TextFormatter formatter = new TextFormatter();
+            for (int run = 0; run < runs; run++) {
+                int start = readVar(in);
+                formatter.addFormatting(start, formats[readVar(in)]);
+            }
+            return formatter;
+        }
+
+        private static ObjectBounds readBounds(ByteBuffer in) {
+            int x = readSigned(in), y = readSigned(in), width = readSigned(in), height = readSigned(in);
+            return new ObjectBounds(x, y, width, height, FloatMode.values()[readVar(in)]);
+        }
+
+        private static String readString(ByteBuffer in) throws IOException {
+            byte[] bytes = new byte[readCount(in)];
+            in.get(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        private static int readCount(ByteBuffer in) throws IOException {
+            int count = readVar(in);
+            if (0 > count || count > in.remaining())
+                throw new IOException("Bad count " + count);
+            return count;
+        }
+
+        private static int readSigned(ByteBuffer in) {
+            int value = readVar(in);
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        private static int readVar(ByteBuffer in) {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                byte b = in.get();
+                value |= (b & 0x7F) << shift;
+                if (b >= 0)
+                    return value;
+            }
+            throw new IllegalStateException("Malformed number");
+        }
+    }
+}
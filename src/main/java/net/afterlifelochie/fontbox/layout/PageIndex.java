@@ -2,7 +2,9 @@ package net.afterlifelochie.fontbox.layout;
 
 import net.afterlifelochie.fontbox.api.layout.IPageIndex;
 
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Map;
 
 public class PageIndex implements IPageIndex {
     private final HashMap<String, Integer> ids;
@@ -21,4 +23,25 @@ public class PageIndex implements IPageIndex {
         return (ids.containsKey(id)) ? ids.get(id) : -1;
     }
 
+    /**
+     * Get every anchor in the index
+     *
+     * @return A read-only map of anchor ids to pages
+     */
+    public Map<String, Integer> anchors() {
+        return Collections.unmodifiableMap(ids);
+    }
+
+    /**
+     * Push every anchor from another index, moved down by a number of pages.
+     * Anchors in the other index replace anchors with the same id.
+     *
+     * @param other  The other index
+     * @param offset The number of pages to add to each anchor
+     */
+    public void merge(PageIndex other, int offset) {
+        for (Map.Entry<String, Integer> id : other.ids.entrySet())
+            ids.put(id.getKey(), id.getValue() + offset);
+    }
+
 }
@@ -12,6 +12,7 @@ import net.afterlifelochie.io.IntegerExclusionStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 @SuppressWarnings("unchecked")
 public class PageWriter implements IPageWriter {
@@ -23,6 +24,9 @@ public class PageWriter implements IPageWriter {
     private PageIndex index;
     private boolean closed = false;
     private int ptr = 0;
+    private Consumer<? super IPage> listener;
+    private int published = 0;
+    private boolean retainPages = true;
 
     public PageWriter(PageProperties attributes, FontboxManager manager) {
         this.attributes = attributes;
@@ -30,10 +34,56 @@ public class PageWriter implements IPageWriter {
         this.index = new PageIndex();
     }
 
+    /**
+     * <p>
+     * Set a listener to be given each page once it is finished. A page is
+     * finished when the writer has moved past it, or when the writer is
+     * closed; pages are published in order, on the thread doing the writing.
+     * </p>
+     * <p>
+     * Layout never seeks backwards, so a published page is not modified
+     * again unless {@link #previous()} is used after publishing.
+     * </p>
+     *
+     * @param listener The listener, or null to publish nothing
+     */
+    public void setPageListener(Consumer<? super IPage> listener) {
+        synchronized (lock) {
+            this.listener = listener;
+        }
+    }
+
+    /**
+     * Set whether pages are kept once they have been published. When they
+     * are not, each page is dropped as soon as the page listener has been
+     * given it, so only the page being written is held in memory;
+     * {@link #pages()} then holds null in place of every dropped page.
+     *
+     * @param retainPages If published pages are kept
+     */
+    public void setRetainPages(boolean retainPages) {
+        synchronized (lock) {
+            this.retainPages = retainPages;
+        }
+    }
+
+    private void publish(int upTo) {
+        if (listener != null)
+            while (published < upTo) {
+                listener.accept(pages.get(published));
+                if (!retainPages) {
+                    pages.set(published, null);
+                    cursors.set(published, null);
+                }
+                published++;
+            }
+    }
+
     @Override
     public void close() {
         synchronized (lock) {
             closed = true;
+            publish(pages.size());
         }
     }
 
@@ -49,6 +99,8 @@ public class PageWriter implements IPageWriter {
         synchronized (lock) {
             checkOpen();
             seek(-1);
+            if (pages.get(ptr) == null)
+                throw new IOException("Page " + ptr + " has been released!");
             return pages.get(ptr);
         }
     }
@@ -58,6 +110,7 @@ public class PageWriter implements IPageWriter {
         synchronized (lock) {
             checkOpen();
             seek(1);
+            publish(ptr);
             return pages.get(ptr);
         }
     }
@@ -90,20 +143,12 @@ public class PageWriter implements IPageWriter {
             currentPage.push(element);
 
             PageCursor current = cursor();
-            for (IElement e : currentPage.allElements()) {
-                if (e.bounds().floating())
-                    continue;
-                ObjectBounds bb = e.bounds();
-                if (bb.y + bb.height + 1 > current.y())
-                    current.top(bb.y + bb.height + 1);
-            }
+            int bottom = currentPage.flowBottom();
+            if (bottom != Integer.MIN_VALUE && bottom + 1 > current.y())
+                current.top(bottom + 1);
 
             IntegerExclusionStream window = new IntegerExclusionStream(0, currentPage.width);
-            for (IElement e : currentPage.allElements()) {
-                ObjectBounds bb = e.bounds();
-                if (current.y() >= bb.y && bb.y + bb.height >= current.y())
-                    window.excludeRange(0, bb.x + bb.width);
-            }
+            currentPage.forEachCrossing(current.y(), e -> window.excludeRange(0, e.bounds().x + e.bounds().width));
             current.left(window.largest());
 
             manager.tracer().trace("PageWriter.write", "pushCursor", current);
@@ -112,6 +157,45 @@ public class PageWriter implements IPageWriter {
         }
     }
 
+    /**
+     * Create an empty writer with the same page properties and manager, for
+     * laying out a segment of a document to {@link #append(PageWriter)} later.
+     *
+     * @return The new writer
+     */
+    PageWriter fork() {
+        return new PageWriter(attributes, manager);
+    }
+
+    /**
+     * <p>
+     * Append the pages of a segment writer as if a page break had been
+     * written and the segment laid out after it. Anchors in the segment are
+     * moved to the pages they now occupy and the writer is left on the last
+     * page of the segment.
+     * </p>
+     * <p>
+     * The segment must not be written to afterwards.
+     * </p>
+     *
+     * @param segment The writer the segment was laid out on
+     * @throws IOException If this writer is closed or has been moved back
+     *                     from its last page
+     */
+    void append(PageWriter segment) throws IOException {
+        synchronized (lock) {
+            checkOpen();
+            if (pages.size() != 0 && ptr != pages.size() - 1)
+                throw new IOException("Cannot append behind the last page!");
+            int offset = pages.size();
+            pages.addAll(segment.pages);
+            cursors.addAll(segment.cursors);
+            index.merge(segment.index, offset);
+            ptr = offset + segment.ptr;
+            publish(ptr);
+        }
+    }
+
     @Override
     public PageCursor cursor() throws IOException {
         synchronized (lock) {
@@ -0,0 +1,103 @@
+package net.afterlifelochie.fontbox.layout.components;
+
+import net.afterlifelochie.fontbox.api.layout.IElement;
+import net.afterlifelochie.fontbox.api.layout.ObjectBounds;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Spatial index of elements on a page. The page is cut into horizontal bands
+ * of a fixed height and every element is listed in each band its bounds cover,
+ * so queries only have to look at the elements near the point or box being
+ * tested. Within a band, elements are kept in the order they were added.
+ * Elements must not change their bounds once they have been added.
+ *
+ * @author AfterLifeLochie
+ */
+class ElementIndex {
+    /**
+     * The height of each band
+     */
+    static final int BAND_SIZE = 32;
+
+    private final IElement[][] bands;
+    private final int[] sizes;
+
+    /**
+     * Create an index for a page of a given height
+     *
+     * @param height The height of the page
+     */
+    ElementIndex(int height) {
+        int count = Math.max(1, height / BAND_SIZE + 1);
+        bands = new IElement[count][];
+        sizes = new int[count];
+    }
+
+    private int band(int y) {
+        return Math.max(0, Math.min(bands.length - 1, Math.floorDiv(y, BAND_SIZE)));
+    }
+
+    /**
+     * Add an element to the index. Elements without bounds are ignored.
+     *
+     * @param element The element
+     */
+    void add(IElement element) {
+        ObjectBounds bb = element.bounds();
+        if (bb == null)
+            return;
+        for (int b = band(bb.y), last = band(bb.y + bb.height); b <= last; b++) {
+            if (bands[b] == null)
+                bands[b] = new IElement[8];
+            else if (sizes[b] == bands[b].length)
+                bands[b] = Arrays.copyOf(bands[b], sizes[b] * 2);
+            bands[b][sizes[b]++] = element;
+        }
+    }
+
+    /**
+     * Find an element which intersects a bounding box
+     *
+     * @param bounds The bounding box
+     * @return An intersecting element, or null
+     */
+    IElement intersecting(ObjectBounds bounds) {
+        for (int b = band(bounds.y), last = band(bounds.y + bounds.height); b <= last; b++)
+            for (int i = 0; i < sizes[b]; i++)
+                if (bands[b][i].bounds().intersects(bounds))
+                    return bands[b][i];
+        return null;
+    }
+
+    /**
+     * Find the first element added which encloses a point
+     *
+     * @param x The x-coordinate
+     * @param y The y-coordinate
+     * @return The enclosing element, or null
+     */
+    IElement enclosing(int x, int y) {
+        int b = band(y);
+        for (int i = 0; i < sizes[b]; i++)
+            if (bands[b][i].bounds().encloses(x, y))
+                return bands[b][i];
+        return null;
+    }
+
+    /**
+     * Visit every element whose vertical extent includes a y-coordinate
+     *
+     * @param y      The y-coordinate
+     * @param action The action to perform on each element
+     */
+    void crossing(int y, Consumer<IElement> action) {
+        int b = band(y);
+        for (int i = 0; i < sizes[b]; i++) {
+            ObjectBounds bb = bands[b][i].bounds();
+            if (y >= bb.y && bb.y + bb.height >= y)
+                action.accept(bands[b][i]);
+        }
+    }
+}
@@ -11,16 +11,13 @@ import net.afterlifelochie.fontbox.api.layout.IElement;
 import net.afterlifelochie.fontbox.api.layout.IIndexed;
 import net.afterlifelochie.fontbox.api.layout.IPageWriter;
 import net.afterlifelochie.fontbox.api.layout.ObjectBounds;
+import net.afterlifelochie.fontbox.api.render.IRenderBackend;
 import net.afterlifelochie.fontbox.api.tracer.ITracer;
 import net.afterlifelochie.fontbox.document.Element;
 import net.afterlifelochie.fontbox.render.GLUtils;
+import net.afterlifelochie.fontbox.render.GlyphBatch;
 import net.afterlifelochie.fontbox.render.RenderException;
 import net.minecraft.client.gui.GuiScreen;
-import net.minecraft.client.renderer.GlStateManager;
-import net.minecraft.client.renderer.Tessellator;
-import net.minecraft.client.renderer.VertexBuffer;
-import net.minecraft.client.renderer.vertex.DefaultVertexFormats;
-import org.lwjgl.opengl.GL11;
 
 import java.io.IOException;
 
@@ -98,54 +95,91 @@ public class Line extends Element {
         return true;
     }
 
-    private void safeSwitchToFont(IGLFont font) throws RenderException {
+    /**
+     * Shared geometry batch; lines are only ever rendered on the render thread
+     */
+    private static final GlyphBatch batch = new GlyphBatch();
+
+    private void checkFont(IGLFont font) throws RenderException {
         if (font.getTextureId() == -1)
             throw new RenderException("Font object not loaded!");
         IGLFontMetrics metric = font.getMetric();
         if (metric == null)
             throw new RenderException("Font object not loaded!");
-        GlStateManager.bindTexture(font.getTextureId());
-        GlStateManager.scale(font.getScale(), font.getScale(), 1.0f);
     }
 
     @Override
-    public void render(GuiScreen gui, int mx, int my, float frame) throws RenderException {
+    public void render(IRenderBackend backend, GuiScreen gui, int mx, int my, float frame) throws RenderException {
+        if (line.length == 0)
+            return;
+        batch.clear();
+        tessellate(batch);
+
+        backend.pushMatrix();
+        backend.enableBlend();
+        GLUtils.drawGlyphBatch(backend, batch, bounds().x, bounds().y);
+        backend.disableBlend();
+        backend.popMatrix();
+    }
+
+    @Override
+    public boolean bake(GlyphBatch batch) throws RenderException {
+        tessellate(batch, true);
+        return true;
+    }
+
+    /**
+     * Generate the geometry of the line into a batch. Coordinates are relative
+     * to the line origin, in the units of each glyph's font; a new batch
+     * segment is started whenever the font or atlas page changes.
+     *
+     * @param batch The batch to write to
+     * @throws RenderException When a font on the line is not loaded
+     */
+    public void tessellate(GlyphBatch batch) throws RenderException {
+        tessellate(batch, false);
+    }
+
+    /**
+     * @param onPage If coordinates are relative to the page and scaled by each
+     *               glyph's font, rather than relative to the line origin
+     */
+    private void tessellate(GlyphBatch batch, boolean onPage) throws RenderException {
         float x = 0, y = 0;
         if (line.length == 0)
             return;
-        GlStateManager.pushMatrix();
-        GlStateManager.enableBlend();
-        GlStateManager.blendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
 
         TextFormat decorator = formatter.getFormat(0);
-        GlStateManager.pushMatrix();
-        safeSwitchToFont(decorator.font);
-        GlStateManager.translate(bounds().x, bounds().y, 0);
+        int run = formatter.runAt(0);
+        int nextRun = formatter.runStart(run + 1);
+        checkFont(decorator.font);
+        batch.font(decorator.font);
 
         for (int i = 0; i < line.length; i++) {
             char c = line[i];
             if (c != ' ') {
-                TextFormat newDecorator = formatter.getFormat(i);
+                while (i >= nextRun)
+                    nextRun = formatter.runStart(++run + 1);
+                TextFormat newDecorator = formatter.runFormat(run);
                 if (newDecorator != null && !newDecorator.equals(decorator)) {
-                    if (newDecorator.font != decorator.font) {
-                        GlStateManager.popMatrix();
-                        GlStateManager.pushMatrix();
-                        safeSwitchToFont(newDecorator.font);
-                        GlStateManager.translate(bounds().x, bounds().y, 0);
-                    }
+                    if (newDecorator.font != decorator.font)
+                        checkFont(newDecorator.font);
                     decorator = newDecorator;
                 }
 
                 IGLFontMetrics metric = decorator.font.getMetric();
-                IGLGlyphMetric glyph = metric.getGlyphs().get((int) c);
+                IGLGlyphMetric glyph = metric.glyph(c);
                 if (glyph == null) // blank glyph?
                     continue;
-
-                if (decorator.color == null)
-                    GlStateManager.color(0.0f, 0.0f, 0.0f, 1.0f);
-                else
-                    GlStateManager.color(decorator.color.redF(), decorator.color.greenF(), decorator.color.blueF(),
-                        decorator.color.alphaF());
+                batch.font(decorator.font, glyph.getPage());
+
+                float r = 0.0f, g = 0.0f, b = 0.0f, a = 1.0f;
+                if (decorator.color != null) {
+                    r = decorator.color.redF();
+                    g = decorator.color.greenF();
+                    b = decorator.color.blueF();
+                    a = decorator.color.alphaF();
+                }
 
                 float tiltTop = 0.0f, tiltBottom = 0.0f;
                 if (decorator.decorations.contains(DecorationStyle.ITALIC)) {
@@ -154,41 +188,47 @@ public class Line extends Element {
                 }
 
                 boolean underline = decorator.decorations.contains(DecorationStyle.UNDERLINE);
-                renderGlyphInPlace(metric, glyph, x, y, tiltTop, tiltBottom, underline);
+                float ox = 0, oy = 0, scale = 1;
+                if (onPage) {
+                    ox = bounds().x;
+                    oy = bounds().y;
+                    scale = decorator.font.getScale();
+                }
+                tessellateGlyph(batch, metric, glyph, ox, oy, scale, x, y, tiltTop, tiltBottom, underline, r, g, b, a);
                 if (decorator.decorations.contains(DecorationStyle.BOLD))
-                    renderGlyphInPlace(metric, glyph, x + 0.5f, y + 0.5f, tiltTop, tiltBottom, underline);
+                    tessellateGlyph(batch, metric, glyph, ox, oy, scale, x + 0.5f, y + 0.5f, tiltTop, tiltBottom,
+                        underline, r, g, b, a);
 
                 x += glyph.getWidth();
             } else
                 x += space_size;
         }
-
-        GlStateManager.popMatrix();
-
-        GlStateManager.disableBlend();
-        GlStateManager.popMatrix();
     }
 
-    private void renderGlyphInPlace(IGLFontMetrics metric, IGLGlyphMetric glyph, float x, float y, float tiltTop, float tiltBottom, boolean underline) {
-        final double z = 1.0;
-        double u = glyph.getUx() / metric.getFontImageWidth();
-        double v = (glyph.getVy() - glyph.getAscent()) / metric.getFontImageHeight();
-        double us = glyph.getWidth() / metric.getFontImageWidth();
-        double vs = glyph.getHeight() / metric.getFontImageHeight();
-
-        Tessellator tessellator = Tessellator.getInstance();
-        VertexBuffer buffer = tessellator.getBuffer();
-        buffer.begin(GL11.GL_QUADS, DefaultVertexFormats.POSITION_TEX);
-
-        buffer.pos(x + tiltTop, y + glyph.getHeight(), z).tex(u, v + vs).endVertex();
-        buffer.pos(x + tiltTop + glyph.getWidth(), y + glyph.getHeight(), z).tex(u + us, v + vs).endVertex();
-        buffer.pos(x + tiltBottom + glyph.getWidth(), y, z).tex(u + us, v).endVertex();
-        buffer.pos(x + tiltBottom, y, z).tex(u, v).endVertex();
-
-        tessellator.draw();
-
-        if (underline)
-            GLUtils.drawLine(x, y + glyph.getHeight() * 0.75, x + glyph.getWidth() + tiltBottom, y + glyph.getHeight() * 0.75, z);
+    private void tessellateGlyph(GlyphBatch batch, IGLFontMetrics metric, IGLGlyphMetric glyph, float ox, float oy,
+                                 float scale, float x, float y, float tiltTop, float tiltBottom, boolean underline,
+                                 float r, float g, float b, float a) {
+        final float z = 1.0f;
+        float pw = metric.getPageWidth(glyph.getPage()), ph = metric.getPageHeight(glyph.getPage());
+        float u = glyph.getUx() / pw;
+        float v = (glyph.getVy() - glyph.getTextureAscent()) / ph;
+        float us = glyph.getTextureWidth() / pw;
+        float vs = glyph.getTextureHeight() / ph;
+
+        float left = (ox + x) * scale, top = (oy + y) * scale, bottom = (oy + y + glyph.getHeight()) * scale;
+        float width = glyph.getWidth() * scale;
+        tiltTop *= scale;
+        tiltBottom *= scale;
+
+        batch.vertex(left + tiltTop, bottom, z, u, v + vs, r, g, b, a);
+        batch.vertex(left + tiltTop + width, bottom, z, u + us, v + vs, r, g, b, a);
+        batch.vertex(left + tiltBottom + width, top, z, u + us, v, r, g, b, a);
+        batch.vertex(left + tiltBottom, top, z, u, v, r, g, b, a);
+
+        if (underline) {
+            float under = (oy + y + glyph.getHeight() * 0.75f) * scale;
+            batch.line(left, under, left + width + tiltBottom, under, z, r, g, b, a);
+        }
     }
 
     @Override
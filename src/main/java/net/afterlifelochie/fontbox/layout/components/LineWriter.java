@@ -10,6 +10,7 @@ import net.afterlifelochie.fontbox.api.layout.*;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 public class LineWriter implements ILineWriter {
@@ -30,6 +31,20 @@ public class LineWriter implements ILineWriter {
      * The formatter for the text
      */
     private final TextFormatter formatter;
+    /**
+     * The total width of the words on the stack, up to and including each word
+     */
+    private int[] widthTo;
+    /**
+     * The largest ascent of the words on the stack, up to and including each
+     * word
+     */
+    private int[] ascentTo;
+    /**
+     * The number of characters (including the trailing space) on the stack, up
+     * to and including each word
+     */
+    private int[] lengthTo;
     /**
      * The current computed bounds of the stack's words
      */
@@ -60,38 +75,74 @@ public class LineWriter implements ILineWriter {
         this.writer = writer;
         this.alignment = alignment;
         this.words = new ArrayList<>();
+        this.widthTo = new int[16];
+        this.ascentTo = new int[16];
+        this.lengthTo = new int[16];
         this.formatter = formatter;
         this.underlyingElement = underlyingElement;
     }
 
-    private void update(boolean ignoreInvalidSymbols) throws LayoutException, IOException {
-        int width = 0, height = 0;
-
-        IPage page = writer.current();
-
-        int offset = lineOffset;
-        int wordsWidth = 0;
-        for (String word : words) {
-            char[] chars = word.toCharArray();
-            for (char cz : chars) {
-                TextFormat format = formatter.getFormat(offset);
-                IGLGlyphMetric cm = format.font.getMetric().getGlyphs().get((int) cz);
-                if (cm == null) {
-                    if (ignoreInvalidSymbols) {
-                        cm = format.font.getMetric().getGlyphs().get((int) '?');
-                    } else {
-                        throw new LayoutException(String.format("Glyph %s not supported by font %s.", cz, format.font.getName()));
-                    }
-                }
-                wordsWidth += cm.getWidth();
-                if (cm.getAscent() > height) {
-                    height = cm.getAscent();
+    /**
+     * Measure a word and store the running totals for it at a position on the
+     * stack. Only the glyphs of the word itself are looked up; the totals of
+     * the words before it are reused.
+     *
+     * @param word                 The word to measure
+     * @param which                The position of the word on the stack
+     * @param ignoreInvalidSymbols don't throw exceptions for unsupported symbols
+     * @throws LayoutException When a glyph is not supported by the font
+     */
+    private void measure(String word, int which, boolean ignoreInvalidSymbols) throws LayoutException {
+        if (which == widthTo.length) {
+            widthTo = Arrays.copyOf(widthTo, which * 2);
+            ascentTo = Arrays.copyOf(ascentTo, which * 2);
+            lengthTo = Arrays.copyOf(lengthTo, which * 2);
+        }
+        int width = (which == 0) ? 0 : widthTo[which - 1];
+        int height = (which == 0) ? 0 : ascentTo[which - 1];
+        int offset = lineOffset + ((which == 0) ? 0 : lengthTo[which - 1]);
+
+        int run = formatter.runAt(offset);
+        int nextRun = formatter.runStart(run + 1);
+        TextFormat format = formatter.runFormat(run);
+        for (int i = 0; i < word.length(); i++, offset++) {
+            while (offset >= nextRun) {
+                format = formatter.runFormat(++run);
+                nextRun = formatter.runStart(run + 1);
+            }
+            char cz = word.charAt(i);
+            IGLGlyphMetric cm = format.font.getMetric().glyph(cz);
+            if (cm == null) {
+                if (ignoreInvalidSymbols) {
+                    cm = format.font.getMetric().glyph('?');
+                } else {
+                    throw new LayoutException(String.format("Glyph %s not supported by font %s.", cz, format.font.getName()));
                 }
-                offset++;
             }
-            offset++;
+            width += cm.getWidth();
+            if (cm.getAscent() > height) {
+                height = cm.getAscent();
+            }
         }
 
+        widthTo[which] = width;
+        ascentTo[which] = height;
+        lengthTo[which] = offset - lineOffset + 1;
+    }
+
+    /**
+     * Recompute the bounds of the stack from the running totals.
+     *
+     * @throws IOException Any exception which occurs when reading from the page
+     *                     writing stream underlying this writer
+     */
+    private void update() throws IOException {
+        IPage page = writer.current();
+
+        int count = words.size();
+        int wordsWidth = (count == 0) ? 0 : widthTo[count - 1];
+        int height = (count == 0) ? 0 : ascentTo[count - 1];
+
         int blankWidth = page.getWidth() - page.getProperties().margin_left - page.getProperties().margin_right - wordsWidth;
         spaceSize = page.getProperties().min_space_size;
         int x = writer.cursor().x(), y = writer.cursor().y();
@@ -103,8 +154,8 @@ public class LineWriter implements ILineWriter {
                 break;
             case JUSTIFY:
                 float density = (float) wordsWidth / (float) page.getWidth();
-                if (density >= page.getProperties().min_line_density) {
-                    int extra_px_per_space = (int) Math.floor(blankWidth / words.size());
+                if (count > 0 && density >= page.getProperties().min_line_density) {
+                    int extra_px_per_space = (int) Math.floor(blankWidth / count);
                     if (extra_px_per_space > page.getProperties().min_space_size)
                         spaceSize = extra_px_per_space;
                 }
@@ -117,7 +168,7 @@ public class LineWriter implements ILineWriter {
                 break;
         }
 
-        width = wordsWidth + Math.max(words.size() - 2, 0) * spaceSize;
+        int width = wordsWidth + Math.max(count - 2, 0) * spaceSize;
         bounds = new ObjectBounds(x, y, width, Math.max(height, page.getProperties().line_height_size), FloatMode.NONE);
     }
 
@@ -130,9 +181,7 @@ public class LineWriter implements ILineWriter {
             if (i < this.words.size() - 1)
                 words.append(" ");
         }
-        int offset = 0;
-        for (String word : this.words)
-            offset += word.length() + 1;
+        int offset = (this.words.size() == 0) ? 0 : lengthTo[this.words.size() - 1];
         Line what = new Line(words.toString().toCharArray(), formatter.getFormatter(lineOffset, offset), bounds, spaceSize, underlyingElement);
         bounds = null;
         spaceSize = 0;
@@ -148,8 +197,9 @@ public class LineWriter implements ILineWriter {
 
     @Override
     public void push(String word, boolean ignoreInvalidSymbols) throws LayoutException, IOException {
+        measure(word, words.size(), ignoreInvalidSymbols);
         words.add(word);
-        update(ignoreInvalidSymbols);
+        update();
     }
 
 
@@ -157,13 +207,15 @@ public class LineWriter implements ILineWriter {
     public String pop(boolean ignoreInvalidSymbols) throws LayoutException, IOException {
         String word = words.remove(words.size() - 1);
 
-        int offset = 0;
-        for (String wd : words)
-            offset += wd.length() + 1;
-
+        int offset = (words.size() == 0) ? 0 : lengthTo[words.size() - 1];
+        int runs = formatter.runCount();
         formatter.cleanAfter(offset);
+        // Dropped formats may have applied to words still on the stack
+        if (formatter.runCount() != runs)
+            for (int i = 0; i < words.size(); i++)
+                measure(words.get(i), i, ignoreInvalidSymbols);
 
-        update(ignoreInvalidSymbols);
+        update();
         return word;
     }
 
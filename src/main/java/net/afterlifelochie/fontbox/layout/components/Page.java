@@ -5,7 +5,12 @@ import net.afterlifelochie.fontbox.api.layout.IElement;
 import net.afterlifelochie.fontbox.api.layout.IPage;
 import net.afterlifelochie.fontbox.api.layout.ObjectBounds;
 
+import java.util.AbstractList;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * One whole page containing a collection of spaced lines with line-heights and
@@ -22,11 +27,52 @@ public class Page extends Container implements IPage {
     /**
      * The list of static elements on the page
      */
-    private ArrayList<IElement> staticElements = new ArrayList<>();
+    private final ArrayList<IElement> staticElements = new ArrayList<>();
     /**
      * The list of dynamic elements on the page
      */
-    private ArrayList<IElement> dynamicElements = new ArrayList<>();
+    private final ArrayList<IElement> dynamicElements = new ArrayList<>();
+    /**
+     * Read-only views of the element lists; elements are only added through
+     * {@link #push(IElement)}, which keeps the indexes up to date
+     */
+    private final List<IElement> staticView = Collections.unmodifiableList(staticElements);
+    private final List<IElement> dynamicView = Collections.unmodifiableList(dynamicElements);
+    /**
+     * The spatial index of the static elements on the page
+     */
+    private final ElementIndex staticIndex;
+    /**
+     * The spatial index of the dynamic elements on the page
+     */
+    private final ElementIndex dynamicIndex;
+    /**
+     * Live view of the static elements followed by the dynamic elements
+     */
+    private final List<IElement> allElements = new AbstractList<IElement>() {
+        @Override
+        public IElement get(int index) {
+            int statics = staticElements.size();
+            return (index < statics) ? staticElements.get(index) : dynamicElements.get(index - statics);
+        }
+
+        @Override
+        public int size() {
+            return staticElements.size() + dynamicElements.size();
+        }
+    };
+    /**
+     * The lowest bottom edge of all non-floating elements on the page
+     */
+    private int flowBottom = Integer.MIN_VALUE;
+    /**
+     * The static element with the lowest bottom edge
+     */
+    private IElement lowestStatic;
+    /**
+     * The dynamic element with the lowest bottom edge
+     */
+    private IElement lowestDynamic;
 
     /**
      * Initialize a new Page with a specified set of page layout properties.
@@ -36,35 +82,45 @@ public class Page extends Container implements IPage {
     public Page(PageProperties properties) {
         super(properties.width, properties.height);
         this.properties = properties;
+        this.staticIndex = new ElementIndex(properties.height);
+        this.dynamicIndex = new ElementIndex(properties.height);
     }
 
     public PageProperties getProperties() {
         return properties;
     }
 
+    /**
+     * Get a live view of all elements on the page; static elements come
+     * before dynamic elements. No copy of the elements is made.
+     *
+     * @return The list of all elements on the page
+     */
     public Iterable<IElement> allElements() {
-        ArrayList<IElement> all = new ArrayList<>();
-        all.addAll(staticElements);
-        all.addAll(dynamicElements);
-        return all;
+        return allElements;
+    }
+
+    @Override
+    public Iterator<IElement> iterator() {
+        return allElements.iterator();
     }
 
     /**
-     * Get a list of all static elements on the page
+     * Get a read-only view of all static elements on the page
      *
      * @return The list of static elements on the page
      */
-    public Iterable<IElement> staticElements() {
-        return staticElements;
+    public List<IElement> staticElements() {
+        return staticView;
     }
 
     /**
-     * Get a list of all dynamic elements on the page
+     * Get a read-only view of all dynamic elements on the page
      *
      * @return The list of dynamic elements on the page
      */
-    public Iterable<IElement> dynamicElements() {
-        return dynamicElements;
+    public List<IElement> dynamicElements() {
+        return dynamicView;
     }
 
     /**
@@ -73,10 +129,44 @@ public class Page extends Container implements IPage {
      * @param element The element to push
      */
     public void push(IElement element) {
-        if (!element.canCompileRender())
+        if (!element.canCompileRender()) {
             dynamicElements.add(element);
-        else
+            dynamicIndex.add(element);
+            if (lowerThan(element, lowestDynamic))
+                lowestDynamic = element;
+        } else {
             staticElements.add(element);
+            staticIndex.add(element);
+            if (lowerThan(element, lowestStatic))
+                lowestStatic = element;
+        }
+        ObjectBounds bb = element.bounds();
+        if (bb != null && !bb.floating() && bb.y + bb.height > flowBottom)
+            flowBottom = bb.y + bb.height;
+    }
+
+    private static boolean lowerThan(IElement element, IElement lowest) {
+        ObjectBounds bb = element.bounds();
+        if (bb == null || bb.y + bb.height <= 0)
+            return false;
+        return lowest == null || bb.y + bb.height > lowest.bounds().y + lowest.bounds().height;
+    }
+
+    /**
+     * Get the lowest bottom edge of the non-floating elements on the page.
+     *
+     * @return The bottom edge, or {@link Integer#MIN_VALUE} if there are no
+     * non-floating elements on the page
+     */
+    public int flowBottom() {
+        return flowBottom;
+    }
+
+    @Override
+    public IElement lowestElement() {
+        if (lowestDynamic != null && lowerThan(lowestDynamic, lowestStatic))
+            return lowestDynamic;
+        return lowestStatic;
     }
 
     /**
@@ -88,10 +178,25 @@ public class Page extends Container implements IPage {
      * @return If an intersection occurs
      */
     public IElement intersectsElement(ObjectBounds bounds) {
-        for (IElement element : staticElements)
-            if (element.bounds() != null && element.bounds().intersects(bounds))
-                return element;
-        return null;
+        return staticIndex.intersecting(bounds);
+    }
+
+    @Override
+    public IElement elementAt(int x, int y) {
+        IElement element = staticIndex.enclosing(x, y);
+        return (element != null) ? element : dynamicIndex.enclosing(x, y);
+    }
+
+    /**
+     * Visit every element on the page whose vertical extent includes a
+     * y-coordinate.
+     *
+     * @param y      The y-coordinate
+     * @param action The action to perform on each element
+     */
+    public void forEachCrossing(int y, Consumer<IElement> action) {
+        staticIndex.crossing(y, action);
+        dynamicIndex.crossing(y, action);
     }
 
     /**
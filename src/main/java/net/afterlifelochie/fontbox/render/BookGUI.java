@@ -7,21 +7,17 @@ import net.afterlifelochie.fontbox.api.formatting.layout.Layout;
 import net.afterlifelochie.fontbox.api.layout.IElement;
 import net.afterlifelochie.fontbox.api.layout.IPage;
 import net.afterlifelochie.fontbox.api.layout.IPageIndex;
+import net.afterlifelochie.fontbox.api.render.IRenderBackend;
 import net.afterlifelochie.fontbox.api.tracer.ITracer;
 import net.afterlifelochie.fontbox.layout.DocumentProcessor;
 import net.minecraft.client.gui.GuiScreen;
-import net.minecraft.client.renderer.GlStateManager;
-import net.minecraft.util.Tuple;
 import net.minecraft.util.math.MathHelper;
 import org.lwjgl.input.Keyboard;
 import org.lwjgl.input.Mouse;
-import org.lwjgl.opengl.GL11;
-import org.lwjgl.opengl.OpenGLException;
-import org.lwjgl.opengl.Util;
 
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Executor;
 
 public class BookGUI extends GuiScreen implements IIndexed {
     /**
@@ -30,9 +26,10 @@ public class BookGUI extends GuiScreen implements IIndexed {
     private final PageMode mode;
 
     /**
-     * The list of pages
+     * The list of pages, and how many it held when it was last given
      */
     private List<? extends IPage> pages;
+    private int pageCount;
     /**
      * The data index
      */
@@ -41,23 +38,32 @@ public class BookGUI extends GuiScreen implements IIndexed {
      * The current page pointer
      */
     private int ptr = 0;
+    /**
+     * The pages of the current spread, and how many there are
+     */
+    private final IPage[] spread;
+    private int spreadSize;
 
     /**
-     * The current opengl display list state
+     * The current opengl page buffer state
      */
-    private boolean useDisplayList = false;
+    private boolean useBuffers = false;
     /**
-     * The current opengl buffer list
+     * The page buffers of the current spread and the spreads either side
      */
-    private int[] glDisplayLists;
+    private PageCache pageCache;
     /**
-     * The current buffer dirty state
+     * The display lists of the dynamic elements on the screen
      */
-    private boolean glBufferDirty[];
+    private FrameScheduler scheduler;
     /**
      * The underlying bookProperties properties
      */
     private final IBookProperties bookProperties;
+    /**
+     * The backend everything is drawn with
+     */
+    private final IRenderBackend backend;
 
     private int guiLeft, guiTop;
 
@@ -71,14 +77,31 @@ public class BookGUI extends GuiScreen implements IIndexed {
      * @param bookProperties The underlying {@link IBookProperties}
      */
     public BookGUI(IBookProperties bookProperties, ITracer tracer) {
+        this(bookProperties, tracer, new GLRenderBackend());
+    }
+
+    /**
+     * <p>
+     * Create a new Book rendering context which draws with a render backend
+     * of its own.
+     * </p>
+     *
+     * @param bookProperties The underlying {@link IBookProperties}
+     * @param backend        The backend to draw with
+     */
+    public BookGUI(IBookProperties bookProperties, ITracer tracer, IRenderBackend backend) {
         if (bookProperties == null)
             throw new IllegalArgumentException("IBookProperties cannot be null!");
         if (bookProperties.getPageMode() == null)
             throw new IllegalArgumentException("Mode cannot be null!");
         if (bookProperties.getPageMode().layouts == null)
             throw new IllegalArgumentException("Layout cannot be null!");
+        if (backend == null)
+            throw new IllegalArgumentException("Backend cannot be null!");
         this.bookProperties = bookProperties;
         this.mode = bookProperties.getPageMode();
+        this.backend = backend;
+        this.spread = new IPage[mode.pages];
         prepareGraphics(tracer);
     }
 
@@ -91,6 +114,11 @@ public class BookGUI extends GuiScreen implements IIndexed {
      * count (ie, the number of pages has reduced), the pointer will be reset to
      * the beginning of the bookProperties.
      * </p>
+     * <p>
+     * Pages already baked are kept when the list is the one already given
+     * and pages have only been added to it, as when pages are published as
+     * they are laid out; otherwise every page is baked again.
+     * </p>
      *
      * @param pages The new list of pages
      * @param index The new page index
@@ -99,8 +127,14 @@ public class BookGUI extends GuiScreen implements IIndexed {
         if (ptr >= pages.size()) {
             ptr = 0;
         }
+        boolean grown = pages == this.pages && pages.size() >= pageCount;
         this.pages = pages;
+        this.pageCount = pages.size();
         this.index = index;
+        if (useBuffers && !grown) {
+            pageCache.clear();
+            scheduler.clear();
+        }
         internalOnPageChanged(this, ptr);
     }
 
@@ -118,14 +152,24 @@ public class BookGUI extends GuiScreen implements IIndexed {
 
     @Override
     public void onGuiClosed() {
-        if (useDisplayList) {
-            useDisplayList = false;
-            GlStateManager.glDeleteLists(glDisplayLists[0], glDisplayLists.length);
-            for (int i = 0; i < glDisplayLists.length; i++)
-                glDisplayLists[i] = -1;
+        if (useBuffers) {
+            pageCache.clear();
+            scheduler.clear();
         }
     }
 
+    /**
+     * Set the executor the spreads either side of the current spread are
+     * baked on ahead of time. Without one, they are baked one page per frame
+     * after drawing.
+     *
+     * @param executor The executor, or null
+     */
+    public void setPrefetchExecutor(Executor executor) {
+        if (useBuffers)
+            pageCache.setExecutor(executor);
+    }
+
     @Override
     public void updateScreen() {
         super.updateScreen();
@@ -137,22 +181,20 @@ public class BookGUI extends GuiScreen implements IIndexed {
         drawBackground(mx, my, frames);
         try {
             if (pages != null) {
-                List<Tuple<Layout, IPage>> toRender = new ArrayList<>(2);
-                int i;
-                for (i = 0; i < mode.pages; i++) {
-                    int what = ptr + i;
-                    if (pages.size() <= what)
-                        break;
-                    toRender.add(new Tuple<>(mode.layouts[i], pages.get(ptr + i)));
-                }
-                i = 0;
-                for (Tuple<Layout, IPage> page : toRender)
-                    if (useDisplayList)
-                        renderPageStaticsBuffered(i++, page.getSecond(), page.getFirst().x, page.getFirst().y, zLevel, mx, my, frames);
+                // Nothing here allocates; the spread is only looked up when it changes
+                for (int i = 0; i < spreadSize; i++) {
+                    Layout where = mode.layouts[i];
+                    if (useBuffers)
+                        renderPageStaticsBuffered(ptr + i, spread[i], where.x, where.y, zLevel, mx, my, frames);
                     else
-                        renderPageStaticsImmediate(page.getSecond(), page.getFirst().x, page.getFirst().y, zLevel, mx, my, frames);
-                for (Tuple<Layout, IPage> page : toRender)
-                    renderPageDynamics(page.getSecond(), page.getFirst().x, page.getFirst().y, zLevel, mx, my, frames);
+                        renderPageStaticsImmediate(spread[i], where.x, where.y, zLevel, mx, my, frames);
+                }
+                if (useBuffers)
+                    scheduler.beginFrame(System.nanoTime());
+                for (int i = 0; i < spreadSize; i++)
+                    renderPageDynamics(i, spread[i], mode.layouts[i].x, mode.layouts[i].y, zLevel, mx, my, frames);
+                if (useBuffers)
+                    pageCache.idle(); // get the next page ready, one step a frame
             }
         } catch (RenderException err) {
             err.printStackTrace();
@@ -171,11 +213,11 @@ public class BookGUI extends GuiScreen implements IIndexed {
      * @param frame The partial frames rendered
      */
     public void drawBackground(int mx, int my, float frame) {
-        GlStateManager.color(1.0f, 1.0f, 1.0f, 1.0f);
-        GlStateManager.translate(guiLeft, guiTop, 0.0f);
-        GlStateManager.pushMatrix();
+        backend.color(1.0f, 1.0f, 1.0f, 1.0f);
+        backend.translate(guiLeft, guiTop, 0.0f);
+        backend.pushMatrix();
         bookProperties.drawBackground(width, height, mx, my, frame, zLevel);
-        GlStateManager.popMatrix();
+        backend.popMatrix();
     }
 
     /**
@@ -190,9 +232,9 @@ public class BookGUI extends GuiScreen implements IIndexed {
      * @param frame The partial frames rendered
      */
     public void drawForeground(int mx, int my, float frame) {
-        GlStateManager.pushMatrix();
+        backend.pushMatrix();
         bookProperties.drawForeground(width, height, mx, my, frame, zLevel);
-        GlStateManager.popMatrix();
+        backend.popMatrix();
     }
 
     /**
@@ -202,44 +244,37 @@ public class BookGUI extends GuiScreen implements IIndexed {
      * @param whatPtr The new page pointer
      */
     private void internalOnPageChanged(BookGUI gui, int whatPtr) {
+        spreadSize = Math.max(0, Math.min(mode.pages, pages.size() - whatPtr));
         for (int i = 0; i < mode.pages; i++)
-            glBufferDirty[i] = true;
+            spread[i] = (i < spreadSize) ? pages.get(whatPtr + i) : null;
+        if (useBuffers) {
+            // This spread first, then the next, then the previous
+            pageCache.focus(whatPtr);
+            for (int i = whatPtr; i < whatPtr + 2 * mode.pages && i < pages.size(); i++)
+                pageCache.prefetch(i, pages.get(i));
+            for (int i = Math.max(0, whatPtr - mode.pages); i < whatPtr; i++)
+                pageCache.prefetch(i, pages.get(i));
+        }
         bookProperties.onPageChanged(gui, whatPtr, pages.size() - 1);
     }
 
     /**
-     * Called internally to set up the display lists.
+     * Called internally to set up the page buffers, for the current spread
+     * and the spreads either side, and the scheduler of dynamic elements.
+     * Buffer objects and display lists are only allocated when a page is
+     * first drawn.
      */
     protected void prepareGraphics(ITracer tracer) {
         try {
-            Util.checkGLError();
-        } catch (OpenGLException glex) {
-            tracer.warn("BookGUI.prepareGraphics", "Bad OpenGL operation detected, check GL history!");
-            glex.printStackTrace();
-            return;
-        }
-        glDisplayLists = new int[mode.pages];
-        glBufferDirty = new boolean[mode.pages];
-        int glList = GlStateManager.glGenLists(glDisplayLists.length);
-
-        try {
-            Util.checkGLError();
-        } catch (OpenGLException glex) {
-            tracer.warn("BookGUI.prepareGraphics",
-                "Unable to allocate display-list buffers, using immediate mode.");
+            backend.checkError();
+        } catch (RenderException err) {
+            tracer.warn("BookGUI.prepareGraphics", err.getMessage(), err);
             return;
         }
-
-        if (glList <= 0)
-            tracer.warn("BookGUI.prepareGraphics", "No display-lists available, using immediate mode.");
-        else {
-            for (int i = 0; i < glDisplayLists.length; i++) {
-                glDisplayLists[i] = glList + i;
-                glBufferDirty[i] = true;
-            }
-            tracer.trace("BookGUI.prepareGraphics", "Displaylist initialized.", glList, glDisplayLists.length);
-            useDisplayList = true;
-        }
+        pageCache = new PageCache(3 * mode.pages, backend);
+        scheduler = new FrameScheduler(backend, mode.pages, bookProperties.getAnimationRate());
+        tracer.trace("BookGUI.prepareGraphics", "Page buffers initialized.", backend.useBuffers(), 3 * mode.pages);
+        useBuffers = true;
     }
 
     /**
@@ -356,32 +391,34 @@ public class BookGUI extends GuiScreen implements IIndexed {
         }
     }
 
-    private void renderPageDynamics(IPage page, float x, float y, float z, int mx, int my, float frame) throws RenderException {
-        GlStateManager.pushMatrix();
-        GlStateManager.translate(x, y, z);
-        renderElementGroupImmediate(page.dynamicElements(), mx, my, frame);
-        GlStateManager.popMatrix();
+    private void renderPageDynamics(int slot, IPage page, float x, float y, float z, int mx, int my, float frame) throws RenderException {
+        backend.pushMatrix();
+        backend.translate(x, y, z);
+        if (useBuffers)
+            scheduler.draw(slot, page, this, mx, my, frame);
+        else
+            renderElementGroupImmediate(page.dynamicElements(), mx, my, frame);
+        backend.popMatrix();
     }
 
     private void renderPageStaticsImmediate(IPage page, float x, float y, float z, int mx, int my, float frame) throws RenderException {
-        GlStateManager.pushMatrix();
-        GlStateManager.translate(x, y, z);
+        backend.pushMatrix();
+        backend.translate(x, y, z);
         renderElementGroupImmediate(page.staticElements(), mx, my, frame);
-        GlStateManager.popMatrix();
+        backend.popMatrix();
     }
 
     private void renderPageStaticsBuffered(int index, IPage page, float x, float y, float z, int mx, int my, float frame) throws RenderException {
-        if (glBufferDirty[index]) {
-            GlStateManager.glNewList(glDisplayLists[index], GL11.GL_COMPILE);
-            renderPageStaticsImmediate(page, x, y, z, mx, my, frame);
-            GlStateManager.glEndList();
-            glBufferDirty[index] = false;
-        }
-        GlStateManager.callList(glDisplayLists[index]);
+        PageBuffer buffer = pageCache.buffer(index, page);
+        backend.pushMatrix();
+        backend.translate(x, y, z);
+        buffer.draw();
+        renderElementGroupImmediate(buffer.getGeometry().immediateElements(), mx, my, frame);
+        backend.popMatrix();
     }
 
-    private void renderElementGroupImmediate(Iterable<? extends IElement> elements, int mx, int my, float frame) throws RenderException {
-        for (IElement element : elements)
-            element.render(this, mx, my, frame);
+    private void renderElementGroupImmediate(List<? extends IElement> elements, int mx, int my, float frame) throws RenderException {
+        for (int i = 0; i < elements.size(); i++)
+            elements.get(i).render(backend, this, mx, my, frame);
     }
 }
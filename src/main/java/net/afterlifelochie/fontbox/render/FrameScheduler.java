@@ -0,0 +1,197 @@
+package net.afterlifelochie.fontbox.render;
+
+import net.afterlifelochie.fontbox.api.layout.IElement;
+import net.afterlifelochie.fontbox.api.layout.IPage;
+import net.afterlifelochie.fontbox.api.render.IRenderBackend;
+import net.minecraft.client.gui.GuiScreen;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * <p>
+ * Decides, frame by frame, which dynamic elements of the pages on the screen
+ * are drawn again. Each dynamic element which tracks its changes is kept in a
+ * display list of its own: an element which is {@link IElement#isDirty()
+ * dirty} is drawn into its list again, and every other element is replayed
+ * from its list. An element which is still dirty after
+ * {@link IElement#markClean()} does not track its changes; it gets no list and
+ * is drawn every frame.
+ * </p>
+ * <p>
+ * Elements which {@link IElement#canUpdate() update} are stepped at most
+ * {@link #setAnimationRate(float) the animation rate} times a second, so an
+ * element which changes on every step, such as an item with a glint, is drawn
+ * again at that rate rather than every frame. Lists are drawn and replayed
+ * from the state {@link IRenderBackend#resetState()} sets up, so elements
+ * drawn into them may change other state only if they put it back.
+ * </p>
+ * <p>
+ * Drawing must only happen on the render thread.
+ * </p>
+ *
+ * @author AfterLifeLochie
+ */
+public class FrameScheduler {
+    private static class Slot {
+        IPage page;
+        int lists;
+        int count;
+        /**
+         * The list of each dynamic element, from the first list, or -1
+         */
+        int[] listOf = new int[0];
+        int size;
+    }
+
+    private final IRenderBackend backend;
+    private final Slot[] slots;
+    private long interval;
+    private long lastStep;
+    private boolean started, stepping;
+
+    /**
+     * Create a frame scheduler
+     *
+     * @param backend The backend to draw with
+     * @param pages   The number of pages on the screen at once
+     * @param rate    The animation rate, in steps a second; 0 steps every frame
+     */
+    public FrameScheduler(IRenderBackend backend, int pages, float rate) {
+        if (backend == null)
+            throw new IllegalArgumentException("backend may not be null");
+        if (0 >= pages)
+            throw new IllegalArgumentException("pages must be positive");
+        this.backend = backend;
+        slots = new Slot[pages];
+        for (int i = 0; i < pages; i++)
+            slots[i] = new Slot();
+        setAnimationRate(rate);
+    }
+
+    /**
+     * Set how often elements which update are stepped
+     *
+     * @param rate The animation rate, in steps a second; 0 steps every frame
+     */
+    public void setAnimationRate(float rate) {
+        if (!(rate >= 0.0f))
+            throw new IllegalArgumentException("rate may not be negative");
+        interval = (rate == 0.0f) ? 0 : (long) (1.0e9 / rate);
+    }
+
+    /**
+     * Start a frame
+     *
+     * @param now The time of the frame, in nanoseconds
+     * @return If elements which update are stepped this frame
+     */
+    public boolean beginFrame(long now) {
+        stepping = !started || now - lastStep >= interval;
+        if (stepping) {
+            // Keep to the rate, unless a step has been missed altogether
+            lastStep = (!started || now - lastStep >= 2 * interval) ? now : lastStep + interval;
+            started = true;
+        }
+        return stepping;
+    }
+
+    /**
+     * Step an element if it updates and a step is due this frame
+     *
+     * @param element The element
+     * @return If the element must be drawn again, rather than replayed
+     */
+    public boolean schedule(IElement element) {
+        if (stepping && element.canUpdate())
+            element.update();
+        return element.isDirty();
+    }
+
+    /**
+     * Draw the dynamic elements of a page, relative to the current matrix
+     *
+     * @param slot  The place of the page on the screen
+     * @param page  The page
+     * @param gui   The GUI rendering on
+     * @param mx    The mouse x-coordinate
+     * @param my    The mouse y-coordinate
+     * @param frame The current partial frame
+     * @throws RenderException When an element cannot be drawn
+     */
+    public void draw(int slot, IPage page, GuiScreen gui, int mx, int my, float frame) throws RenderException {
+        Slot s = slots[slot];
+        if (s.page != page)
+            assign(s, page);
+        List<IElement> elements = page.dynamicElements();
+        boolean listed = false;
+        for (int k = 0; k < elements.size(); k++) {
+            IElement element = elements.get(k);
+            boolean dirty = schedule(element);
+            int list = (k < s.size) ? s.listOf[k] : -1;
+            if (list == -1) {
+                // No list to keep it in
+                if (listed) {
+                    backend.resetState();
+                    listed = false;
+                }
+                element.render(backend, gui, mx, my, frame);
+            } else if (dirty) {
+                backend.beginList(s.lists + list);
+                try {
+                    element.render(backend, gui, mx, my, frame);
+                } finally {
+                    backend.endList();
+                }
+                element.markClean();
+                listed = true;
+            } else {
+                backend.callList(s.lists + list);
+                listed = true;
+            }
+        }
+        // Replayed lists change the state behind the backend's back
+        if (listed)
+            backend.resetState();
+    }
+
+    /**
+     * Delete every display list. The scheduler may be used again afterwards.
+     */
+    public void clear() {
+        for (Slot slot : slots)
+            release(slot);
+    }
+
+    private void assign(Slot slot, IPage page) {
+        release(slot);
+        List<IElement> elements = page.dynamicElements();
+        int size = elements.size(), count = 0;
+        if (slot.listOf.length < size)
+            slot.listOf = new int[size];
+        for (int k = 0; k < size; k++) {
+            IElement element = elements.get(k);
+            element.markClean();
+            slot.listOf[k] = element.isDirty() ? -1 : count++;
+            element.markDirty();
+        }
+        slot.page = page;
+        slot.size = size;
+        if (count > 0) {
+            slot.lists = backend.createLists(count);
+            if (slot.lists != 0)
+                slot.count = count;
+            else
+                Arrays.fill(slot.listOf, 0, size, -1);
+        }
+    }
+
+    private void release(Slot slot) {
+        if (slot.count > 0)
+            backend.deleteLists(slot.lists, slot.count);
+        slot.page = null;
+        slot.lists = 0;
+        slot.count = 0;
+        slot.size = 0;
+    }
+}
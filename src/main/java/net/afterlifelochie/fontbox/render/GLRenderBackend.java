@@ -0,0 +1,281 @@
+package net.afterlifelochie.fontbox.render;
+
+import net.afterlifelochie.fontbox.api.render.IRenderBackend;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.renderer.GlStateManager;
+import net.minecraft.client.renderer.OpenGlHelper;
+import net.minecraft.client.renderer.RenderHelper;
+import net.minecraft.client.renderer.Tessellator;
+import net.minecraft.client.renderer.VertexBuffer;
+import net.minecraft.client.renderer.vertex.DefaultVertexFormats;
+import net.minecraft.item.ItemStack;
+import net.minecraft.util.ResourceLocation;
+import org.lwjgl.opengl.GL11;
+import org.lwjgl.opengl.OpenGLException;
+import org.lwjgl.opengl.Util;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The render backend which draws with OpenGL, through Minecraft's state
+ * manager.
+ *
+ * @author AfterLifeLochie
+ */
+public class GLRenderBackend implements IRenderBackend {
+    private static final int QUAD_STRIDE = GlyphBatch.QUAD_VERTEX_SIZE * 4;
+    private static final int LINE_STRIDE = GlyphBatch.LINE_VERTEX_SIZE * 4;
+
+    /**
+     * The vertex buffer or data being drawn from
+     */
+    private int buffer = -1;
+    private ByteBuffer data;
+
+    @Override
+    public void checkError() throws RenderException {
+        try {
+            Util.checkGLError();
+        } catch (OpenGLException glex) {
+            throw new RenderException("Bad OpenGL operation detected, check GL history!", glex);
+        }
+    }
+
+    @Override
+    public void pushMatrix() {
+        GlStateManager.pushMatrix();
+    }
+
+    @Override
+    public void popMatrix() {
+        GlStateManager.popMatrix();
+    }
+
+    @Override
+    public void translate(float x, float y, float z) {
+        GlStateManager.translate(x, y, z);
+    }
+
+    @Override
+    public void scale(float x, float y, float z) {
+        GlStateManager.scale(x, y, z);
+    }
+
+    @Override
+    public void color(float r, float g, float b, float a) {
+        GlStateManager.color(r, g, b, a);
+    }
+
+    @Override
+    public void enableBlend() {
+        GlStateManager.enableBlend();
+        GlStateManager.blendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
+    }
+
+    @Override
+    public void disableBlend() {
+        GlStateManager.disableBlend();
+    }
+
+    @Override
+    public void bindTexture(int texture) {
+        GlStateManager.bindTexture(texture);
+    }
+
+    @Override
+    public void bindTexture(ResourceLocation texture) {
+        GLUtils.useSystemTexture(texture);
+    }
+
+    @Override
+    public void beginDistanceField() {
+        GLUtils.beginDistanceField();
+    }
+
+    @Override
+    public void endDistanceField() {
+        GLUtils.endDistanceField();
+    }
+
+    @Override
+    public void drawRect(float x, float y, float w, float h, float z) {
+        GLUtils.drawDefaultRect(x, y, w, h, z);
+    }
+
+    @Override
+    public void drawTexturedRect(float x, float y, float w, float h, float u, float v, float us, float vs, float z) {
+        GLUtils.drawTexturedRectUV(x, y, w, h, u, v, us, vs, z);
+    }
+
+    @Override
+    public void drawLine(float xBegin, float yBegin, float xEnd, float yEnd, float z) {
+        GLUtils.drawLine(xBegin, yBegin, xEnd, yEnd, z);
+    }
+
+    @Override
+    public void drawQuads(float[] quads, int first, int count) {
+        Tessellator tessellator = Tessellator.getInstance();
+        VertexBuffer vertices = tessellator.getBuffer();
+        vertices.begin(GL11.GL_QUADS, DefaultVertexFormats.POSITION_TEX_COLOR);
+        for (int v = first, e = first + count; v < e; v++) {
+            int i = v * GlyphBatch.QUAD_VERTEX_SIZE;
+            vertices.pos(quads[i], quads[i + 1], quads[i + 2]).tex(quads[i + 3], quads[i + 4])
+                .color(quads[i + 5], quads[i + 6], quads[i + 7], quads[i + 8]).endVertex();
+        }
+        tessellator.draw();
+    }
+
+    @Override
+    public void drawLines(float[] lines, int first, int count) {
+        GlStateManager.disableTexture2D();
+        GlStateManager.glLineWidth(GLUtils.lineWidth());
+        Tessellator tessellator = Tessellator.getInstance();
+        VertexBuffer vertices = tessellator.getBuffer();
+        vertices.begin(GL11.GL_LINES, DefaultVertexFormats.POSITION_COLOR);
+        for (int v = first, e = first + count; v < e; v++) {
+            int i = v * GlyphBatch.LINE_VERTEX_SIZE;
+            vertices.pos(lines[i], lines[i + 1], lines[i + 2])
+                .color(lines[i + 3], lines[i + 4], lines[i + 5], lines[i + 6]).endVertex();
+        }
+        tessellator.draw();
+        GlStateManager.enableTexture2D();
+    }
+
+    @Override
+    public void drawItem(ItemStack stack, float x, float y, float w, float h) {
+        GlStateManager.pushMatrix();
+        RenderHelper.enableGUIStandardItemLighting();
+        GlStateManager.translate(x, y, 0);
+        GlStateManager.scale(w / 16.0f, h / 16.0f, 1.0f);
+        Minecraft.getMinecraft().getRenderItem().renderItemAndEffectIntoGUI(stack, 0, 0);
+        RenderHelper.disableStandardItemLighting();
+        GlStateManager.disableBlend();
+        GlStateManager.popMatrix();
+    }
+
+    @Override
+    public boolean useBuffers() {
+        return OpenGlHelper.useVbo();
+    }
+
+    @Override
+    public int createBuffer() {
+        return OpenGlHelper.glGenBuffers();
+    }
+
+    @Override
+    public void uploadBuffer(int buffer, ByteBuffer data) {
+        OpenGlHelper.glBindBuffer(OpenGlHelper.GL_ARRAY_BUFFER, buffer);
+        OpenGlHelper.glBufferData(OpenGlHelper.GL_ARRAY_BUFFER, data, OpenGlHelper.GL_STATIC_DRAW);
+        OpenGlHelper.glBindBuffer(OpenGlHelper.GL_ARRAY_BUFFER, 0);
+    }
+
+    @Override
+    public void deleteBuffer(int buffer) {
+        OpenGlHelper.glDeleteBuffers(buffer);
+    }
+
+    @Override
+    public void beginVertices(int buffer, ByteBuffer data) {
+        this.buffer = buffer;
+        this.data = data;
+        if (buffer != -1)
+            OpenGlHelper.glBindBuffer(OpenGlHelper.GL_ARRAY_BUFFER, buffer);
+        enableBlend();
+        GlStateManager.glEnableClientState(GL11.GL_VERTEX_ARRAY);
+        GlStateManager.glEnableClientState(GL11.GL_COLOR_ARRAY);
+    }
+
+    @Override
+    public void drawQuads(int offset, int first, int count) {
+        GlStateManager.glEnableClientState(GL11.GL_TEXTURE_COORD_ARRAY);
+        if (buffer != -1) {
+            GlStateManager.glVertexPointer(3, GL11.GL_FLOAT, QUAD_STRIDE, offset);
+            GlStateManager.glTexCoordPointer(2, GL11.GL_FLOAT, QUAD_STRIDE, offset + 3 * 4);
+            GlStateManager.glColorPointer(4, GL11.GL_FLOAT, QUAD_STRIDE, offset + 5 * 4);
+        } else {
+            GlStateManager.glVertexPointer(3, GL11.GL_FLOAT, QUAD_STRIDE, at(offset));
+            GlStateManager.glTexCoordPointer(2, GL11.GL_FLOAT, QUAD_STRIDE, at(offset + 3 * 4));
+            GlStateManager.glColorPointer(4, GL11.GL_FLOAT, QUAD_STRIDE, at(offset + 5 * 4));
+        }
+        GlStateManager.glDrawArrays(GL11.GL_QUADS, first, count);
+        GlStateManager.glDisableClientState(GL11.GL_TEXTURE_COORD_ARRAY);
+    }
+
+    @Override
+    public void drawLines(int offset, int count) {
+        GlStateManager.disableTexture2D();
+        GlStateManager.glLineWidth(GLUtils.lineWidth());
+        if (buffer != -1) {
+            GlStateManager.glVertexPointer(3, GL11.GL_FLOAT, LINE_STRIDE, offset);
+            GlStateManager.glColorPointer(4, GL11.GL_FLOAT, LINE_STRIDE, offset + 3 * 4);
+        } else {
+            GlStateManager.glVertexPointer(3, GL11.GL_FLOAT, LINE_STRIDE, at(offset));
+            GlStateManager.glColorPointer(4, GL11.GL_FLOAT, LINE_STRIDE, at(offset + 3 * 4));
+        }
+        GlStateManager.glDrawArrays(GL11.GL_LINES, 0, count);
+        GlStateManager.enableTexture2D();
+    }
+
+    @Override
+    public void endVertices() {
+        GlStateManager.glDisableClientState(GL11.GL_COLOR_ARRAY);
+        GlStateManager.glDisableClientState(GL11.GL_VERTEX_ARRAY);
+        if (buffer != -1)
+            OpenGlHelper.glBindBuffer(OpenGlHelper.GL_ARRAY_BUFFER, 0);
+        GlStateManager.disableBlend();
+        GlStateManager.color(1.0f, 1.0f, 1.0f, 1.0f);
+        buffer = -1;
+        data = null;
+    }
+
+    @Override
+    public int createLists(int count) {
+        return GlStateManager.glGenLists(count);
+    }
+
+    @Override
+    public void beginList(int list) {
+        // Lists record changes from the reset state, so start from it
+        resetState();
+        GlStateManager.glNewList(list, GL11.GL_COMPILE_AND_EXECUTE);
+    }
+
+    @Override
+    public void endList() {
+        GlStateManager.glEndList();
+    }
+
+    @Override
+    public void callList(int list) {
+        resetState();
+        GlStateManager.callList(list);
+    }
+
+    @Override
+    public void resetState() {
+        // Set OpenGL first, then the cache, which may already think it is set
+        GL11.glBindTexture(GL11.GL_TEXTURE_2D, 0);
+        GlStateManager.bindTexture(0);
+        GlStateManager.resetColor();
+        GlStateManager.color(1.0f, 1.0f, 1.0f, 1.0f);
+        GL11.glDisable(GL11.GL_BLEND);
+        GlStateManager.disableBlend();
+        GL11.glEnable(GL11.GL_ALPHA_TEST);
+        GlStateManager.enableAlpha();
+        GL11.glAlphaFunc(GL11.GL_GREATER, 0.1f);
+        GlStateManager.alphaFunc(GL11.GL_GREATER, 0.1f);
+        GL11.glDisable(GL11.GL_LIGHTING);
+        GlStateManager.disableLighting();
+    }
+
+    @Override
+    public void deleteLists(int list, int count) {
+        GlStateManager.glDeleteLists(list, count);
+    }
+
+    private ByteBuffer at(int offset) {
+        data.position(offset);
+        return data;
+    }
+}
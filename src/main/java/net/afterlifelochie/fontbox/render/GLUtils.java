@@ -1,5 +1,7 @@
 package net.afterlifelochie.fontbox.render;
 
+import net.afterlifelochie.fontbox.api.font.IGLFont;
+import net.afterlifelochie.fontbox.api.render.IRenderBackend;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.ScaledResolution;
 import net.minecraft.client.renderer.GlStateManager;
@@ -41,9 +43,8 @@ public class GLUtils {
     }
 
     public static void drawLine(double xBegin, double yBegin, double xEnd, double yEnd, double z) {
-        int scale = new ScaledResolution(Minecraft.getMinecraft()).getScaleFactor();
         GlStateManager.disableTexture2D();
-        GlStateManager.glLineWidth(scale * 0.5F);
+        GlStateManager.glLineWidth(lineWidth());
         Tessellator tessellator = Tessellator.getInstance();
         VertexBuffer buffer = tessellator.getBuffer();
         buffer.begin(GL11.GL_LINES, DefaultVertexFormats.POSITION);
@@ -52,4 +53,84 @@ public class GLUtils {
         tessellator.draw();
         GlStateManager.enableTexture2D();
     }
+
+    /**
+     * Draw a batch of glyph geometry. Each font segment of the batch binds the
+     * font texture once and is drawn with one quad draw call, plus one line
+     * draw call if the segment has underlines. Glyphs are drawn blended;
+     * segments of distance field fonts are drawn with an alpha test instead,
+     * after which blending and the GUI alpha test are turned back on.
+     *
+     * @param backend The backend to draw with
+     * @param batch   The batch to draw
+     * @param x       The x-offset of the batch, in font units
+     * @param y       The y-offset of the batch, in font units
+     */
+    public static void drawGlyphBatch(IRenderBackend backend, GlyphBatch batch, float x, float y) {
+        for (int s = 0; s < batch.segmentCount(); s++) {
+            IGLFont font = batch.segmentFont(s);
+            backend.pushMatrix();
+            backend.bindTexture(font.getTextureId(batch.segmentPage(s)));
+            backend.scale(font.getScale(), font.getScale(), 1.0f);
+            backend.translate(x, y, 0);
+
+            int count = batch.quadCount(s);
+            if (count > 0) {
+                if (font.isDistanceField())
+                    backend.beginDistanceField();
+                backend.drawQuads(batch.quadData(), batch.quadStart(s), count);
+                if (font.isDistanceField())
+                    backend.endDistanceField();
+            }
+
+            count = batch.lineCount(s);
+            if (count > 0)
+                backend.drawLines(batch.lineData(), batch.lineStart(s), count);
+            backend.popMatrix();
+        }
+        backend.color(1.0f, 1.0f, 1.0f, 1.0f);
+    }
+
+    /**
+     * Set up drawing a distance field font: the edge of each glyph is where
+     * the field crosses one half
+     */
+    static void beginDistanceField() {
+        GlStateManager.disableBlend();
+        GlStateManager.enableAlpha();
+        GlStateManager.alphaFunc(GL11.GL_GREATER, 0.5f);
+    }
+
+    /**
+     * Put back the state glyphs are drawn with: the GUI alpha test and
+     * blending. Nothing is read back from OpenGL, which would stall it.
+     */
+    static void endDistanceField() {
+        GlStateManager.alphaFunc(GL11.GL_GREATER, 0.1f);
+        GlStateManager.enableBlend();
+    }
+
+    /**
+     * The display the width of underlines was last worked out for
+     */
+    private static int lineDisplayWidth = -1, lineDisplayHeight = -1, lineGuiScale = -1;
+    private static boolean lineUnicode;
+    private static float lineWidth;
+
+    /**
+     * @return the width of underlines, half a scaled GUI pixel; only worked
+     * out again when the display changes
+     */
+    static float lineWidth() {
+        Minecraft mc = Minecraft.getMinecraft();
+        if (mc.displayWidth != lineDisplayWidth || mc.displayHeight != lineDisplayHeight
+            || mc.gameSettings.guiScale != lineGuiScale || mc.isUnicode() != lineUnicode) {
+            lineDisplayWidth = mc.displayWidth;
+            lineDisplayHeight = mc.displayHeight;
+            lineGuiScale = mc.gameSettings.guiScale;
+            lineUnicode = mc.isUnicode();
+            lineWidth = new ScaledResolution(mc).getScaleFactor() * 0.5F;
+        }
+        return lineWidth;
+    }
 }
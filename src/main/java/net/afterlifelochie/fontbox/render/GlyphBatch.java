@@ -0,0 +1,227 @@
+package net.afterlifelochie.fontbox.render;
+
+import net.afterlifelochie.fontbox.api.font.IGLFont;
+import net.minecraft.util.ResourceLocation;
+
+import java.util.Arrays;
+
+/**
+ * <p>
+ * A batch of glyph geometry waiting to be drawn. Quads and underline segments
+ * are collected into flat vertex arrays and grouped into segments by font and
+ * atlas page, or by texture for images, so that a whole run of text in one
+ * font can be drawn with a single texture bind and a single draw call per
+ * primitive type.
+ * </p>
+ * <p>
+ * The batch holds no OpenGL state; see {@link GLUtils#drawGlyphBatch} for
+ * drawing it.
+ * </p>
+ *
+ * @author AfterLifeLochie
+ */
+public class GlyphBatch {
+    /**
+     * The number of floats per quad vertex: x, y, z, u, v, r, g, b, a
+     */
+    public static final int QUAD_VERTEX_SIZE = 9;
+    /**
+     * The number of floats per line vertex: x, y, z, r, g, b, a
+     */
+    public static final int LINE_VERTEX_SIZE = 7;
+
+    private float[] quads = new float[QUAD_VERTEX_SIZE * 4 * 64];
+    private float[] lines = new float[LINE_VERTEX_SIZE * 2 * 8];
+    private int quadVertices, lineVertices;
+
+    private IGLFont[] fonts = new IGLFont[4];
+    private int[] pages = new int[4];
+    private ResourceLocation[] textures = new ResourceLocation[4];
+    private int[] quadStarts = new int[4];
+    private int[] lineStarts = new int[4];
+    private int segments;
+
+    /**
+     * Set the font for the following geometry. A new segment is started only
+     * if the font differs from the font of the current segment.
+     *
+     * @param font The font
+     */
+    public void font(IGLFont font) {
+        font(font, 0);
+    }
+
+    /**
+     * Set the font and atlas page for the following geometry. A new segment
+     * is started only if either differs from those of the current segment.
+     *
+     * @param font The font
+     * @param page The atlas page
+     */
+    public void font(IGLFont font, int page) {
+        segment(font, page, null);
+    }
+
+    /**
+     * Set a texture, rather than a font, for the following geometry. A new
+     * segment is started only if the texture differs from the texture of the
+     * current segment.
+     *
+     * @param texture The texture
+     */
+    public void texture(ResourceLocation texture) {
+        segment(null, 0, texture);
+    }
+
+    private void segment(IGLFont font, int page, ResourceLocation texture) {
+        if (segments > 0 && fonts[segments - 1] == font && pages[segments - 1] == page
+            && textures[segments - 1] == texture)
+            return;
+        if (segments > 0 && quadStarts[segments - 1] == quadVertices && lineStarts[segments - 1] == lineVertices) {
+            fonts[segments - 1] = font; // previous segment is empty, reuse it
+            pages[segments - 1] = page;
+            textures[segments - 1] = texture;
+            return;
+        }
+        if (segments == fonts.length) {
+            fonts = Arrays.copyOf(fonts, segments * 2);
+            pages = Arrays.copyOf(pages, segments * 2);
+            textures = Arrays.copyOf(textures, segments * 2);
+            quadStarts = Arrays.copyOf(quadStarts, segments * 2);
+            lineStarts = Arrays.copyOf(lineStarts, segments * 2);
+        }
+        fonts[segments] = font;
+        pages[segments] = page;
+        textures[segments] = texture;
+        quadStarts[segments] = quadVertices;
+        lineStarts[segments] = lineVertices;
+        segments++;
+    }
+
+    /**
+     * Append one quad vertex to the current segment. Quads are made of four
+     * consecutive vertices.
+     */
+    public void vertex(float x, float y, float z, float u, float v, float r, float g, float b, float a) {
+        int i = quadVertices * QUAD_VERTEX_SIZE;
+        if (i + QUAD_VERTEX_SIZE > quads.length)
+            quads = Arrays.copyOf(quads, quads.length * 2);
+        quads[i] = x;
+        quads[i + 1] = y;
+        quads[i + 2] = z;
+        quads[i + 3] = u;
+        quads[i + 4] = v;
+        quads[i + 5] = r;
+        quads[i + 6] = g;
+        quads[i + 7] = b;
+        quads[i + 8] = a;
+        quadVertices++;
+    }
+
+    /**
+     * Append one line to the current segment.
+     */
+    public void line(float x0, float y0, float x1, float y1, float z, float r, float g, float b, float a) {
+        int i = lineVertices * LINE_VERTEX_SIZE;
+        if (i + 2 * LINE_VERTEX_SIZE > lines.length)
+            lines = Arrays.copyOf(lines, lines.length * 2);
+        lines[i] = x0;
+        lines[i + 1] = y0;
+        lines[i + 2] = z;
+        lines[i + 3] = r;
+        lines[i + 4] = g;
+        lines[i + 5] = b;
+        lines[i + 6] = a;
+        lines[i + 7] = x1;
+        lines[i + 8] = y1;
+        lines[i + 9] = z;
+        lines[i + 10] = r;
+        lines[i + 11] = g;
+        lines[i + 12] = b;
+        lines[i + 13] = a;
+        lineVertices += 2;
+    }
+
+    /**
+     * Remove all geometry and segments from the batch. The backing arrays are
+     * kept for reuse.
+     */
+    public void clear() {
+        Arrays.fill(fonts, 0, segments, null);
+        Arrays.fill(textures, 0, segments, null);
+        quadVertices = lineVertices = segments = 0;
+    }
+
+    public boolean isEmpty() {
+        return quadVertices == 0 && lineVertices == 0;
+    }
+
+    public int segmentCount() {
+        return segments;
+    }
+
+    /**
+     * @return the font of a segment, or null if the segment is drawn from a
+     * texture
+     */
+    public IGLFont segmentFont(int segment) {
+        return fonts[segment];
+    }
+
+    /**
+     * @return the texture of a segment, or null if the segment is drawn from
+     * a font
+     */
+    public ResourceLocation segmentTexture(int segment) {
+        return textures[segment];
+    }
+
+    /**
+     * @return the atlas page of the font a segment is drawn from
+     */
+    public int segmentPage(int segment) {
+        return pages[segment];
+    }
+
+    /**
+     * @return the first quad vertex of a segment
+     */
+    public int quadStart(int segment) {
+        return quadStarts[segment];
+    }
+
+    /**
+     * @return the number of quad vertices in a segment
+     */
+    public int quadCount(int segment) {
+        return ((segment + 1 < segments) ? quadStarts[segment + 1] : quadVertices) - quadStarts[segment];
+    }
+
+    /**
+     * @return the first line vertex of a segment
+     */
+    public int lineStart(int segment) {
+        return lineStarts[segment];
+    }
+
+    /**
+     * @return the number of line vertices in a segment
+     */
+    public int lineCount(int segment) {
+        return ((segment + 1 < segments) ? lineStarts[segment + 1] : lineVertices) - lineStarts[segment];
+    }
+
+    /**
+     * @return the interleaved quad vertex data; see {@link #QUAD_VERTEX_SIZE}
+     */
+    public float[] quadData() {
+        return quads;
+    }
+
+    /**
+     * @return the interleaved line vertex data; see {@link #LINE_VERTEX_SIZE}
+     */
+    public float[] lineData() {
+        return lines;
+    }
+}
@@ -0,0 +1,117 @@
+package net.afterlifelochie.fontbox.render;
+
+import net.afterlifelochie.fontbox.api.font.IGLFont;
+import net.afterlifelochie.fontbox.api.render.IRenderBackend;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * <p>
+ * The baked geometry of one page, uploaded to a vertex buffer object and
+ * drawn with one draw call per texture group plus one for underlines. Where
+ * the backend has no buffer objects, the same data is drawn from memory
+ * instead.
+ * </p>
+ * <p>
+ * Must only be used on the render thread.
+ * </p>
+ *
+ * @author AfterLifeLochie
+ */
+public class PageBuffer {
+    private final IRenderBackend backend;
+    private PageGeometry geometry;
+    /**
+     * The vertex data; kept for drawing when there is no buffer object, and
+     * reused for the next upload otherwise
+     */
+    private ByteBuffer data;
+    private int vbo = -1;
+    private int lineOffset;
+
+    /**
+     * Create an empty page buffer
+     *
+     * @param backend The backend to draw with
+     */
+    public PageBuffer(IRenderBackend backend) {
+        if (backend == null)
+            throw new IllegalArgumentException("backend may not be null");
+        this.backend = backend;
+    }
+
+    /**
+     * Upload the geometry of a page, replacing the geometry uploaded before
+     *
+     * @param geometry The geometry
+     */
+    public void upload(PageGeometry geometry) {
+        if (geometry == null)
+            throw new IllegalArgumentException("geometry may not be null");
+        float[] quads = geometry.quadData(), lines = geometry.lineData();
+        int size = (quads.length + lines.length) * 4;
+        if (data == null || data.capacity() < size)
+            data = ByteBuffer.allocateDirect(Math.max(size, 4)).order(ByteOrder.nativeOrder());
+        data.clear();
+        data.asFloatBuffer().put(quads).put(lines);
+        data.limit(size);
+        lineOffset = quads.length * 4;
+        this.geometry = geometry;
+
+        if (backend.useBuffers()) {
+            if (vbo == -1)
+                vbo = backend.createBuffer();
+            backend.uploadBuffer(vbo, data);
+        }
+    }
+
+    /**
+     * @return the geometry uploaded last, or null if nothing has been
+     * uploaded
+     */
+    public PageGeometry getGeometry() {
+        return geometry;
+    }
+
+    /**
+     * Draw the geometry uploaded last, relative to the current matrix
+     */
+    public void draw() {
+        if (geometry == null || geometry.isEmpty())
+            return;
+        backend.beginVertices(vbo, data);
+        for (int g = 0; g < geometry.groupCount(); g++) {
+            IGLFont font = geometry.groupFont(g);
+            if (font != null)
+                backend.bindTexture(font.getTextureId(geometry.groupPage(g)));
+            else
+                backend.bindTexture(geometry.groupTexture(g));
+            boolean distanceField = font != null && font.isDistanceField();
+            if (distanceField)
+                backend.beginDistanceField();
+            backend.drawQuads(0, geometry.quadStart(g), geometry.quadCount(g));
+            if (distanceField)
+                backend.endDistanceField();
+        }
+        if (geometry.lineCount() > 0)
+            backend.drawLines(lineOffset, geometry.lineCount());
+        backend.endVertices();
+    }
+
+    /**
+     * Delete the buffer object. The buffer may be uploaded to again afterwards.
+     */
+    public void delete() {
+        if (vbo != -1)
+            backend.deleteBuffer(vbo);
+        vbo = -1;
+        geometry = null;
+        data = null;
+    }
+
+    @Override
+    public String toString() {
+        return "PageBuffer { vbo: " + vbo + ", geometry: " + geometry + " }";
+    }
+}
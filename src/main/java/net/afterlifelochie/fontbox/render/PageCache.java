@@ -0,0 +1,219 @@
+package net.afterlifelochie.fontbox.render;
+
+import net.afterlifelochie.fontbox.api.layout.IPage;
+import net.afterlifelochie.fontbox.api.render.IRenderBackend;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+
+/**
+ * <p>
+ * A bounded set of page buffers keyed by page index, so that the pages around
+ * the current spread can be baked and uploaded ahead of time and turning to
+ * them only swaps which buffers are drawn.
+ * </p>
+ * <p>
+ * Pages are baked on an executor if one is set, or otherwise one page per
+ * call to {@link #idle()}; uploads always happen on the render thread, one
+ * page per call to {@link #idle()}. When the cache is full, the page furthest
+ * from the focused page is dropped first.
+ * </p>
+ *
+ * @author AfterLifeLochie
+ */
+public class PageCache {
+    private static class Slot {
+        int index = -1;
+        IPage page;
+        PageGeometry geometry;
+        CompletableFuture<PageGeometry> pending;
+        boolean uploaded;
+        final PageBuffer buffer;
+
+        Slot(IRenderBackend backend) {
+            buffer = new PageBuffer(backend);
+        }
+    }
+
+    private final Slot[] slots;
+    private Executor executor;
+    private int focus;
+
+    /**
+     * Create a page cache
+     *
+     * @param capacity The number of pages kept
+     * @param backend  The backend to draw with
+     */
+    public PageCache(int capacity, IRenderBackend backend) {
+        if (0 >= capacity)
+            throw new IllegalArgumentException("capacity must be positive");
+        if (backend == null)
+            throw new IllegalArgumentException("backend may not be null");
+        slots = new Slot[capacity];
+        for (int i = 0; i < capacity; i++)
+            slots[i] = new Slot(backend);
+    }
+
+    /**
+     * Set the executor pages are baked on ahead of time
+     *
+     * @param executor The executor, or null to bake pages in idle frames
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Set the page the reader is looking at. Pages furthest from it are
+     * dropped first.
+     *
+     * @param index The page index
+     */
+    public void focus(int index) {
+        focus = index;
+    }
+
+    /**
+     * Ask for a page to be made ready ahead of time
+     *
+     * @param index The page index
+     * @param page  The page
+     */
+    public void prefetch(int index, IPage page) {
+        Slot slot = claim(index, page);
+        if (slot.geometry == null && slot.pending == null && executor != null) {
+            slot.pending = CompletableFuture.supplyAsync(() -> {
+                try {
+                    return PageGeometry.bake(page);
+                } catch (RenderException e) {
+                    throw new CompletionException(e);
+                }
+            }, executor);
+        }
+    }
+
+    /**
+     * Get the buffer of a page to draw, baking and uploading the page now if
+     * it is not ready
+     *
+     * @param index The page index
+     * @param page  The page
+     * @return The buffer of the page
+     * @throws RenderException When the page cannot be baked
+     */
+    public PageBuffer buffer(int index, IPage page) throws RenderException {
+        Slot slot = claim(index, page);
+        if (slot.geometry == null) {
+            if (slot.pending != null) {
+                try {
+                    slot.geometry = slot.pending.join();
+                } catch (CompletionException e) {
+                    /* bake again below, to report the failure */
+                }
+                slot.pending = null;
+            }
+            if (slot.geometry == null)
+                slot.geometry = PageGeometry.bake(page);
+        }
+        if (!slot.uploaded) {
+            slot.buffer.upload(slot.geometry);
+            slot.uploaded = true;
+        }
+        return slot.buffer;
+    }
+
+    /**
+     * Do one step of the work waiting: upload one baked page, or, without an
+     * executor, bake one page. Pages nearest the focused page go first. Must
+     * be called on the render thread.
+     *
+     * @return If there was any work to do
+     */
+    public boolean idle() {
+        Slot upload = null, bake = null;
+        for (Slot slot : slots) {
+            if (slot.index == -1)
+                continue;
+            if (slot.pending != null && slot.pending.isDone()) {
+                if (!slot.pending.isCompletedExceptionally())
+                    slot.geometry = slot.pending.join();
+                slot.pending = null; // failures are baked again when drawn
+            }
+            if (slot.geometry != null && !slot.uploaded && (upload == null || distance(upload) > distance(slot)))
+                upload = slot;
+            if (slot.geometry == null && slot.pending == null && executor == null
+                && (bake == null || distance(bake) > distance(slot)))
+                bake = slot;
+        }
+        if (upload != null) {
+            upload.buffer.upload(upload.geometry);
+            upload.uploaded = true;
+            return true;
+        }
+        if (bake == null)
+            return false;
+        try {
+            bake.geometry = PageGeometry.bake(bake.page);
+        } catch (RenderException e) {
+            /* reported when the page is drawn */
+        }
+        return true;
+    }
+
+    /**
+     * @return if a page is baked and uploaded, ready to draw
+     */
+    public boolean isReady(int index) {
+        for (Slot slot : slots)
+            if (slot.index == index)
+                return slot.uploaded;
+        return false;
+    }
+
+    /**
+     * Drop every page and delete the buffers. The cache may be used again
+     * afterwards.
+     */
+    public void clear() {
+        for (Slot slot : slots) {
+            slot.buffer.delete();
+            drop(slot);
+        }
+    }
+
+    /**
+     * Find the slot of a page, or take over the slot furthest from the focus.
+     * The buffer of the slot is kept, to be uploaded to again.
+     */
+    private Slot claim(int index, IPage page) {
+        Slot victim = null;
+        for (Slot slot : slots) {
+            if (slot.index == index) {
+                if (slot.page == page)
+                    return slot;
+                victim = slot; // the page at the index has changed
+                break;
+            }
+            if (victim == null || victim.index != -1 && (slot.index == -1 || distance(slot) > distance(victim)))
+                victim = slot;
+        }
+        drop(victim);
+        victim.index = index;
+        victim.page = page;
+        return victim;
+    }
+
+    private void drop(Slot slot) {
+        slot.index = -1;
+        slot.page = null;
+        slot.geometry = null;
+        slot.pending = null;
+        slot.uploaded = false;
+    }
+
+    private int distance(Slot slot) {
+        return Math.abs(slot.index - focus);
+    }
+}
@@ -0,0 +1,192 @@
+package net.afterlifelochie.fontbox.render;
+
+import net.afterlifelochie.fontbox.api.font.IGLFont;
+import net.afterlifelochie.fontbox.api.layout.IElement;
+import net.afterlifelochie.fontbox.api.layout.IPage;
+import net.minecraft.util.ResourceLocation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * <p>
+ * The geometry of the static elements of a page, baked once into interleaved
+ * vertex arrays and grouped by texture, so that the whole page can be drawn
+ * with one draw call per texture and one for all underlines. Quad vertices are
+ * laid out as in {@link GlyphBatch#QUAD_VERTEX_SIZE}, line vertices as in
+ * {@link GlyphBatch#LINE_VERTEX_SIZE}; coordinates are relative to the page.
+ * </p>
+ * <p>
+ * Baking holds no OpenGL state; see {@link PageBuffer} for drawing. Static
+ * elements which cannot be baked are kept aside, to be rendered every frame.
+ * </p>
+ *
+ * @author AfterLifeLochie
+ */
+public class PageGeometry {
+    /**
+     * Bake the static elements of a page
+     *
+     * @param page The page
+     * @return The geometry of the page
+     * @throws RenderException When an element cannot be written, such as a
+     *                         line whose font is not loaded
+     */
+    public static PageGeometry bake(IPage page) throws RenderException {
+        if (page == null)
+            throw new IllegalArgumentException("page may not be null");
+        GlyphBatch batch = new GlyphBatch();
+        List<IElement> immediate = new ArrayList<>();
+        for (IElement element : page.staticElements())
+            if (!element.bake(batch))
+                immediate.add(element);
+        return new PageGeometry(batch, immediate);
+    }
+
+    private final float[] quads, lines;
+    private final int lineVertices;
+    private final IGLFont[] fonts;
+    private final int[] pages;
+    private final ResourceLocation[] textures;
+    private final int[] quadStarts, quadCounts;
+    private final int groups;
+    private final List<IElement> immediate;
+
+    private PageGeometry(GlyphBatch batch, List<IElement> immediate) {
+        int segments = batch.segmentCount();
+        fonts = new IGLFont[segments];
+        pages = new int[segments];
+        textures = new ResourceLocation[segments];
+        quadStarts = new int[segments];
+        quadCounts = new int[segments];
+
+        // Segments of the same texture anywhere on the page join one group
+        int[] groupOf = new int[segments];
+        int count = 0, quadVertices = 0, lineCount = 0;
+        for (int s = 0; s < segments; s++) {
+            lineCount += batch.lineCount(s);
+            if (batch.quadCount(s) == 0) {
+                groupOf[s] = -1;
+                continue;
+            }
+            int g = 0;
+            while (g < count && !(fonts[g] == batch.segmentFont(s) && pages[g] == batch.segmentPage(s)
+                && textures[g] == batch.segmentTexture(s)))
+                g++;
+            if (g == count) {
+                fonts[g] = batch.segmentFont(s);
+                pages[g] = batch.segmentPage(s);
+                textures[g] = batch.segmentTexture(s);
+                count++;
+            }
+            groupOf[s] = g;
+            quadCounts[g] += batch.quadCount(s);
+            quadVertices += batch.quadCount(s);
+        }
+        groups = count;
+        for (int g = 1; g < groups; g++)
+            quadStarts[g] = quadStarts[g - 1] + quadCounts[g - 1];
+
+        quads = new float[quadVertices * GlyphBatch.QUAD_VERTEX_SIZE];
+        lines = new float[lineCount * GlyphBatch.LINE_VERTEX_SIZE];
+        int[] filled = new int[groups];
+        int line = 0;
+        for (int s = 0; s < segments; s++) {
+            int g = groupOf[s];
+            if (g != -1) {
+                System.arraycopy(batch.quadData(), batch.quadStart(s) * GlyphBatch.QUAD_VERTEX_SIZE, quads,
+                    (quadStarts[g] + filled[g]) * GlyphBatch.QUAD_VERTEX_SIZE,
+                    batch.quadCount(s) * GlyphBatch.QUAD_VERTEX_SIZE);
+                filled[g] += batch.quadCount(s);
+            }
+            System.arraycopy(batch.lineData(), batch.lineStart(s) * GlyphBatch.LINE_VERTEX_SIZE, lines,
+                line * GlyphBatch.LINE_VERTEX_SIZE, batch.lineCount(s) * GlyphBatch.LINE_VERTEX_SIZE);
+            line += batch.lineCount(s);
+        }
+        lineVertices = lineCount;
+        this.immediate = Collections.unmodifiableList(immediate);
+    }
+
+    public boolean isEmpty() {
+        return quads.length == 0 && lines.length == 0;
+    }
+
+    /**
+     * @return the number of texture groups
+     */
+    public int groupCount() {
+        return groups;
+    }
+
+    /**
+     * @return the font of a group, or null if the group is drawn from a
+     * texture
+     */
+    public IGLFont groupFont(int group) {
+        return fonts[group];
+    }
+
+    /**
+     * @return the atlas page of the font a group is drawn from
+     */
+    public int groupPage(int group) {
+        return pages[group];
+    }
+
+    /**
+     * @return the texture of a group, or null if the group is drawn from a
+     * font
+     */
+    public ResourceLocation groupTexture(int group) {
+        return textures[group];
+    }
+
+    /**
+     * @return the first quad vertex of a group
+     */
+    public int quadStart(int group) {
+        return quadStarts[group];
+    }
+
+    /**
+     * @return the number of quad vertices in a group
+     */
+    public int quadCount(int group) {
+        return quadCounts[group];
+    }
+
+    /**
+     * @return the number of line vertices on the page
+     */
+    public int lineCount() {
+        return lineVertices;
+    }
+
+    /**
+     * @return the interleaved quad vertex data, in group order
+     */
+    public float[] quadData() {
+        return quads;
+    }
+
+    /**
+     * @return the interleaved line vertex data
+     */
+    public float[] lineData() {
+        return lines;
+    }
+
+    /**
+     * @return the static elements which could not be baked, in page order
+     */
+    public List<IElement> immediateElements() {
+        return immediate;
+    }
+
+    @Override
+    public String toString() {
+        return "PageGeometry { groups: " + groups + ", quads: " + quads.length / GlyphBatch.QUAD_VERTEX_SIZE
+            + ", lines: " + lineVertices + ", immediate: " + immediate.size() + " }";
+    }
+}
@@ -0,0 +1,425 @@
+package net.afterlifelochie.fontbox.render;
+
+import net.afterlifelochie.fontbox.api.render.IRenderBackend;
+import net.minecraft.item.ItemStack;
+import net.minecraft.util.ResourceLocation;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * <p>
+ * A render backend which draws nothing, and instead records every operation
+ * in memory, so that the renderer can be benchmarked and its output compared
+ * without a display. The record can be read back operation by operation, or
+ * as text with one operation on each line.
+ * </p>
+ * <p>
+ * Draws of vertex data are recorded with the number of vertices drawn and
+ * the box around their positions, rather than every vertex. Uploads to buffer
+ * objects are copied, so buffered draws are recorded in the same way.
+ * Recording allocates nothing once the record has grown to the size of a
+ * frame; {@link #clear()} keeps the room the record has grown to.
+ * </p>
+ *
+ * @author AfterLifeLochie
+ */
+public class RecordingRenderBackend implements IRenderBackend {
+    /**
+     * The operations recorded
+     */
+    public enum Op {
+        PUSH_MATRIX, POP_MATRIX, TRANSLATE, SCALE, COLOR, ENABLE_BLEND, DISABLE_BLEND, BIND_TEXTURE,
+        BEGIN_DISTANCE_FIELD, END_DISTANCE_FIELD, RECT, TEXTURED_RECT, LINE, QUADS, LINES, ITEM, CREATE_BUFFER,
+        UPLOAD_BUFFER, DELETE_BUFFER, BEGIN_VERTICES, END_VERTICES, CREATE_LISTS, BEGIN_LIST, END_LIST, CALL_LIST,
+        RESET_STATE, DELETE_LISTS
+    }
+
+    private final boolean buffers;
+    private Op[] ops = new Op[64];
+    private int[] argStarts = new int[64];
+    private Object[] refs = new Object[64];
+    private float[] args = new float[256];
+    private int size, argSize;
+    private long vertices;
+
+    /**
+     * Copies of what has been uploaded to each buffer object, by name
+     */
+    private final List<ByteBuffer> uploads = new ArrayList<>();
+    private int lists;
+    /**
+     * The vertex data being drawn from
+     */
+    private ByteBuffer data;
+
+    /**
+     * Create a recording backend which has buffer objects
+     */
+    public RecordingRenderBackend() {
+        this(true);
+    }
+
+    /**
+     * Create a recording backend
+     *
+     * @param buffers If the backend has buffer objects
+     */
+    public RecordingRenderBackend(boolean buffers) {
+        this.buffers = buffers;
+    }
+
+    /**
+     * @return the number of operations recorded
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return an operation of the record
+     */
+    public Op op(int index) {
+        return ops[index];
+    }
+
+    /**
+     * @return an argument of an operation of the record
+     */
+    public float arg(int index, int arg) {
+        return args[argStarts[index] + arg];
+    }
+
+    /**
+     * @return the number of arguments of an operation of the record
+     */
+    public int argCount(int index) {
+        return ((index + 1 < size) ? argStarts[index + 1] : argSize) - argStarts[index];
+    }
+
+    /**
+     * @return the texture or item stack of an operation, or null if it has
+     * none
+     */
+    public Object ref(int index) {
+        return refs[index];
+    }
+
+    /**
+     * @return the number of times an operation has been recorded
+     */
+    public int count(Op op) {
+        int count = 0;
+        for (int i = 0; i < size; i++)
+            if (ops[i] == op)
+                count++;
+        return count;
+    }
+
+    /**
+     * @return the number of vertices drawn since the backend was created
+     */
+    public long vertices() {
+        return vertices;
+    }
+
+    /**
+     * Forget every operation recorded. Buffer objects and display lists are
+     * kept.
+     */
+    public void clear() {
+        Arrays.fill(refs, 0, size, null);
+        size = 0;
+        argSize = 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        for (int i = 0; i < size; i++) {
+            result.append(ops[i].name().toLowerCase(Locale.ROOT));
+            for (int k = 0, n = argCount(i); k < n; k++)
+                result.append(' ').append(arg(i, k));
+            if (refs[i] != null)
+                result.append(' ').append(refs[i]);
+            result.append('\n');
+        }
+        return result.toString();
+    }
+
+    @Override
+    public void checkError() {
+        /* Nothing can fail */
+    }
+
+    @Override
+    public void pushMatrix() {
+        record(Op.PUSH_MATRIX, null);
+    }
+
+    @Override
+    public void popMatrix() {
+        record(Op.POP_MATRIX, null);
+    }
+
+    @Override
+    public void translate(float x, float y, float z) {
+        record(Op.TRANSLATE, null, x, y, z);
+    }
+
+    @Override
+    public void scale(float x, float y, float z) {
+        record(Op.SCALE, null, x, y, z);
+    }
+
+    @Override
+    public void color(float r, float g, float b, float a) {
+        record(Op.COLOR, null, r, g, b, a);
+    }
+
+    @Override
+    public void enableBlend() {
+        record(Op.ENABLE_BLEND, null);
+    }
+
+    @Override
+    public void disableBlend() {
+        record(Op.DISABLE_BLEND, null);
+    }
+
+    @Override
+    public void bindTexture(int texture) {
+        record(Op.BIND_TEXTURE, null, texture);
+    }
+
+    @Override
+    public void bindTexture(ResourceLocation texture) {
+        record(Op.BIND_TEXTURE, texture);
+    }
+
+    @Override
+    public void beginDistanceField() {
+        record(Op.BEGIN_DISTANCE_FIELD, null);
+    }
+
+    @Override
+    public void endDistanceField() {
+        record(Op.END_DISTANCE_FIELD, null);
+    }
+
+    @Override
+    public void drawRect(float x, float y, float w, float h, float z) {
+        vertices += 4;
+        record(Op.RECT, null, x, y, w, h, z);
+    }
+
+    @Override
+    public void drawTexturedRect(float x, float y, float w, float h, float u, float v, float us, float vs, float z) {
+        vertices += 4;
+        record(Op.TEXTURED_RECT, null, x, y, w, h, z);
+        arg(u);
+        arg(v);
+        arg(us);
+        arg(vs);
+    }
+
+    @Override
+    public void drawLine(float xBegin, float yBegin, float xEnd, float yEnd, float z) {
+        vertices += 2;
+        record(Op.LINE, null, xBegin, yBegin, xEnd, yEnd, z);
+    }
+
+    @Override
+    public void drawQuads(float[] quads, int first, int count) {
+        drawn(Op.QUADS, count);
+        bounds(quads, first, count, GlyphBatch.QUAD_VERTEX_SIZE);
+    }
+
+    @Override
+    public void drawLines(float[] lines, int first, int count) {
+        drawn(Op.LINES, count);
+        bounds(lines, first, count, GlyphBatch.LINE_VERTEX_SIZE);
+    }
+
+    @Override
+    public void drawItem(ItemStack stack, float x, float y, float w, float h) {
+        record(Op.ITEM, stack, x, y, w, h);
+    }
+
+    @Override
+    public boolean useBuffers() {
+        return buffers;
+    }
+
+    @Override
+    public int createBuffer() {
+        uploads.add(null);
+        record(Op.CREATE_BUFFER, null, uploads.size());
+        return uploads.size();
+    }
+
+    @Override
+    public void uploadBuffer(int buffer, ByteBuffer data) {
+        ByteBuffer copy = uploads.get(buffer - 1);
+        if (copy == null || copy.capacity() < data.remaining())
+            copy = ByteBuffer.allocate(data.remaining()).order(ByteOrder.nativeOrder());
+        copy.clear();
+        copy.put(data.duplicate().order(data.order()));
+        copy.flip();
+        uploads.set(buffer - 1, copy);
+        record(Op.UPLOAD_BUFFER, null, buffer, copy.remaining());
+    }
+
+    @Override
+    public void deleteBuffer(int buffer) {
+        uploads.set(buffer - 1, null);
+        record(Op.DELETE_BUFFER, null, buffer);
+    }
+
+    @Override
+    public void beginVertices(int buffer, ByteBuffer data) {
+        this.data = (buffer != -1) ? uploads.get(buffer - 1) : data;
+        record(Op.BEGIN_VERTICES, null, buffer);
+    }
+
+    @Override
+    public void drawQuads(int offset, int first, int count) {
+        drawn(Op.QUADS, count);
+        bounds(offset, first, count, GlyphBatch.QUAD_VERTEX_SIZE);
+    }
+
+    @Override
+    public void drawLines(int offset, int count) {
+        drawn(Op.LINES, count);
+        bounds(offset, 0, count, GlyphBatch.LINE_VERTEX_SIZE);
+    }
+
+    @Override
+    public void endVertices() {
+        data = null;
+        record(Op.END_VERTICES, null);
+    }
+
+    @Override
+    public int createLists(int count) {
+        record(Op.CREATE_LISTS, null, lists + 1, count);
+        lists += count;
+        return lists - count + 1;
+    }
+
+    @Override
+    public void beginList(int list) {
+        record(Op.BEGIN_LIST, null, list);
+    }
+
+    @Override
+    public void endList() {
+        record(Op.END_LIST, null);
+    }
+
+    @Override
+    public void callList(int list) {
+        record(Op.CALL_LIST, null, list);
+    }
+
+    @Override
+    public void resetState() {
+        record(Op.RESET_STATE, null);
+    }
+
+    @Override
+    public void deleteLists(int list, int count) {
+        record(Op.DELETE_LISTS, null, list, count);
+    }
+
+    private void drawn(Op op, int count) {
+        vertices += count;
+        record(op, null, count);
+    }
+
+    /**
+     * Add the box around the positions of some vertices in an array
+     */
+    private void bounds(float[] data, int first, int count, int stride) {
+        float x0 = Float.POSITIVE_INFINITY, y0 = Float.POSITIVE_INFINITY;
+        float x1 = Float.NEGATIVE_INFINITY, y1 = Float.NEGATIVE_INFINITY;
+        for (int v = first; v < first + count; v++) {
+            float x = data[v * stride], y = data[v * stride + 1];
+            x0 = Math.min(x0, x);
+            y0 = Math.min(y0, y);
+            x1 = Math.max(x1, x);
+            y1 = Math.max(y1, y);
+        }
+        arg(x0);
+        arg(y0);
+        arg(x1);
+        arg(y1);
+    }
+
+    /**
+     * Add the box around the positions of some vertices in the data begun
+     */
+    private void bounds(int offset, int first, int count, int stride) {
+        float x0 = Float.POSITIVE_INFINITY, y0 = Float.POSITIVE_INFINITY;
+        float x1 = Float.NEGATIVE_INFINITY, y1 = Float.NEGATIVE_INFINITY;
+        for (int v = first; v < first + count; v++) {
+            int at = offset + v * stride * 4;
+            float x = data.getFloat(at), y = data.getFloat(at + 4);
+            x0 = Math.min(x0, x);
+            y0 = Math.min(y0, y);
+            x1 = Math.max(x1, x);
+            y1 = Math.max(y1, y);
+        }
+        arg(x0);
+        arg(y0);
+        arg(x1);
+        arg(y1);
+    }
+
+    private void record(Op op, Object ref) {
+        if (size == ops.length) {
+            ops = Arrays.copyOf(ops, size * 2);
+            argStarts = Arrays.copyOf(argStarts, size * 2);
+            refs = Arrays.copyOf(refs, size * 2);
+        }
+        ops[size] = op;
+        argStarts[size] = argSize;
+        refs[size] = ref;
+        size++;
+    }
+
+    private void record(Op op, Object ref, float a) {
+        record(op, ref);
+        arg(a);
+    }
+
+    private void record(Op op, Object ref, float a, float b) {
+        record(op, ref, a);
+        arg(b);
+    }
+
+    private void record(Op op, Object ref, float a, float b, float c) {
+        record(op, ref, a, b);
+        arg(c);
+    }
+
+    private void record(Op op, Object ref, float a, float b, float c, float d) {
+        record(op, ref, a, b, c);
+        arg(d);
+    }
+
+    private void record(Op op, Object ref, float a, float b, float c, float d, float e) {
+        record(op, ref, a, b, c, d);
+        arg(e);
+    }
+
+    private void arg(float value) {
+        if (argSize == args.length)
+            args = Arrays.copyOf(args, argSize * 2);
+        args[argSize++] = value;
+    }
+}
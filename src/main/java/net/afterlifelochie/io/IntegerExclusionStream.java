@@ -1,16 +1,27 @@
 package net.afterlifelochie.io;
 
-import java.util.Set;
-import java.util.TreeSet;
+import java.util.Arrays;
 
 /**
- * A stream of integers with certain numbers excluded
+ * A stream of integers with certain numbers excluded. The excluded numbers are
+ * stored as sorted, merged intervals.
  */
 public class IntegerExclusionStream {
     private volatile int ptr;
     private final int min;
     private final int max;
-    private Set<Integer> exclusions = new TreeSet<>();
+    /**
+     * The lower bound of each excluded interval, sorted ascending
+     */
+    private int[] lo = new int[4];
+    /**
+     * The upper bound of each excluded interval
+     */
+    private int[] hi = new int[4];
+    /**
+     * The number of excluded intervals; intervals never overlap or touch
+     */
+    private int intervals;
 
     public IntegerExclusionStream(int min, int max) {
         this.min = min;
@@ -19,7 +30,7 @@ public class IntegerExclusionStream {
     }
 
     public void exclude(int i) {
-        exclusions.add(i);
+        excludeRange(i, i);
     }
 
     /**
@@ -30,31 +41,49 @@ public class IntegerExclusionStream {
      * @param b right bound
      */
     public void excludeRange(int a, int b) {
-        if (a == b) {
-            exclude(a);
-        } else {
-            for (int n = Math.min(a, b), p = Math.max(a, b); n <= p; n++) {
-                exclude(n);
-            }
+        int from = Math.min(a, b), to = Math.max(a, b);
+        // first interval which ends at or after from - 1 (touching or overlapping)
+        int first = Arrays.binarySearch(hi, 0, intervals, from - 1);
+        if (first < 0)
+            first = -(first + 1);
+        // last interval which starts at or before to + 1
+        int last = first;
+        while (last < intervals && lo[last] <= to + 1)
+            last++;
+        if (last > first) {
+            from = Math.min(from, lo[first]);
+            to = Math.max(to, hi[last - 1]);
+        }
+        int removed = last - first;
+        if (removed == 0 && intervals == lo.length) {
+            lo = Arrays.copyOf(lo, intervals * 2);
+            hi = Arrays.copyOf(hi, intervals * 2);
         }
+        if (removed != 1) {
+            System.arraycopy(lo, last, lo, first + 1, intervals - last);
+            System.arraycopy(hi, last, hi, first + 1, intervals - last);
+            intervals += 1 - removed;
+        }
+        lo[first] = from;
+        hi[first] = to;
     }
 
     /**
      * @return the start ptr of the largest gap
      */
     public int largest() {
-        int size = 0, bestStart = 0, bestSize = 0;
-        for (int start = min; start <= max; start++) {
-            if (exclusions.contains(start)) {
-                if (size > bestSize) {
-                    bestStart = start - size;
-                    bestSize = size;
-                }
-                size = 0;
-            } else {
-                size++;
+        int start = min, bestStart = 0, bestSize = 0;
+        for (int i = 0; i < intervals && lo[i] <= max; i++) {
+            if (hi[i] < min)
+                continue;
+            int size = Math.max(lo[i], min) - start;
+            if (size > bestSize) {
+                bestStart = start;
+                bestSize = size;
             }
+            start = hi[i] + 1;
         }
+        int size = Math.max(0, max - start + 1);
         if (size > bestSize) {
             bestStart = max - size;
             bestSize = size;
@@ -66,24 +95,38 @@ public class IntegerExclusionStream {
      * @return the next integer in the stream
      */
     public int next() {
-        while (true) {
-            ptr++;
-            if (!exclusions.contains(ptr))
-                break;
-        }
-        return ptr;
+        int next = ptr + 1;
+        int i = find(next);
+        if (i != -1)
+            next = hi[i] + 1;
+        ptr = next;
+        return next;
     }
 
     /**
      * @return the previous integer in the stream
      */
     public int previous() {
-        while (true) {
-            ptr--;
-            if (!exclusions.contains(ptr))
-                break;
-        }
-        return ptr;
+        int previous = ptr - 1;
+        int i = find(previous);
+        if (i != -1)
+            previous = lo[i] - 1;
+        ptr = previous;
+        return previous;
+    }
+
+    /**
+     * Find the excluded interval containing an integer
+     *
+     * @param value the integer
+     * @return the index of the interval, or -1 if the integer is not excluded
+     */
+    private int find(int value) {
+        int i = Arrays.binarySearch(lo, 0, intervals, value);
+        if (i >= 0)
+            return i;
+        i = -(i + 1) - 1;
+        return (i >= 0 && hi[i] >= value) ? i : -1;
     }
 
 }
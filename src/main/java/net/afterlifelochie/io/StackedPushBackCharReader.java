@@ -0,0 +1,215 @@
+package net.afterlifelochie.io;
+
+import java.io.IOException;
+
+/**
+ * Reader over a {@link CharSequence} or char array with nested (stack-based)
+ * pushback and mark functionality, particularly useful for recursive parsers
+ * and readers.
+ * <p>
+ * The source is read in place and is never copied, and no locks are taken;
+ * instances must only be used by one thread at a time. See
+ * {@link StackedPushBackStringReader} for a synchronized variant.
+ * </p>
+ *
+ * @author AfterLifeLochie
+ */
+public class StackedPushBackCharReader {
+    /**
+     * The maximum depth of the pushback history stack
+     */
+    private static final int MAX_PUSHBACK = 65;
+
+    /**
+     * The source characters, when reading from an array
+     */
+    private char[] chars;
+    /**
+     * The source sequence, when reading from a CharSequence
+     */
+    private CharSequence seq;
+    /**
+     * The number of characters in the stream
+     */
+    private int length;
+    /**
+     * Pushback history stack
+     */
+    private final int[] pushback = new int[MAX_PUSHBACK];
+    /**
+     * Pushback history stack depth
+     */
+    private int depth = 0;
+    /**
+     * Top of stream pointer
+     */
+    private int next = 0;
+
+    /**
+     * Create a new StackedPushBackCharReader at the start of a character
+     * sequence. The sequence is not copied and must not be modified while it
+     * is being read.
+     *
+     * @param s The source sequence.
+     */
+    public StackedPushBackCharReader(CharSequence s) {
+        seq = s;
+        length = s.length();
+    }
+
+    /**
+     * Create a new StackedPushBackCharReader at the start of a character
+     * array. The array is not copied and must not be modified while it is
+     * being read.
+     *
+     * @param s The source characters.
+     */
+    public StackedPushBackCharReader(char[] s) {
+        chars = s;
+        length = s.length;
+    }
+
+    /**
+     * Check to make sure that the stream has not been closed
+     */
+    private void ensureOpen() throws IOException {
+        if (chars == null && seq == null)
+            throw new IOException("Stream closed");
+    }
+
+    /**
+     * Get the next character on the stream, or 0 if no characters are remaining
+     * on the stream.
+     *
+     * @return A character or 0
+     * @throws IOException If the stream is not open, an IOException will be thrown.
+     */
+    public char next() throws IOException {
+        ensureOpen();
+        if (next >= length)
+            return (char) 0;
+        return (chars != null) ? chars[next++] : seq.charAt(next++);
+    }
+
+    /**
+     * Pushes the current position onto the stack. If the stack is full, a
+     * pushback overflow will be returned.
+     *
+     * @throws IOException If the stream is not open, an IOException will be thrown.
+     */
+    public void pushPosition() throws IOException {
+        ensureOpen();
+        if (depth == MAX_PUSHBACK)
+            throw new IOException("Pusback overflow!");
+        pushback[depth++] = next;
+    }
+
+    /**
+     * Pops the previous position off the stack. If the stack is empty, a
+     * pushback underflow will be returned.
+     *
+     * @throws IOException If the stream is not open, an IOException will be thrown.
+     */
+    public void popPosition() throws IOException {
+        ensureOpen();
+        if (depth == 0)
+            throw new IOException("Pushback underflow!");
+        next = pushback[--depth];
+    }
+
+    /**
+     * Returns the current position of the reader.
+     *
+     * @return The current position of the reader.
+     * @throws IOException If the stream is not open, an IOException will be thrown.
+     */
+    public int getPosition() throws IOException {
+        ensureOpen();
+        return next;
+    }
+
+    /**
+     * Sets the position of the reader.
+     *
+     * @param ns A new position.
+     * @throws IOException If the stream is not open, an IOException will be thrown.
+     */
+    public void setPosition(int ns) throws IOException {
+        ensureOpen();
+        next = ns;
+    }
+
+    /**
+     * Commits the current position of the reader. This pops the previous return
+     * position without restoring the pointer.
+     *
+     * @throws IOException If the stream is not open, an IOException will be thrown.
+     */
+    public void commitPosition() throws IOException {
+        ensureOpen();
+        if (depth == 0)
+            throw new IOException("Pushback underflow!");
+        depth--;
+    }
+
+    /**
+     * Skips forward a number of characters.
+     *
+     * @param ns How far forward to skip.
+     * @throws IOException If the stream is not open, an IOException will be thrown.
+     */
+    public void skip(long ns) throws IOException {
+        ensureOpen();
+        next += ns;
+        if (0 > next)
+            next = 0;
+        if (next > length)
+            next = length;
+    }
+
+    /**
+     * Skips backwards a number of characters.
+     *
+     * @param ns How far backwards to skip.
+     * @throws IOException If the stream is not open, an IOException will be thrown.
+     */
+    public void rewind(long ns) throws IOException {
+        ensureOpen();
+        next -= ns;
+        if (0 > next)
+            next = 0;
+        if (next > length)
+            next = length;
+    }
+
+    /**
+     * Ensures the stream is ready for use.
+     *
+     * @return If the stream is ready for use.
+     * @throws IOException If the stream is not open, an IOException will be thrown.
+     */
+    public boolean ready() throws IOException {
+        ensureOpen();
+        return true;
+    }
+
+    /**
+     * Determine the number of characters remaining in the read collection.
+     *
+     * @return The number of characters waiting to be read.
+     * @throws IOException If the stream is not open, an IOException will be thrown.
+     */
+    public int available() throws IOException {
+        ensureOpen();
+        return Math.max(0, length - next);
+    }
+
+    /**
+     * Closes the reader.
+     */
+    public void close() {
+        chars = null;
+        seq = null;
+    }
+
+}
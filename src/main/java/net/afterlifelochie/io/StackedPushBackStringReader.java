@@ -1,54 +1,30 @@
 package net.afterlifelochie.io;
 
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Stack;
 
 /**
  * StringReader with nested (stack-based) pushback and mark functionality,
- * particularly useful for recursive parsers and readers.
+ * particularly useful for recursive parsers and readers. All operations are
+ * synchronized; single-threaded callers should use
+ * {@link StackedPushBackCharReader} directly.
  *
  * @author AfterLifeLochie
  */
-public class StackedPushBackStringReader {
+public class StackedPushBackStringReader extends StackedPushBackCharReader {
     /**
      * Mutex lock.
      */
     protected final Object lock;
-    /**
-     * Map of all Characters in the stream
-     */
-    private ArrayList<Character> str;
-    /**
-     * Pushback history stack
-     */
-    private Stack<Integer> pushback;
-    /**
-     * Top of stream pointer
-     */
-    private int next = 0;
 
     /**
      * Create a new StackedPushBackStringReader at the start of the string. The
-     * contents of the string are copied to a local buffer.
+     * string is read in place.
      *
      * @param s The source string.
      */
     public StackedPushBackStringReader(String s) {
+        super(s);
         lock = this;
-        str = new ArrayList<>();
-        pushback = new Stack<>();
-        char[] chars = s.toCharArray();
-        for (char c : chars)
-            str.add(c);
-    }
-
-    /**
-     * Check to make sure that the stream has not been closed
-     */
-    private void ensureOpen() throws IOException {
-        if (str == null)
-            throw new IOException("Stream closed");
     }
 
     /**
@@ -59,12 +35,10 @@ public class StackedPushBackStringReader {
      * @throws IOException If the lock cannot be obtained or if the stream is not open,
      *                     an IOException will be thrown.
      */
+    @Override
     public char next() throws IOException {
         synchronized (lock) {
-            ensureOpen();
-            if (next >= str.size())
-                return (char) 0;
-            return str.get(next++);
+            return super.next();
         }
     }
 
@@ -75,12 +49,10 @@ public class StackedPushBackStringReader {
      * @throws IOException If the lock cannot be obtained or if the stream is not open,
      *                     an IOException will be thrown.
      */
+    @Override
     public void pushPosition() throws IOException {
         synchronized (lock) {
-            ensureOpen();
-            if (pushback.size() > 64)
-                throw new IOException("Pusback overflow!");
-            pushback.push(next);
+            super.pushPosition();
         }
     }
 
@@ -91,12 +63,10 @@ public class StackedPushBackStringReader {
      * @throws IOException If the lock cannot be obtained or if the stream is not open,
      *                     an IOException will be thrown.
      */
+    @Override
     public void popPosition() throws IOException {
         synchronized (lock) {
-            ensureOpen();
-            if (pushback.size() == 0)
-                throw new IOException("Pushback underflow!");
-            next = pushback.pop();
+            super.popPosition();
         }
     }
 
@@ -107,10 +77,10 @@ public class StackedPushBackStringReader {
      * @throws IOException If the lock cannot be obtained or if the stream is not open,
      *                     an IOException will be thrown.
      */
+    @Override
     public int getPosition() throws IOException {
         synchronized (lock) {
-            ensureOpen();
-            return next;
+            return super.getPosition();
         }
     }
 
@@ -121,10 +91,10 @@ public class StackedPushBackStringReader {
      * @throws IOException If the lock cannot be obtained or if the stream is not open,
      *                     an IOException will be thrown.
      */
+    @Override
     public void setPosition(int ns) throws IOException {
         synchronized (lock) {
-            ensureOpen();
-            next = ns;
+            super.setPosition(ns);
         }
     }
 
@@ -135,10 +105,10 @@ public class StackedPushBackStringReader {
      * @throws IOException If the lock cannot be obtained or if the stream is not open,
      *                     an IOException will be thrown.
      */
+    @Override
     public void commitPosition() throws IOException {
         synchronized (lock) {
-            ensureOpen();
-            pushback.pop();
+            super.commitPosition();
         }
     }
 
@@ -149,14 +119,10 @@ public class StackedPushBackStringReader {
      * @throws IOException If the lock cannot be obtained or if the stream is not open,
      *                     an IOException will be thrown.
      */
+    @Override
     public void skip(long ns) throws IOException {
         synchronized (lock) {
-            ensureOpen();
-            next += ns;
-            if (0 > next)
-                next = 0;
-            if (next > str.size())
-                next = str.size();
+            super.skip(ns);
         }
     }
 
@@ -167,14 +133,10 @@ public class StackedPushBackStringReader {
      * @throws IOException If the lock cannot be obtained or if the stream is not open,
      *                     an IOException will be thrown.
      */
+    @Override
     public void rewind(long ns) throws IOException {
         synchronized (lock) {
-            ensureOpen();
-            next -= ns;
-            if (0 > next)
-                next = 0;
-            if (next > str.size())
-                next = str.size();
+            super.rewind(ns);
         }
     }
 
@@ -185,10 +147,10 @@ public class StackedPushBackStringReader {
      * @throws IOException If the lock cannot be obtained or if the stream is not open,
      *                     an IOException will be thrown.
      */
+    @Override
     public boolean ready() throws IOException {
         synchronized (lock) {
-            ensureOpen();
-            return true;
+            return super.ready();
         }
     }
 
@@ -199,18 +161,21 @@ public class StackedPushBackStringReader {
      * @throws IOException If the lock cannot be obtained or if the stream is not open,
      *                     an IOException will be thrown.
      */
+    @Override
     public int available() throws IOException {
         synchronized (lock) {
-            ensureOpen();
-            return Math.max(0, str.size() - next);
+            return super.available();
         }
     }
 
     /**
      * Closes the reader.
      */
+    @Override
     public void close() {
-        str = null;
+        synchronized (lock) {
+            super.close();
+        }
     }
 
 }
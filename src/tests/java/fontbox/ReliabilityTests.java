@@ -1,20 +1,279 @@
 package fontbox;
 
 import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
 
+import java.awt.Font;
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.font.FontRenderContext;
+import java.awt.font.TextLayout;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
 
+import net.afterlifelochie.fontbox.api.data.IBook;
+import net.afterlifelochie.fontbox.api.data.IBookProperties;
+import net.afterlifelochie.fontbox.api.data.FormattedString;
+import net.afterlifelochie.fontbox.api.formatting.PageMode;
+import net.afterlifelochie.fontbox.api.formatting.layout.Layout;
+import net.afterlifelochie.fontbox.api.layout.IElement;
+import net.afterlifelochie.fontbox.api.layout.IPage;
+import net.afterlifelochie.fontbox.document.DocumentWrapper;
+import net.afterlifelochie.fontbox.Book;
 import net.afterlifelochie.fontbox.document.CompilerHintElement;
 import net.afterlifelochie.fontbox.api.formatting.layout.CompilerHint;
+import net.afterlifelochie.fontbox.api.formatting.layout.AlignmentMode;
 import net.afterlifelochie.fontbox.api.formatting.layout.FloatMode;
 import net.afterlifelochie.fontbox.api.layout.ObjectBounds;
+import net.afterlifelochie.fontbox.font.DistanceFieldAtlas;
+import net.afterlifelochie.fontbox.font.FontCache;
+import net.afterlifelochie.fontbox.font.GLFontMetrics;
+import net.afterlifelochie.fontbox.font.GLGlyphMetric;
+import net.afterlifelochie.fontbox.font.GlyphAtlas;
+import net.afterlifelochie.fontbox.font.ScaledGlyphMetric;
+import net.afterlifelochie.fontbox.font.TextureData;
+import net.afterlifelochie.fontbox.document.Link;
+import net.afterlifelochie.fontbox.document.Paragraph;
+import net.afterlifelochie.fontbox.document.Image;
+import net.afterlifelochie.fontbox.document.ImageItemStack;
+import net.afterlifelochie.fontbox.layout.LayoutCache;
+import net.afterlifelochie.fontbox.layout.LayoutKey;
+import net.afterlifelochie.fontbox.layout.LazyPageList;
+import net.afterlifelochie.fontbox.layout.PageCodec;
+import net.afterlifelochie.fontbox.layout.PageIndex;
+import net.afterlifelochie.fontbox.layout.PageWriter;
+import net.afterlifelochie.fontbox.layout.components.Line;
+import net.afterlifelochie.fontbox.layout.components.LineWriter;
 import net.afterlifelochie.fontbox.layout.components.Page;
 import net.afterlifelochie.fontbox.api.formatting.PageProperties;
+import net.afterlifelochie.fontbox.api.FontboxManager;
+import net.afterlifelochie.fontbox.api.font.IGLFont;
+import net.afterlifelochie.fontbox.api.font.IGLFontMetrics;
+import net.afterlifelochie.fontbox.api.font.IGLGlyphMetric;
+import net.afterlifelochie.fontbox.api.font.IPreparedFont;
+import net.afterlifelochie.fontbox.api.exception.FontException;
+import net.afterlifelochie.fontbox.api.exception.LayoutException;
+import net.afterlifelochie.fontbox.api.formatting.style.DecorationStyle;
+import net.afterlifelochie.fontbox.api.formatting.style.TextFormat;
+import net.afterlifelochie.fontbox.api.formatting.style.TextFormatter;
+import net.afterlifelochie.fontbox.api.render.IRenderBackend;
+import net.afterlifelochie.fontbox.api.tracer.ITracer;
+import net.afterlifelochie.fontbox.api.tracer.VoidTracer;
+import net.afterlifelochie.fontbox.render.BookGUI;
+import net.afterlifelochie.fontbox.render.FrameScheduler;
+import net.afterlifelochie.fontbox.render.GlyphBatch;
+import net.afterlifelochie.fontbox.render.PageBuffer;
+import net.afterlifelochie.fontbox.render.PageCache;
+import net.afterlifelochie.fontbox.render.PageGeometry;
+import net.afterlifelochie.fontbox.render.RecordingRenderBackend;
+import net.afterlifelochie.fontbox.render.RecordingRenderBackend.Op;
+import net.afterlifelochie.fontbox.render.RenderException;
 import net.afterlifelochie.io.IntegerExclusionStream;
+import net.afterlifelochie.io.StackedPushBackCharReader;
+
+import net.minecraft.client.gui.GuiScreen;
+import net.minecraft.util.ResourceLocation;
 
 import org.junit.Test;
 
 public class ReliabilityTests {
+	/**
+	 * Create a font with no texture where every glyph from 'a' to 'z' is 10
+	 * units wide and 12 units high.
+	 */
+	private static IGLFont testFont(final String name) {
+		final Map<Integer, IGLGlyphMetric> glyphs = new HashMap<>();
+		for (char c = 'a'; c <= 'z'; c++)
+			glyphs.put((int) c, new GLGlyphMetric(10, 12, 9, (c - 'a') * 10, 12));
+		return testFont(name, new IGLFontMetrics() {
+			public Map<Integer, IGLGlyphMetric> getGlyphs() {
+				return glyphs;
+			}
+
+			public float getFontImageWidth() {
+				return 260;
+			}
+
+			public float getFontImageHeight() {
+				return 24;
+			}
+		});
+	}
+
+	/**
+	 * Create a font with no texture over some metrics.
+	 */
+	private static IGLFont testFont(final String name, final IGLFontMetrics metric) {
+		return new IGLFont() {
+			public String getName() {
+				return name;
+			}
+
+			public int getTextureId() {
+				return 1;
+			}
+
+			public float getScale() {
+				return 1.0f;
+			}
+
+			public IGLFontMetrics getMetric() {
+				return metric;
+			}
+
+			public void delete(FontboxManager manager) {
+			}
+		};
+	}
+
+	/**
+	 * Create two-page book properties with pages of a given size.
+	 */
+	private static IBookProperties testBook(final PageProperties properties) {
+		return new IBookProperties() {
+			public PageProperties getPageProperties() {
+				return properties;
+			}
+
+			public PageMode getPageMode() {
+				return new PageMode(new Layout(0, 0), new Layout(properties.width, 0));
+			}
+
+			public void onPageChanged(GuiScreen gui, int whatPtr, int lastPage) {
+			}
+
+			public void drawBackground(int width, int height, int mx, int my, float frame, float zLevel) {
+			}
+
+			public void drawForeground(int width, int height, int mx, int my, float frame, float zLevel) {
+			}
+
+			public int getBookWidth() {
+				return properties.width * 2;
+			}
+
+			public int getBookHeight() {
+				return properties.height;
+			}
+		};
+	}
+
+	/**
+	 * Describe every element on every page of a book, including the text and
+	 * spacing of each line.
+	 */
+	private static String describe(IBook book) {
+		StringBuilder result = new StringBuilder();
+		for (IPage page : book.pages()) {
+			result.append("page\n");
+			for (IElement element : page.allElements()) {
+				result.append(element.getClass().getSimpleName()).append(' ').append(element.bounds());
+				if (element instanceof Line)
+					result.append(' ').append(((Line) element).line).append(' ').append(((Line) element).space_size);
+				result.append('\n');
+			}
+		}
+		return result.toString();
+	}
+
+	/**
+	 * Describe the format runs of a formatter, by font name.
+	 */
+	private static String describe(TextFormatter formatter) {
+		StringBuilder result = new StringBuilder();
+		for (int run = 0; run < formatter.runCount(); run++)
+			result.append(formatter.runStart(run)).append(' ').append(formatter.runFormat(run).font.getName()).append('\n');
+		return result.toString();
+	}
+
+	/**
+	 * Check the bounds of a line from a justifying writer against its glyphs,
+	 * measured one by one.
+	 */
+	private static void assertMeasured(Line line, int words) {
+		int width = 0, ascent = 0;
+		for (int i = 0; i < line.line.length; i++)
+			if (line.line[i] != ' ') {
+				IGLGlyphMetric glyph = line.formatter.getFormat(i).font.getMetric().glyph(line.line[i]);
+				width += glyph.getWidth();
+				ascent = Math.max(ascent, glyph.getAscent());
+			}
+		width += Math.max(words - 2, 0) * line.space_size;
+		assertEquals("line bounds not measured", "[0, 0] => [" + width + " x " + ascent + "]", String.valueOf(line.bounds()));
+	}
+
+	/**
+	 * Create a justifying line writer which has emitted a line of the first
+	 * words, if there are any, and holds the count words after them.
+	 */
+	private static LineWriter lineWriter(TextFormatter formatter, String[] words, int first, int count) throws Exception {
+		PageWriter pages = new PageWriter(new PageProperties(4000, 400, null), new FontboxManager());
+		LineWriter writer = new LineWriter(pages, formatter, AlignmentMode.JUSTIFY, null);
+		for (int i = 0; i < first; i++)
+			writer.push(words[i], false);
+		if (first > 0)
+			writer.emit();
+		for (int i = first; i < first + count; i++)
+			writer.push(words[i], false);
+		return writer;
+	}
+
+	/**
+	 * Count the bytes an action allocates on this thread when run many times.
+	 * The JIT may allocate once or twice while it settles, so the action is
+	 * run in rounds until one allocates nothing; allocating on every run
+	 * would show in every round.
+	 */
+	private static long allocatedBytes(int runs, Runnable action) {
+		java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+		assumeTrue("allocation counting unsupported", bean instanceof com.sun.management.ThreadMXBean);
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) bean;
+		assumeTrue("allocation counting unsupported", threads.isThreadAllocatedMemorySupported());
+		threads.setThreadAllocatedMemoryEnabled(true);
+
+		long thread = Thread.currentThread().getId();
+		threads.getThreadAllocatedBytes(thread);
+		long allocated = -1;
+		for (int round = 0; round < 10 && allocated != 0; round++) {
+			long before = threads.getThreadAllocatedBytes(thread);
+			for (int i = 0; i < runs; i++)
+				action.run();
+			allocated = threads.getThreadAllocatedBytes(thread) - before;
+		}
+		return allocated;
+	}
+
+	/**
+	 * Add several headed chapters split by page breaks to a document.
+	 */
+	private static DocumentWrapper testDocument(DocumentWrapper document, int chapters) {
+		for (int i = 0; i < chapters; i++) {
+			document.addHeading("chapter" + i, "chapter");
+			for (int j = 0; j <= i % 3; j++)
+				document.addParagraph("lorem ipsum dolor sit amet consectetur adipiscing elit sed do eiusmod tempor");
+			document.pageBreak();
+		}
+		return document;
+	}
+
 	/**
 	 * Test to check if the ObjectBounds intersections are computed correctly.
 	 */
@@ -52,6 +311,145 @@ public class ReliabilityTests {
 		assertFalse("box is outside bounds", testPage.insidePage(new ObjectBounds(50, 50, 100, 100, FloatMode.NONE)));
 	}
 
+	/**
+	 * Test to check that Page finds elements through its spatial index.
+	 */
+	@Test
+	public void testPageElementLookup() {
+		Page testPage = new Page(new PageProperties(100, 200, null));
+		Line top = new Line(new char[0], null, new ObjectBounds(0, 0, 100, 10, FloatMode.NONE), 0);
+		Line tall = new Line(new char[0], null, new ObjectBounds(0, 20, 40, 150, FloatMode.LEFT), 0);
+		Line side = new Line(new char[0], null, new ObjectBounds(50, 100, 50, 10, FloatMode.NONE), 0);
+		testPage.push(top);
+		testPage.push(tall);
+		testPage.push(side);
+		assertSame("(5, 5) is not top", top, testPage.elementAt(5, 5));
+		assertSame("(10, 160) is not tall", tall, testPage.elementAt(10, 160));
+		assertSame("(60, 105) is not side", side, testPage.elementAt(60, 105));
+		assertNull("(60, 150) is not empty", testPage.elementAt(60, 150));
+		assertSame("box does not hit tall", tall,
+			testPage.intersectsElement(new ObjectBounds(30, 140, 10, 10, FloatMode.NONE)));
+		assertNull("box hits something",
+			testPage.intersectsElement(new ObjectBounds(45, 20, 50, 70, FloatMode.NONE)));
+		assertEquals("flow bottom ignores floats", 110, testPage.flowBottom());
+		assertSame("lowest is not tall", tall, testPage.lowestElement());
+		try {
+			testPage.staticElements().add(side);
+			fail("element lists must not be changed around the index");
+		} catch (UnsupportedOperationException e) {
+			/* expected */
+		}
+	}
+
+	/**
+	 * Test to check that the flow bottom and lowest element a page keeps as
+	 * elements are pushed match a full scan of its elements, and that the view
+	 * of all elements follows later pushes.
+	 */
+	@Test
+	public void testPageLowestElement() {
+		Page testPage = new Page(new PageProperties(100, 200, null));
+		Iterable<IElement> all = testPage.allElements();
+		Line first = new Line(new char[0], null, new ObjectBounds(0, 40, 10, 10, FloatMode.NONE), 0);
+		ImageItemStack tied = new ImageItemStack(null, 10, 10);
+		tied.setBounds(new ObjectBounds(20, 40, 10, 10, FloatMode.NONE));
+		Line later = new Line(new char[0], null, new ObjectBounds(40, 30, 10, 20, FloatMode.NONE), 0);
+		Line floating = new Line(new char[0], null, new ObjectBounds(60, 90, 10, 10, FloatMode.RIGHT), 0);
+		testPage.push(tied);
+		testPage.push(first);
+		testPage.push(later);
+		assertSame("static does not win tie", first, testPage.lowestElement());
+		testPage.push(floating);
+		assertEquals("flow bottom includes floats", 50, testPage.flowBottom());
+		assertSame("lowest is not the float", floating, testPage.lowestElement());
+
+		Random random = new Random(42);
+		for (int i = 0; i < 200; i++) {
+			ObjectBounds bounds = new ObjectBounds(random.nextInt(90), random.nextInt(200) - 20, 10, random.nextInt(30),
+				(random.nextInt(4) == 0) ? FloatMode.LEFT : FloatMode.NONE);
+			if (random.nextBoolean())
+				testPage.push(new Line(new char[0], null, bounds, 0));
+			else {
+				ImageItemStack item = new ImageItemStack(null, 10, 10);
+				item.setBounds(bounds);
+				testPage.push(item);
+			}
+
+			List<IElement> scanned = new ArrayList<>(testPage.staticElements());
+			scanned.addAll(testPage.dynamicElements());
+			List<IElement> viewed = new ArrayList<>();
+			all.forEach(viewed::add);
+			assertEquals("view does not follow pushes", scanned, viewed);
+
+			int flowBottom = Integer.MIN_VALUE, bottom = 0;
+			IElement lowest = null;
+			for (IElement element : scanned) {
+				ObjectBounds bb = element.bounds();
+				if (!bb.floating())
+					flowBottom = Math.max(flowBottom, bb.y + bb.height);
+				if (bb.y + bb.height > bottom) {
+					bottom = bb.y + bb.height;
+					lowest = element;
+				}
+			}
+			assertEquals("flow bottom differs from scan after " + i, flowBottom, testPage.flowBottom());
+			assertSame("lowest differs from scan after " + i, lowest, testPage.lowestElement());
+		}
+	}
+
+	/**
+	 * Test to check that the running totals of a line writer match a new
+	 * writer holding the same words and the glyphs measured one by one, after
+	 * words are pushed past the first sixteen across several format runs, and
+	 * after popping drops runs.
+	 */
+	@Test
+	public void testLineWriterTotals() throws Exception {
+		final Map<Integer, IGLGlyphMetric> glyphs = new HashMap<>();
+		for (char c = 'a'; c <= 'z'; c++)
+			glyphs.put((int) c, new GLGlyphMetric(20, 16, 14, (c - 'a') * 20, 16));
+		IGLFont big = testFont("big", new IGLFontMetrics() {
+			public Map<Integer, IGLGlyphMetric> getGlyphs() {
+				return glyphs;
+			}
+
+			public float getFontImageWidth() {
+				return 520;
+			}
+
+			public float getFontImageHeight() {
+				return 32;
+			}
+		});
+		IGLFont small = testFont("small");
+		TextFormatter formatter = new TextFormatter(new TextFormat(small));
+		for (int start = 4; start < 80; start += 7)
+			formatter.addFormatting(start, new TextFormat((start / 7 % 2 == 0) ? big : small));
+		// Only words before the sixteenth of the second line are in the big font
+		formatter.addFormatting(80, new TextFormat(small));
+		String[] words = new String[40];
+		for (int i = 0; i < words.length; i++)
+			words[i] = "abcd".substring(0, 1 + i % 4);
+
+		LineWriter grown = lineWriter(formatter, words, 10, 24);
+		LineWriter fresh = lineWriter(new TextFormatter(formatter), words, 10, 24);
+		assertEquals("grown bounds differ", String.valueOf(fresh.pendingBounds()), String.valueOf(grown.pendingBounds()));
+		assertMeasured(fresh.emit(), 24);
+
+		int runs = formatter.runCount();
+		for (int i = 33; i >= 28; i--)
+			assertEquals("wrong word popped", words[i], grown.pop(false));
+		assertTrue("no runs dropped", runs > formatter.runCount());
+		fresh = lineWriter(new TextFormatter(formatter), words, 10, 18);
+		assertEquals("popped bounds differ", String.valueOf(fresh.pendingBounds()), String.valueOf(grown.pendingBounds()));
+
+		Line expected = fresh.emit(), actual = grown.emit();
+		assertEquals("line text differs", new String(expected.line), new String(actual.line));
+		assertEquals("line spaces differ", expected.space_size, actual.space_size);
+		assertEquals("line formatter differs", describe(expected.formatter), describe(actual.formatter));
+		assertMeasured(actual, 18);
+	}
+
 	/**
 	 * Test to check that CompilerHints doesn't accept bad constructor
 	 * parameters.
@@ -108,4 +506,833 @@ public class ReliabilityTests {
 			fail("Unexpected exception: " + t);
 		}
 	}
+
+	/**
+	 * Test to check that integer exclusion streams find the largest gap.
+	 */
+	@Test
+	public void testIntegerStreamGaps() {
+		IntegerExclusionStream stream = new IntegerExclusionStream(0, 20);
+		stream.excludeRange(0, 5);
+		stream.excludeRange(8, 20);
+		assertEquals("gap is not at 6", 6, stream.largest());
+
+		stream = new IntegerExclusionStream(0, 40);
+		stream.excludeRange(0, 5);
+		stream.excludeRange(12, 14);
+		stream.excludeRange(13, 30);
+		stream.exclude(11);
+		stream.excludeRange(31, 40);
+		assertEquals("gap is not at 6", 6, stream.largest());
+		assertEquals("first is not 6", 6, stream.next());
+		for (int i = 7; i <= 10; i++)
+			stream.next();
+		assertEquals("merged ranges not skipped", 41, stream.next());
+	}
+
+	/**
+	 * Test to check that text formatters resolve format runs properly.
+	 */
+	@Test
+	public void testTextFormatter() {
+		TextFormat base = new TextFormat(null), bold = new TextFormat(null), italic = new TextFormat(null);
+		TextFormatter formatter = new TextFormatter(base);
+		formatter.addFormatting(10, italic);
+		formatter.addFormatting(5, bold);
+		assertSame("0 is not base", base, formatter.getFormat(0));
+		assertSame("4 is not base", base, formatter.getFormat(4));
+		assertSame("5 is not bold", bold, formatter.getFormat(5));
+		assertSame("9 is not bold", bold, formatter.getFormat(9));
+		assertSame("100 is not italic", italic, formatter.getFormat(100));
+
+		TextFormatter sub = formatter.getFormatter(7, 5);
+		assertSame("sub 0 is not bold", bold, sub.getFormat(0));
+		assertSame("sub 3 is not italic", italic, sub.getFormat(3));
+		assertEquals("sub has wrong run count", 2, sub.runCount());
+
+		formatter.cleanAfter(5);
+		assertEquals("clean left wrong run count", 1, formatter.runCount());
+		assertSame("clean removed base", base, formatter.getFormat(100));
+	}
+
+	/**
+	 * Test to check that lines generate batched glyph geometry per font.
+	 */
+	@Test
+	public void testLineTessellation() throws RenderException {
+		IGLFont fontA = testFont("a"), fontB = testFont("b");
+		TextFormatter formatter = new TextFormatter(new TextFormat(fontA));
+		formatter.addFormatting(4, new TextFormat(fontB, EnumSet.of(DecorationStyle.BOLD, DecorationStyle.UNDERLINE)));
+		Line line = new Line("abc de".toCharArray(), formatter, new ObjectBounds(0, 0, 100, 12, FloatMode.NONE), 5);
+
+		GlyphBatch batch = new GlyphBatch();
+		line.tessellate(batch);
+		assertEquals("wrong segment count", 2, batch.segmentCount());
+		assertSame("segment 0 is not font a", fontA, batch.segmentFont(0));
+		assertEquals("segment 0 quad vertices", 3 * 4, batch.quadCount(0));
+		assertEquals("segment 0 line vertices", 0, batch.lineCount(0));
+		assertSame("segment 1 is not font b", fontB, batch.segmentFont(1));
+		assertEquals("bold doubles quads", 2 * 2 * 4, batch.quadCount(1));
+		assertEquals("underline adds lines", 2 * 2 * 2, batch.lineCount(1));
+
+		float[] quads = batch.quadData();
+		int d = batch.quadStart(1) * GlyphBatch.QUAD_VERTEX_SIZE;
+		assertEquals("'d' is not after 3 glyphs and a space", 35.0f, quads[d], 0.0f);
+		assertEquals("'d' is not black", 0.0f, quads[d + 5], 0.0f);
+		assertEquals("'d' is not opaque", 1.0f, quads[d + 8], 0.0f);
+	}
+
+	/**
+	 * Test to check that the static elements of a page are baked into one
+	 * vertex array, grouped by texture, at their place on the page.
+	 */
+	@Test
+	public void testPageGeometry() throws RenderException {
+		IGLFont fontA = testFont("a"), fontB = testFont("b");
+		Page page = new Page(new PageProperties(200, 200, null));
+		page.push(new Line("ab".toCharArray(), new TextFormatter(new TextFormat(fontA)), new ObjectBounds(0, 0, 100, 12, FloatMode.NONE), 5));
+		page.push(new Line("c".toCharArray(), new TextFormatter(new TextFormat(fontB, EnumSet.of(DecorationStyle.UNDERLINE))),
+			new ObjectBounds(0, 12, 100, 12, FloatMode.NONE), 5));
+		page.push(new Line("de".toCharArray(), new TextFormatter(new TextFormat(fontA)), new ObjectBounds(30, 24, 100, 12, FloatMode.NONE), 5));
+		ResourceLocation texture = new ResourceLocation("fontbox", "textures/gui/test.png");
+		Image image = new Image(texture, 50, 50);
+		image.setBounds(new ObjectBounds(100, 100, 50, 50, FloatMode.NONE));
+		page.push(image);
+		Paragraph paragraph = new Paragraph(new FormattedString("text"));
+		paragraph.setBounds(new ObjectBounds(0, 0, 0, 0, FloatMode.NONE));
+		page.push(paragraph);
+
+		PageGeometry geometry = PageGeometry.bake(page);
+		assertEquals("wrong group count", 3, geometry.groupCount());
+		assertSame("group 0 is not font a", fontA, geometry.groupFont(0));
+		assertEquals("font a quads not joined", 4 * 4, geometry.quadCount(0));
+		assertSame("group 1 is not font b", fontB, geometry.groupFont(1));
+		assertEquals("group 1 does not follow group 0", 4 * 4, geometry.quadStart(1));
+		assertNull("image group has a font", geometry.groupFont(2));
+		assertSame("image texture", texture, geometry.groupTexture(2));
+		assertEquals("underline vertices", 2, geometry.lineCount());
+		assertEquals("paragraph was baked", Collections.singletonList(paragraph), geometry.immediateElements());
+
+		float[] quads = geometry.quadData();
+		int d = 2 * 4 * GlyphBatch.QUAD_VERTEX_SIZE;
+		assertEquals("'d' is not at its line", 30.0f, quads[d], 0.0f);
+		assertEquals("'d' is not below its line", 24.0f + 12.0f, quads[d + 1], 0.0f);
+		int img = geometry.quadStart(2) * GlyphBatch.QUAD_VERTEX_SIZE;
+		assertEquals("image is not scaled", 100 * IBookProperties.SCALE, quads[img], 1e-4f);
+		assertEquals("line is not scaled by its font", 12.0f + 12.0f * 0.75f, geometry.lineData()[1], 0.0f);
+	}
+
+	/**
+	 * Test to check that pages are baked ahead of time in idle frames and
+	 * that the page furthest from the reader is dropped first.
+	 */
+	@Test
+	public void testPageCache() throws RenderException {
+		IGLFont font = testFont("a");
+		List<Page> pages = new ArrayList<>();
+		for (int i = 0; i < 6; i++) {
+			Page page = new Page(new PageProperties(200, 200, null));
+			page.push(new Line("abc".toCharArray(), new TextFormatter(new TextFormat(font)), new ObjectBounds(0, i, 100, 12, FloatMode.NONE), 5));
+			pages.add(page);
+		}
+
+		PageCache cache = new PageCache(3, new RecordingRenderBackend());
+		cache.focus(2);
+		for (int i = 1; i <= 3; i++)
+			cache.prefetch(i, pages.get(i));
+		assertFalse("baked before idle", cache.isReady(2));
+		int steps = 0;
+		while (cache.idle())
+			steps++;
+		assertEquals("one bake and one upload per page", 6, steps);
+		for (int i = 1; i <= 3; i++)
+			assertTrue("page " + i + " not ready", cache.isReady(i));
+		PageBuffer buffer = cache.buffer(2, pages.get(2));
+		assertEquals("wrong page baked", 2.0f * 1.0f + 12.0f, buffer.getGeometry().quadData()[1], 0.0f);
+		assertSame("page baked again", buffer.getGeometry(), cache.buffer(2, pages.get(2)).getGeometry());
+
+		cache.focus(4);
+		cache.prefetch(4, pages.get(4));
+		assertFalse("furthest page kept", cache.isReady(1));
+		assertTrue("nearer page dropped", cache.isReady(3));
+		assertFalse("stale geometry for new page", cache.isReady(4));
+		assertNotSame("changed page not baked again", buffer.getGeometry(), cache.buffer(2, pages.get(5)).getGeometry());
+
+		PageCache eager = new PageCache(2, new RecordingRenderBackend());
+		eager.setExecutor(Runnable::run);
+		eager.prefetch(0, pages.get(0));
+		assertTrue("baked page not uploaded", eager.idle());
+		assertTrue("page not ready", eager.isReady(0));
+		assertFalse("work left", eager.idle());
+	}
+
+	/**
+	 * Test to check that publishing pages one at a time keeps the pages
+	 * already baked, and that a new list of pages bakes them again.
+	 */
+	@Test
+	public void testChangePagesGrowing() {
+		IGLFont font = testFont("a");
+		RecordingRenderBackend backend = new RecordingRenderBackend();
+		BookGUI gui = new BookGUI(testBook(new PageProperties(200, 200, null)), new VoidTracer(), backend);
+		List<Page> pages = new ArrayList<>();
+		gui.changePages(pages, null);
+		for (int i = 0; i < 6; i++) {
+			Page page = new Page(new PageProperties(200, 200, null));
+			page.push(new Line("abc".toCharArray(), new TextFormatter(new TextFormat(font)), new ObjectBounds(0, 0, 100, 12, FloatMode.NONE), 5));
+			pages.add(page);
+			gui.changePages(pages, null);
+			for (int j = 0; j < 4; j++)
+				gui.drawScreen(0, 0, 0.0f);
+		}
+		assertEquals("published page baked pages again", 0, backend.count(Op.DELETE_BUFFER));
+		assertEquals("pages baked more than once", 4, backend.count(Op.UPLOAD_BUFFER));
+
+		backend.clear();
+		gui.changePages(new ArrayList<>(pages), null);
+		gui.drawScreen(0, 0, 0.0f);
+		assertTrue("new list kept the old pages", backend.count(Op.DELETE_BUFFER) > 0);
+		assertTrue("new list not baked", backend.count(Op.UPLOAD_BUFFER) > 0);
+	}
+
+	/**
+	 * Test to check that animated elements are stepped at the animation rate
+	 * and only drawn again when dirty, and that elements which do not track
+	 * changes are always drawn.
+	 */
+	@Test
+	public void testFrameScheduler() {
+		FrameScheduler scheduler = new FrameScheduler(new RecordingRenderBackend(), 1, 10.0f);
+		ImageItemStack item = new ImageItemStack(null, 16, 16);
+		Paragraph text = new Paragraph(new FormattedString("abc"));
+		assertTrue("first frame not stepped", scheduler.beginFrame(0));
+		assertTrue("new element not drawn", scheduler.schedule(item));
+		item.markClean();
+		text.markClean();
+
+		long ms = 1000000L;
+		assertFalse("stepped early", scheduler.beginFrame(50 * ms));
+		assertFalse("clean element drawn", scheduler.schedule(item));
+		assertTrue("untracked element not drawn", scheduler.schedule(text));
+		assertTrue("step missed", scheduler.beginFrame(100 * ms));
+		assertTrue("animated element not drawn", scheduler.schedule(item));
+		item.markClean();
+		assertFalse("stepped twice", scheduler.beginFrame(150 * ms));
+		item.markDirty();
+		assertTrue("dirty element not drawn", scheduler.schedule(item));
+		assertTrue("rate drifted", scheduler.beginFrame(201 * ms));
+
+		scheduler.setAnimationRate(0.0f);
+		assertTrue("not stepped every frame", scheduler.beginFrame(202 * ms));
+		assertTrue("not stepped every frame", scheduler.beginFrame(202 * ms));
+	}
+
+	/**
+	 * Test to check that dynamic elements which do not track their changes
+	 * are drawn every frame without a display list, while tracked ones are
+	 * replayed from theirs.
+	 */
+	@Test
+	public void testFrameSchedulerUntracked() throws RenderException {
+		Page page = new Page(new PageProperties(200, 200, null));
+		Image animated = new Image(new ResourceLocation("fontbox", "textures/gui/test.png"), 16, 16) {
+			@Override
+			public boolean canCompileRender() {
+				return false;
+			}
+		};
+		animated.setBounds(new ObjectBounds(0, 0, 16, 16, FloatMode.NONE));
+		page.push(animated);
+		ImageItemStack item = new ImageItemStack(null, 16, 16);
+		item.setBounds(new ObjectBounds(0, 20, 16, 16, FloatMode.NONE));
+		page.push(item);
+
+		RecordingRenderBackend backend = new RecordingRenderBackend();
+		FrameScheduler scheduler = new FrameScheduler(backend, 1, 10.0f);
+		for (int i = 0; i < 3; i++) {
+			scheduler.beginFrame(i);
+			scheduler.draw(0, page, null, 0, 0, 0.0f);
+		}
+		assertEquals("untracked element given a list", 1, backend.count(Op.CREATE_LISTS));
+		assertEquals("untracked element compiled", 1, backend.count(Op.BEGIN_LIST));
+		assertEquals("tracked element not replayed", 2, backend.count(Op.CALL_LIST));
+		assertEquals("tracked element drawn again", 1, backend.count(Op.ITEM));
+		assertEquals("untracked element not drawn every frame", 3, backend.count(Op.TEXTURED_RECT));
+	}
+
+	/**
+	 * Test to check that drawing an unchanged spread allocates nothing once
+	 * its pages are baked.
+	 */
+	@Test
+	public void testDrawScreenAllocation() {
+		IGLFont font = testFont("a");
+		ResourceLocation texture = new ResourceLocation("fontbox", "textures/gui/test.png");
+		List<Page> pages = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			Page page = new Page(new PageProperties(200, 200, null));
+			page.push(new Line("abc".toCharArray(), new TextFormatter(new TextFormat(font)), new ObjectBounds(0, 0, 100, 12, FloatMode.NONE), 5));
+			Image animated = new Image(texture, 16, 16) {
+				@Override
+				public boolean canCompileRender() {
+					return false;
+				}
+
+				@Override
+				public boolean canUpdate() {
+					return true;
+				}
+
+				@Override
+				public void render(IRenderBackend backend, GuiScreen gui, int mx, int my, float frame) {
+				}
+			};
+			animated.setBounds(new ObjectBounds(0, 20, 16, 16, FloatMode.NONE));
+			page.push(animated);
+			pages.add(page);
+		}
+
+		RecordingRenderBackend backend = new RecordingRenderBackend();
+		BookGUI gui = new BookGUI(testBook(new PageProperties(200, 200, null)), new VoidTracer(), backend);
+		gui.changePages(pages, null);
+		// Bake and upload this spread and the next, and warm up
+		for (int i = 0; i < 1000; i++)
+			gui.drawScreen(0, 0, 0.0f);
+
+		long allocated = allocatedBytes(10000, () -> {
+			backend.clear();
+			gui.drawScreen(0, 0, 0.0f);
+			assertEquals("pages not drawn every frame", 2, backend.count(Op.QUADS));
+			assertEquals("untracked elements put in lists", 0,
+				backend.count(Op.BEGIN_LIST) + backend.count(Op.CALL_LIST));
+		});
+		assertEquals("bytes allocated drawing frames", 0, allocated);
+	}
+
+	/**
+	 * Test to check that laying out a paragraph through the void tracer
+	 * builds no trace arrays or boxes: layout through a tracer which counts
+	 * and keeps everything built for it must see nothing, and allocate no more
+	 * than layout through the void tracer.
+	 */
+	@Test
+	public void testVoidTracerAllocation() {
+		// Keep what reaches the tracer, so the JIT cannot remove what was built
+		final Object[] kept = new Object[1];
+		final int[] built = new int[1];
+		ITracer counting = new VoidTracer() {
+			@Override
+			public void trace(Object... params) {
+				kept[0] = params;
+				built[0]++;
+			}
+
+			@Override
+			public void trace(String source, String phase, Object a) {
+				kept[0] = a;
+				if (a instanceof Number)
+					built[0]++;
+			}
+
+			@Override
+			public void trace(String source, String phase, Object a, Object b) {
+				kept[0] = b;
+				if (a instanceof Number || b instanceof Number)
+					built[0]++;
+			}
+		};
+		ITracer voidTracer = new VoidTracer();
+
+		FontboxManager manager = new FontboxManager();
+		PageProperties properties = new PageProperties(400, 300, new TextFormat(testFont("body")));
+		StringBuilder words = new StringBuilder();
+		for (int i = 0; i < 200; i++)
+			words.append((i % 2 == 0) ? "lorem " : "ipsum ");
+		Paragraph paragraph = new Paragraph(new FormattedString(words.toString()));
+		Function<ITracer, Runnable> layout = trace -> () -> {
+			try {
+				PageWriter writer = new PageWriter(properties, manager);
+				paragraph.layout(trace, writer);
+				writer.close();
+			} catch (IOException | LayoutException e) {
+				throw new AssertionError(e);
+			}
+		};
+
+		layout.apply(counting).run();
+		assertEquals("trace parameters built for the void tracer", 0, built[0]);
+		long withVoid = allocatedBytes(200, layout.apply(voidTracer));
+		long withCounting = allocatedBytes(200, layout.apply(counting));
+		assertEquals("trace parameters built per paragraph", 0, built[0]);
+		assertTrue("bytes allocated tracing: " + withCounting + " against " + withVoid,
+			withCounting <= withVoid);
+	}
+
+	/**
+	 * Test to check what a frame of a spread draws, through the recording
+	 * backend.
+	 */
+	@Test
+	public void testRecordedFrame() {
+		IGLFont font = testFont("a");
+		ResourceLocation texture = new ResourceLocation("fontbox", "textures/gui/test.png");
+		Page page = new Page(new PageProperties(200, 200, null));
+		page.push(new Line("ab".toCharArray(), new TextFormatter(new TextFormat(font, EnumSet.of(DecorationStyle.UNDERLINE))),
+			new ObjectBounds(0, 0, 100, 12, FloatMode.NONE), 5));
+		Image image = new Image(texture, 50, 50);
+		image.setBounds(new ObjectBounds(100, 100, 50, 50, FloatMode.NONE));
+		page.push(image);
+		ImageItemStack item = new ImageItemStack(null, 25, 25);
+		item.setBounds(new ObjectBounds(0, 100, 25, 25, FloatMode.NONE));
+		page.push(item);
+
+		RecordingRenderBackend backend = new RecordingRenderBackend();
+		BookGUI gui = new BookGUI(testBook(new PageProperties(200, 200, null)), new VoidTracer(), backend);
+		gui.changePages(Collections.singletonList(page), null);
+		gui.drawScreen(0, 0, 0.0f);
+		assertEquals(
+			"color 1.0 1.0 1.0 1.0\n"
+			+ "translate 0.0 0.0 0.0\n"
+			+ "push_matrix\n"
+			+ "pop_matrix\n"
+			+ "create_buffer 1.0\n"
+			+ "upload_buffer 1.0 544.0\n"
+			+ "push_matrix\n"
+			+ "translate 0.0 0.0 0.0\n"
+			+ "begin_vertices 1.0\n"
+			+ "bind_texture 1.0\n"
+			+ "quads 8.0 0.0 0.0 20.0 12.0\n"
+			+ "bind_texture fontbox:textures/gui/test.png\n"
+			+ "quads 4.0 44.0 44.0 66.0 66.0\n"
+			+ "lines 4.0 0.0 9.0 20.0 9.0\n"
+			+ "end_vertices\n"
+			+ "pop_matrix\n"
+			+ "push_matrix\n"
+			+ "translate 0.0 0.0 0.0\n"
+			+ "create_lists 1.0 1.0\n"
+			+ "begin_list 1.0\n"
+			+ "item 0.0 44.0 11.0 11.0\n"
+			+ "end_list\n"
+			+ "reset_state\n"
+			+ "pop_matrix\n"
+			+ "push_matrix\n"
+			+ "pop_matrix\n",
+			backend.toString());
+
+		// The next frame draws from the same buffer and replays the item
+		backend.clear();
+		gui.drawScreen(0, 0, 0.0f);
+		assertEquals(0, backend.count(Op.UPLOAD_BUFFER));
+		assertEquals(0, backend.count(Op.BEGIN_LIST));
+		assertEquals(1, backend.count(Op.CALL_LIST));
+		assertEquals(2, backend.count(Op.QUADS));
+	}
+
+	/**
+	 * Test to check that asynchronous layout publishes every page in order.
+	 */
+	@Test
+	public void testAsyncBook() throws Exception {
+		IBookProperties properties = testBook(new PageProperties(120, 60, new TextFormat(testFont("body"))));
+		final List<IPage> published = Collections.synchronizedList(new ArrayList<IPage>());
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			IBook book = testDocument(new DocumentWrapper(), 4).createBookAsync(new FontboxManager(), properties, executor, published::add).get();
+			assertTrue("book has too few pages", book.pages().size() > 4);
+			assertEquals("published pages differ from book", book.pages(), published);
+			assertEquals("chapter 0 is not on page 0", 0, book.index().find("chapter0"));
+			assertTrue("chapter 3 is not after chapter 2", book.index().find("chapter3") > book.index().find("chapter2"));
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Test to check that parallel layout gives the same book as sequential
+	 * layout.
+	 */
+	@Test
+	public void testParallelLayout() throws Exception {
+		IBookProperties properties = testBook(new PageProperties(120, 60, new TextFormat(testFont("body"))));
+		DocumentWrapper sequential = new DocumentWrapper(), parallel = new DocumentWrapper();
+		for (DocumentWrapper document : new DocumentWrapper[] { sequential, parallel }) {
+			document.pageBreak();
+			testDocument(document, 8);
+			document.pageBreak();
+		}
+		IBook expected = sequential.createBook(new FontboxManager(), properties);
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			IBook actual = parallel.createBook(new FontboxManager(), properties, pool);
+			assertEquals("parallel layout differs", describe(expected), describe(actual));
+			for (int i = 0; i < 8; i++)
+				assertEquals("chapter " + i + " anchor differs", expected.index().find("chapter" + i),
+					actual.index().find("chapter" + i));
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Test to check that layouts are found in the memory and disk caches.
+	 */
+	@Test
+	public void testLayoutCache() throws Exception {
+		File directory = Files.createTempDirectory("fontbox").toFile();
+		try {
+			IBookProperties properties = testBook(new PageProperties(120, 60, new TextFormat(testFont("body"))));
+			FontboxManager manager = new FontboxManager();
+			manager.setLayoutCache(new LayoutCache(100, directory));
+			IBook laidOut = testDocument(new DocumentWrapper(), 4).createBook(manager, properties);
+			IBook fromMemory = testDocument(new DocumentWrapper(), 4).createBook(manager, properties);
+			assertNotSame("memory tier returned pages of another document", laidOut.pages(), fromMemory.pages());
+			assertEquals("memory tier pages differ", describe(laidOut), describe(fromMemory));
+
+			FontboxManager restarted = new FontboxManager();
+			restarted.allocateFont(testFont("body"));
+			restarted.setLayoutCache(new LayoutCache(100, directory));
+			IBook fromDisk = testDocument(new DocumentWrapper(), 4).createBook(restarted,
+				testBook(new PageProperties(120, 60, new TextFormat(testFont("body")))));
+			assertNotSame("disk tier returned memory pages", laidOut.pages(), fromDisk.pages());
+			assertEquals("disk tier pages differ", describe(laidOut), describe(fromDisk));
+			assertEquals("disk tier anchors differ", laidOut.index().find("chapter3"), fromDisk.index().find("chapter3"));
+
+			IBook narrower = testDocument(new DocumentWrapper(), 4).createBook(manager,
+				testBook(new PageProperties(110, 60, new TextFormat(testFont("body")))));
+			assertNotEquals("page properties not in key", describe(laidOut), describe(narrower));
+		} finally {
+			for (File file : directory.listFiles())
+				file.delete();
+			directory.delete();
+		}
+	}
+
+	/**
+	 * Test to check that laying out a document again finds its layout, bound
+	 * to the elements of the document asking.
+	 */
+	@Test
+	public void testLayoutCacheRepeat() throws Exception {
+		File directory = Files.createTempDirectory("fontbox").toFile();
+		try {
+			IBookProperties properties = testBook(new PageProperties(120, 60, new TextFormat(testFont("body"))));
+			FontboxManager manager = new FontboxManager();
+			manager.setLayoutCache(new LayoutCache(100, directory));
+			ResourceLocation texture = new ResourceLocation("fontbox", "textures/gui/test.png");
+			DocumentWrapper document = testDocument(new DocumentWrapper(), 4);
+			document.addImage(texture, 20, 20);
+			IBook first = document.createBook(manager, properties);
+			IBook second = document.createBook(manager, properties);
+			assertEquals("second layout was not a cache hit", 1, directory.listFiles().length);
+			assertEquals("cached pages differ", describe(first), describe(second));
+
+			DocumentWrapper other = testDocument(new DocumentWrapper(), 4);
+			other.addImage(texture, 20, 20);
+			IBook third = other.createBook(manager, properties);
+			assertEquals("other document was not a cache hit", 1, directory.listFiles().length);
+			IElement image = null;
+			for (IPage page : third.pages())
+				for (IElement element : page.allElements())
+					if (element instanceof Image)
+						image = element;
+			assertNotNull("image not laid out", image);
+			for (IPage page : first.pages())
+				for (IElement element : page.allElements())
+					assertNotSame("cached page holds the first document's image", image, element);
+		} finally {
+			for (File file : directory.listFiles())
+				file.delete();
+			directory.delete();
+		}
+	}
+
+	/**
+	 * Test to check that page files read back the pages which were written,
+	 * with and without the document.
+	 */
+	@Test
+	public void testPageCodec() throws Exception {
+		IBookProperties properties = testBook(new PageProperties(120, 60, new TextFormat(testFont("body"))));
+		FontboxManager manager = new FontboxManager();
+		manager.allocateFont(testFont("body"));
+		DocumentWrapper document = testDocument(new DocumentWrapper(), 3);
+		document.addLink("back", "chapter0");
+		IBook book = document.createBook(manager, properties);
+
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		PageCodec.write(out, book.pages(), (PageIndex) book.index(), null);
+		IBook read = new PageCodec.Reader(ByteBuffer.wrap(out.toByteArray()), manager).book(properties);
+		assertEquals("pages differ", describe(book), describe(read));
+		assertEquals("anchors differ", book.index().find("chapter2"), read.index().find("chapter2"));
+		IPage last = read.pages().get(read.pages().size() - 1);
+		Line link = (Line) last.allElements().iterator().next();
+		assertEquals("link target lost", "chapter0", ((Link) link.underlyingElement).id);
+		assertEquals("link text lost", "back", ((Link) link.underlyingElement).text.string);
+		assertTrue("link not described", ((Link) link.underlyingElement).describe(new LayoutKey()));
+
+		File file = File.createTempFile("fontbox", ".fbl");
+		try {
+			try (FileOutputStream fout = new FileOutputStream(file)) {
+				fout.write(out.toByteArray());
+			}
+			PageCodec.Reader mapped = PageCodec.Reader.map(file, manager);
+			assertEquals("wrong page count", book.pages().size(), mapped.pageCount());
+			assertEquals("mapped page differs", describe(read).split("page\n")[2],
+				describe(new Book(mapped.pages(null, properties.getPageProperties()), mapped.index(), properties)).split("page\n")[2]);
+		} finally {
+			file.delete();
+		}
+	}
+
+	/**
+	 * Test to check that packed glyph atlases are small, keep the grid
+	 * metrics and do not overlap.
+	 */
+	@Test
+	public void testGlyphAtlas() throws Exception {
+		Font font = new Font(Font.SERIF, Font.PLAIN, 22);
+		GlyphAtlas atlas = GlyphAtlas.fromFont(new VoidTracer(), font, IGLFont.MIN_CH, IGLFont.MAX_CH);
+		GLFontMetrics grid = GLFontMetrics.fromFontMetrics(new VoidTracer(), font, new FontRenderContext(null, true, false),
+			512, 512, 12, IGLFont.MIN_CH, IGLFont.MAX_CH);
+		assertTrue("atlas is not smaller than the grid", 512 * 512 > atlas.getImage().getWidth() * atlas.getImage().getHeight());
+		List<Rectangle> regions = new ArrayList<>();
+		for (char c = IGLFont.MIN_CH; c <= IGLFont.MAX_CH; c++) {
+			IGLGlyphMetric packed = atlas.getMetric().glyph(c), expected = grid.glyph(c);
+			assertEquals("width changed", expected.getWidth(), packed.getWidth());
+			assertEquals("height changed", expected.getHeight(), packed.getHeight());
+			assertEquals("ascent changed", expected.getAscent(), packed.getAscent());
+			Rectangle region = new Rectangle(packed.getUx(), packed.getVy() - packed.getAscent(), packed.getWidth(), packed.getHeight());
+			assertTrue("region outside image", region.x >= 0 && region.y >= 0
+				&& atlas.getImage().getWidth() >= region.x + Math.max(0, region.width)
+				&& atlas.getImage().getHeight() >= region.y + region.height);
+			for (Rectangle other : regions)
+				assertFalse("regions overlap at " + (int) c, other.intersects(region));
+			regions.add(region);
+		}
+	}
+
+	/**
+	 * Test to check that glyphs beyond the first block are rasterized onto
+	 * further atlas pages when they are first looked up.
+	 */
+	@Test
+	public void testGlyphAtlasPages() throws Exception {
+		Font font = new Font(Font.SERIF, Font.PLAIN, 22);
+		GlyphAtlas atlas = GlyphAtlas.fromFont(new VoidTracer(), font, IGLFont.MIN_CH, IGLFont.MAX_CH);
+		GLFontMetrics metric = atlas.getMetric();
+		assertEquals("more than one page up front", 1, atlas.getPageCount());
+		assertFalse("cyrillic rasterized up front", metric.getGlyphs().containsKey((int) '\u0416'));
+		String key = new LayoutKey().put(testFont("serif", metric)).finish();
+		IGLGlyphMetric zhe = metric.glyph('\u0416');
+		assertNotNull("no glyph for cyrillic", zhe);
+		assertEquals("cyrillic not on a new page", 1, zhe.getPage());
+		assertEquals("page count", 2, atlas.getPageCount());
+		assertSame("block rasterized twice", zhe, metric.glyph('\u0416'));
+		assertNotNull("rest of block not rasterized", metric.getGlyphs().get((int) '\u0430'));
+		assertEquals("layout key changed as glyphs loaded", key, new LayoutKey().put(testFont("serif", metric)).finish());
+		assertNull("private use glyph exists", metric.glyph('\ue000'));
+		assertEquals("page width", 512.0f, metric.getPageWidth(1), 0.0f);
+		assertEquals("first page width", atlas.getImage().getWidth(), metric.getPageWidth(0), 0.0f);
+	}
+
+	/**
+	 * Test to check that cached fonts come back with the same pixels and
+	 * metrics, and can still rasterize more characters.
+	 */
+	@Test
+	public void testFontCache() throws Exception {
+		Font font = new Font(Font.SERIF, Font.PLAIN, 22);
+		GlyphAtlas atlas = GlyphAtlas.fromFont(new VoidTracer(), font, IGLFont.MIN_CH, IGLFont.MAX_CH);
+		byte[] ttf = "not really a font".getBytes("UTF-8");
+		String key = FontCache.key(ttf, 22, IGLFont.MIN_CH, IGLFont.MAX_CH);
+		assertNotEquals("size not in key", key, FontCache.key(ttf, 24, IGLFont.MIN_CH, IGLFont.MAX_CH));
+
+		File dir = Files.createTempDirectory("fontbox").toFile();
+		try {
+			FontCache cache = new FontCache(dir);
+			assertNull("empty cache hit", cache.get(key, new VoidTracer(), font));
+			cache.put(key, atlas, new VoidTracer());
+			GlyphAtlas read = cache.get(key, new VoidTracer(), font);
+			assertNotNull("cache missed", read);
+			int w = atlas.getImage().getWidth(), h = atlas.getImage().getHeight();
+			assertArrayEquals("pixels differ", atlas.getImage().getRGB(0, 0, w, h, null, 0, w),
+				read.getImage().getRGB(0, 0, w, h, null, 0, w));
+			for (char c = IGLFont.MIN_CH; c <= IGLFont.MAX_CH; c++)
+				assertEquals("glyph differs", atlas.getMetric().glyph(c).toString(), read.getMetric().glyph(c).toString());
+			assertNotNull("cannot rasterize more", read.getMetric().glyph('\u0416'));
+		} finally {
+			for (File file : dir.listFiles())
+				file.delete();
+			dir.delete();
+		}
+	}
+
+	/**
+	 * Test to check that batch font loading prepares on the executor and
+	 * uploads on the calling thread, in order.
+	 */
+	@Test
+	public void testLoadFonts() throws Exception {
+		final FontboxManager manager = new FontboxManager();
+		final Thread caller = Thread.currentThread();
+		List<Callable<IPreparedFont>> jobs = new ArrayList<>();
+		for (int i = 0; i < 4; i++) {
+			final String name = "font" + i;
+			jobs.add(() -> {
+				assertNotSame("prepared on the caller", caller, Thread.currentThread());
+				return new IPreparedFont() {
+					public String getName() {
+						return name;
+					}
+
+					public IGLFont upload(FontboxManager manager) {
+						assertSame("uploaded off the caller", caller, Thread.currentThread());
+						IGLFont font = testFont(name);
+						manager.allocateFont(font);
+						return font;
+					}
+				};
+			});
+		}
+		ExecutorService pool = Executors.newFixedThreadPool(2);
+		try {
+			List<IGLFont> fonts = manager.loadFonts(pool, jobs);
+			for (int i = 0; i < 4; i++)
+				assertSame("font out of order", manager.fromName("font" + i), fonts.get(i));
+
+			jobs.set(2, () -> {
+				throw new FontException("broken");
+			});
+			try {
+				manager.loadFonts(pool, jobs);
+				fail("failure not reported");
+			} catch (FontException e) {
+				assertEquals("wrong failure", "broken", e.getMessage());
+			}
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Test to check that texture data is converted straight from the image
+	 * into a reusable buffer.
+	 */
+	@Test
+	public void testTextureData() throws Exception {
+		BufferedImage argb = new BufferedImage(3, 2, BufferedImage.TYPE_INT_ARGB);
+		argb.setRGB(0, 0, 0xff102030);
+		argb.setRGB(1, 0, 0x00ffffff);
+		argb.setRGB(2, 1, 0x80ffffff);
+		BufferedImage abgr = new BufferedImage(3, 2, BufferedImage.TYPE_4BYTE_ABGR);
+		abgr.setData(argb.getData());
+		for (BufferedImage image : new BufferedImage[] { argb, abgr }) {
+			ByteBuffer rgba = TextureData.rgba(image, null);
+			assertEquals("wrong size", 3 * 2 * 4, rgba.remaining());
+			assertEquals("red", 0x10, rgba.get(0));
+			assertEquals("green", 0x20, rgba.get(1));
+			assertEquals("blue", 0x30, rgba.get(2));
+			assertEquals("alpha", (byte) 0xff, rgba.get(3));
+			assertEquals("transparent not black", 0, rgba.getInt(4));
+			assertEquals("half alpha", (byte) 0x80, rgba.get(5 * 4 + 3));
+			ByteBuffer alpha = TextureData.alpha(image, rgba);
+			assertSame("buffer not reused", rgba, alpha);
+			assertEquals("wrong alpha size", 3 * 2, alpha.remaining());
+			assertEquals("alpha value", (byte) 0x80, alpha.get(5));
+		}
+	}
+
+	/**
+	 * Test to check that distance fields are signed correctly and that the
+	 * distance field atlas covers the same pixels as the bitmap atlas.
+	 */
+	@Test
+	public void testDistanceField() throws Exception {
+		boolean[] mask = new boolean[9 * 9];
+		for (int y = 3; y < 6; y++)
+			for (int x = 3; x < 6; x++)
+				mask[y * 9 + x] = true;
+		float[] field = DistanceFieldAtlas.signedDistance(mask, 9, 9);
+		assertEquals("centre", 1.5f, field[4 * 9 + 4], 1e-5f);
+		assertEquals("inside edge", 0.5f, field[3 * 9 + 4], 1e-5f);
+		assertEquals("outside edge", -0.5f, field[2 * 9 + 4], 1e-5f);
+		assertEquals("corner", 0.5f - (float) Math.sqrt(18), field[0], 1e-5f);
+
+		Font font = new Font(Font.SANS_SERIF, Font.PLAIN, 12);
+		ForkJoinPool pool = new ForkJoinPool(4);
+		try {
+			DistanceFieldAtlas sdf = DistanceFieldAtlas.fromFont(new VoidTracer(), font, IGLFont.MIN_CH, IGLFont.MAX_CH,
+				pool);
+			FontRenderContext ctx = new FontRenderContext(null, true, false);
+			for (char c : "HOgW#".toCharArray()) {
+				TextLayout layout = new TextLayout(String.valueOf(c), font.deriveFont(DistanceFieldAtlas.BASE_SIZE), ctx);
+				Shape outline = layout.getOutline(null);
+				IGLGlyphMetric glyph = sdf.getMetric().glyph(c);
+				int left = layout.getPixelBounds(null, 0, 0).x, inside = 0, outside = 0;
+				for (int y = -glyph.getAscent(); y < glyph.getHeight() - glyph.getAscent(); y++)
+					for (int x = 0; x < glyph.getWidth(); x++) {
+						int distance = sdf.getImage().getRGB(glyph.getUx() + x, glyph.getVy() + y) >>> 24;
+						// Within a quarter of a pixel of the outline either way
+						if (outline.contains(left + x + 0.5, y + 0.5)) {
+							assertTrue("inside of " + c + " at " + x + "," + y + ": " + distance, distance > 0x80 - 8);
+							inside++;
+						} else {
+							assertTrue("outside of " + c + " at " + x + "," + y + ": " + distance, distance < 0x80 + 8);
+							outside++;
+						}
+					}
+				assertTrue("no pixels inside " + c, inside > 0);
+				assertTrue("no pixels outside " + c, outside > 0);
+			}
+
+			ScaledGlyphMetric half = new ScaledGlyphMetric(sdf.getMetric().glyph('H'), 0.5f);
+			assertEquals("scaled width", Math.round(sdf.getMetric().glyph('H').getWidth() * 0.5f), half.getWidth());
+			assertEquals("texture width", sdf.getMetric().glyph('H').getWidth(), half.getTextureWidth());
+			assertEquals("texture origin", sdf.getMetric().glyph('H').getUx(), half.getUx());
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Test to check that lazy books hold few pages and match eager books.
+	 */
+	@Test
+	public void testLazyBook() throws Exception {
+		IBookProperties properties = testBook(new PageProperties(120, 60, new TextFormat(testFont("body"))));
+		FontboxManager manager = new FontboxManager();
+		manager.allocateFont(testFont("body"));
+		IBook eager = testDocument(new DocumentWrapper(), 4).createBook(manager, properties);
+		IBook lazy = testDocument(new DocumentWrapper(), 4).createLazyBook(manager, properties, 2);
+		assertEquals("pages differ", describe(eager), describe(lazy));
+		assertEquals("anchors differ", eager.index().find("chapter3"), lazy.index().find("chapter3"));
+		assertTrue("too many pages held", 2 >= ((LazyPageList) lazy.pages()).materializedCount());
+		assertSame("page decoded twice", lazy.pages().get(1), lazy.pages().get(1));
+	}
+
+	/**
+	 * Test to check that pushback readers restore and commit positions.
+	 */
+	@Test
+	public void testPushBackReader() throws IOException {
+		StackedPushBackCharReader reader = new StackedPushBackCharReader("ab cd");
+		assertEquals("first is not a", 'a', reader.next());
+		reader.pushPosition();
+		reader.next();
+		reader.pushPosition();
+		reader.next();
+		reader.popPosition();
+		assertEquals("pop did not restore", 2, reader.getPosition());
+		reader.commitPosition();
+		assertEquals("commit moved pointer", 2, reader.getPosition());
+		assertEquals("wrong available", 3, reader.available());
+		reader.skip(10);
+		assertEquals("end is not 0", 0, reader.next());
+		try {
+			reader.popPosition();
+			fail("popPosition must underflow on an empty stack");
+		} catch (IOException e) {
+			/* expected */
+		}
+	}
 }